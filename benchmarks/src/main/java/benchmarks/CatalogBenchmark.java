@@ -0,0 +1,60 @@
+package benchmarks;
+
+import model.Item;
+import model.Store;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.StoreGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks of loading a whole catalog of a given size into an empty store with addItemToStore(),
+// as reading a store file does; each invocation loads fresh items
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int items;
+
+    @Param({"false", "true"})
+    public boolean columnar;
+
+    private StoreGenerator generator;
+    private Item[] catalog;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = new StoreGenerator(1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: generates a fresh catalog to load, since a heap store keeps the very items it is given
+    @Setup(Level.Invocation)
+    public void generate() {
+        catalog = generator.items(items);
+    }
+
+    @Benchmark
+    public Store addItemToStore() {
+        Store store = columnar ? Store.withColumnarInventory(1000) : new Store(1000);
+        for (Item item : catalog) {
+            store.addItemToStore(item, 0);
+        }
+        return store;
+    }
+}
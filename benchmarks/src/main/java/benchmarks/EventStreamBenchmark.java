@@ -0,0 +1,87 @@
+package benchmarks;
+
+import model.EventStream;
+import model.Item;
+import model.Store;
+import model.TransactionResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.StoreGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks of what publishing to a store's event stream adds to a sale: selling an item with no
+// stream, with a stream nobody subscribes to, and with a number of subscribers that do nothing,
+// from one checkout thread and from four
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventStreamBenchmark {
+    private static final int PLENTY = 1000000000;
+
+    // -1 for no stream at all
+    @Param({"-1", "0", "1", "3"})
+    public int subscribers;
+
+    private Store store;
+    private Item inStock;       // a priced item with plenty in stock
+
+    // MODIFIES: this
+    // EFFECTS: generates a store of 1000 items and subscribes the given number of subscribers to its events
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new StoreGenerator(1).store(1000, false);
+        inStock = store.getItemsStocked().get(500);
+        if (!inStock.priceIsSet()) {
+            inStock.setPriceCents(2 * inStock.getCostCents());
+        }
+        if (subscribers >= 0) {
+            EventStream events = store.getEvents();
+            for (int i = 0; i < subscribers; i++) {
+                events.subscribe("benchmark-subscriber-" + i, (event, sequence, endOfBatch) -> { });
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: restocks the item sold in every iteration, so that sales keep succeeding
+    @Setup(Level.Iteration)
+    public void restock() {
+        store.addItemToStore(inStock, PLENTY - inStock.getQuantity());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the subscribers
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (subscribers >= 0) {
+            store.getEvents().close();
+        }
+    }
+
+    @Benchmark
+    public TransactionResult sell() {
+        return store.trySell(inStock, 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TransactionResult sellFromFourThreads() {
+        return store.trySell(inStock, 1);
+    }
+}
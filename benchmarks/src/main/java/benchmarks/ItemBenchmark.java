@@ -0,0 +1,60 @@
+package benchmarks;
+
+import model.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks of Item's hashCode() and equals(), alone and as used by a hash map keyed by item
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemBenchmark {
+    private Item item;
+    private Item equal;         // another instance of the same product
+    private Item other;         // an item of a product with the same name and a different cost
+    private Map<Item, Integer> map;
+
+    @Setup
+    public void setUp() {
+        item = Item.ofCents("benchmark item", 1999);
+        equal = Item.ofCents("benchmark item", 1999);
+        other = Item.ofCents("benchmark item", 2000);
+        map = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(Item.ofCents("benchmark item " + i, 1999), i);
+        }
+        map.put(item, -1);
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return item.hashCode();
+    }
+
+    @Benchmark
+    public void equalsOf(Blackhole blackhole) {
+        blackhole.consume(item.equals(equal));
+        blackhole.consume(item.equals(other));
+    }
+
+    @Benchmark
+    public Integer mapLookup() {
+        return map.get(equal);
+    }
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import model.Store;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.JsonReader;
+import persistence.JsonWriter;
+import simulation.StoreGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks of reading and writing synthetic stores of 1k to 1M items as JSON store files
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int items;
+
+    private Store store;
+    private Path readFile;      // a file holding store, read by every invocation
+    private Path writeFile;     // the file every invocation writes store to
+
+    // MODIFIES: this
+    // EFFECTS: generates the store and writes it to a temporary file to be read
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        store = new StoreGenerator(1).store(items, false);
+        readFile = Files.createTempFile("benchmark-read", ".json");
+        writeFile = Files.createTempFile("benchmark-write", ".json");
+        JsonWriter writer = new JsonWriter(readFile.toString());
+        writer.open();
+        writer.write(store);
+        writer.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(readFile);
+        Files.deleteIfExists(writeFile);
+    }
+
+    @Benchmark
+    public Store read() throws IOException {
+        return new JsonReader(readFile.toString()).read();
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        JsonWriter writer = new JsonWriter(writeFile.toString());
+        writer.open();
+        writer.write(store);
+        writer.close();
+    }
+}
@@ -0,0 +1,111 @@
+package benchmarks;
+
+import model.Item;
+import model.OrderEngine;
+import model.Store;
+import model.TransactionResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.StoreGenerator;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks of the throughput of sales from eight threads at once, spread over the items of a synthetic
+// store of 1000 items: calling Store.trySell() directly, and submitting the sales to an OrderEngine
+// with a given number of partitions and waiting for each thread's results
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderEngineBenchmark {
+    private static final int PLENTY = 1000000000;
+    private static final int ORDERS = 1000;
+
+    @Param({"2", "4", "8"})
+    public int partitions;
+
+    private Store store;
+    private Item[] items;       // priced items with plenty in stock
+    private OrderEngine engine;
+
+    // MODIFIES: this
+    // EFFECTS: generates the store, prices every item, and starts the engine
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new StoreGenerator(1).store(1000, false);
+        List<Item> stocked = store.getItemsStocked();
+        items = stocked.toArray(new Item[0]);
+        for (Item item : items) {
+            if (!item.priceIsSet()) {
+                item.setPriceCents(2 * item.getCostCents());
+            }
+        }
+        engine = new OrderEngine(store, partitions, OrderEngine.DEFAULT_BATCH_SIZE,
+                OrderEngine.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: restocks every item, so that sales keep succeeding
+    @Setup(Level.Iteration)
+    public void restock() {
+        for (Item item : items) {
+            store.addItemToStore(item, PLENTY - item.getQuantity());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the engine
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(ORDERS)
+    public int sellDirectly() {
+        int sold = 0;
+        for (int i = 0; i < ORDERS; i++) {
+            if (store.trySell(items[(i * 31 + (int) Thread.currentThread().getId()) % items.length], 1)
+                    == TransactionResult.OK) {
+                sold++;
+            }
+        }
+        return sold;
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(ORDERS)
+    public int sellThroughEngine() {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<TransactionResult>[] results = new CompletableFuture[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            results[i] = engine.sell(items[(i * 31 + (int) Thread.currentThread().getId()) % items.length], 1);
+        }
+        int sold = 0;
+        for (CompletableFuture<TransactionResult> result : results) {
+            if (result.join() == TransactionResult.OK) {
+                sold++;
+            }
+        }
+        return sold;
+    }
+}
@@ -0,0 +1,149 @@
+package benchmarks;
+
+import model.Item;
+import model.Store;
+import model.TransactionResult;
+import model.exceptions.InsufficientQuantityException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.StoreGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks of stocking and selling single items in a synthetic store of a given size: a sale that
+// succeeds (hit), one of an item the store does not stock (miss), and one of an item sold out
+// (insufficient quantity), each through the boolean API and through the result-code API
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StoreBenchmark {
+    private static final int PLENTY = 1000000000;
+    private static final long ASSET_CENTS = 1L << 60;   // enough for every stock an iteration can make
+
+    @Param({"1000", "100000", "1000000"})
+    public int items;
+
+    @Param({"false", "true"})
+    public boolean columnar;
+
+    private Store store;
+    private Item[] catalog;     // an item of each product in the store, in the order they were stocked
+    private Item inStock;       // a priced item with plenty in stock
+    private Item notStocked;    // an item the store does not stock
+    private Item soldOut;       // a priced item with none in stock
+    private int next;
+    private long stocksRejected;    // the stocks turned down in this iteration
+
+    // MODIFIES: this
+    // EFFECTS: generates the store, with one item restocked plentifully and another sold out
+    @Setup(Level.Trial)
+    public void setUp() throws InsufficientQuantityException {
+        store = new StoreGenerator(1).store(items, columnar);
+        List<Item> stocked = store.getItemsStocked();
+        catalog = new Item[items];
+        for (int i = 0; i < items; i++) {
+            catalog[i] = Item.ofSku(stocked.get(i).getSku());
+        }
+        inStock = stocked.get(items / 2);
+        if (!inStock.priceIsSet()) {
+            inStock.setPriceCents(2 * inStock.getCostCents());
+        }
+        soldOut = stocked.get(items / 3);
+        if (!soldOut.priceIsSet()) {
+            soldOut.setPriceCents(2 * soldOut.getCostCents());
+        }
+        if (soldOut.getQuantity() > 0) {
+            store.sell(soldOut, soldOut.getQuantity());
+        }
+        notStocked = Item.ofCents("benchmark product not stocked", 100);
+        notStocked.setPriceCents(200);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: restocks the item sold and resets the asset in every iteration, so that sales and stocks
+    //          keep succeeding
+    @Setup(Level.Iteration)
+    public void restock() {
+        store.addItemToStore(inStock, PLENTY - inStock.getQuantity());
+        store.setAssetCents(ASSET_CENTS);
+        stocksRejected = 0;
+    }
+
+    // EFFECTS: fails the run if a stock was turned down in this iteration, since it then timed the
+    //          rejection rather than the stock
+    @TearDown(Level.Iteration)
+    public void checkStocks() {
+        if (stocksRejected > 0) {
+            throw new IllegalStateException(stocksRejected + " stocks were turned down for lack of asset");
+        }
+    }
+
+    @Benchmark
+    public boolean stock() {
+        next = (next + 1) % items;
+        return counted(store.stock(catalog[next], 1));
+    }
+
+    @Benchmark
+    public boolean stockSameItem() {
+        return counted(store.stock(inStock, 1));
+    }
+
+    @Benchmark
+    public boolean sellHit() throws InsufficientQuantityException {
+        return store.sell(inStock, 1);
+    }
+
+    @Benchmark
+    public boolean sellMiss() throws InsufficientQuantityException {
+        return store.sell(notStocked, 1);
+    }
+
+    @Benchmark
+    public boolean sellInsufficientQuantity() {
+        try {
+            return store.sell(soldOut, 1);
+        } catch (InsufficientQuantityException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public TransactionResult trySellHit() {
+        return store.trySell(inStock, 1);
+    }
+
+    @Benchmark
+    public TransactionResult trySellMiss() {
+        return store.trySell(notStocked, 1);
+    }
+
+    @Benchmark
+    public TransactionResult trySellInsufficientQuantity() {
+        return store.trySell(soldOut, 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: counts a stock turned down if not stocked, and returns stocked
+    private boolean counted(boolean stocked) {
+        if (!stocked) {
+            stocksRejected++;
+        }
+        return stocked;
+    }
+}
@@ -0,0 +1,39 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Represents a histogram of latencies in nanoseconds that any number of threads record into at once,
+// bucketed as a LatencyHistogram is. Each bucket is a striped counter (LongAdder), so threads recording
+// at the same time rarely touch the same memory; reading it sums the stripes into a snapshot.
+public class ConcurrentHistogram {
+    private final LongAdder[] counts;       // the number of latencies recorded in each sub-bucket
+    private final LongAccumulator max;      // the largest latency recorded
+
+    // EFFECTS: constructs empty histogram
+    public ConcurrentHistogram() {
+        counts = new LongAdder[LatencyHistogram.SIZE];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+        max = new LongAccumulator(Math::max, 0);
+    }
+
+    // REQUIRES: nanos >= 0
+    // MODIFIES: this
+    // EFFECTS: records a latency of nanos
+    public void record(long nanos) {
+        counts[LatencyHistogram.indexOf(nanos)].increment();
+        max.accumulate(nanos);
+    }
+
+    // EFFECTS: returns a histogram of the latencies recorded so far; latencies recorded while this runs
+    //          may or may not be included
+    public LatencyHistogram snapshot() {
+        long[] snapshot = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            snapshot[i] = counts[i].sum();
+        }
+        return new LatencyHistogram(snapshot, max.get());
+    }
+}
@@ -0,0 +1,88 @@
+package metrics;
+
+// Represents a histogram of latencies in nanoseconds, with a relative error of at most 1/SUB_BUCKETS.
+// Latencies below 2 * SUB_BUCKETS are counted exactly; each higher power of two is split into SUB_BUCKETS
+// equal sub-buckets, so that recording one costs a few arithmetic operations and the histogram has a
+// fixed size however many are recorded. A histogram is not thread-safe: each thread records into its own,
+// and they are merged when done; or threads record into a ConcurrentHistogram, read through snapshots.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int SIZE = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts;    // the number of latencies recorded in each sub-bucket
+    private long count;             // the number of latencies recorded
+    private long max;               // the largest latency recorded
+
+    // EFFECTS: constructs empty histogram
+    public LatencyHistogram() {
+        counts = new long[SIZE];
+    }
+
+    // REQUIRES: counts has SIZE elements, indexed as by indexOf(); max is the largest latency counted
+    // EFFECTS: constructs histogram holding the latencies counted in counts
+    LatencyHistogram(long[] counts, long max) {
+        this.counts = counts;
+        for (long n : counts) {
+            count += n;
+        }
+        this.max = max;
+    }
+
+    // REQUIRES: nanos >= 0
+    // MODIFIES: this
+    // EFFECTS: records a latency of nanos
+    public void record(long nanos) {
+        counts[indexOf(nanos)]++;
+        count++;
+        max = Math.max(max, nanos);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds every latency recorded in other to this
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+
+    // EFFECTS: returns the number of latencies recorded
+    public long getCount() {
+        return count;
+    }
+
+    // EFFECTS: returns the largest latency recorded (ns), or 0 if none has been
+    public long getMax() {
+        return max;
+    }
+
+    // REQUIRES: 0 <= percentile <= 100
+    // EFFECTS: returns the latency (ns) that given percentage of the latencies recorded are no greater than,
+    //          rounded up to the top of its sub-bucket but no greater than getMax(); 0 if none is recorded
+    public long getPercentile(double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, highestIn(i));
+            }
+        }
+        return 0;
+    }
+
+    // EFFECTS: returns the sub-bucket nanos is counted in
+    static int indexOf(long nanos) {
+        int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS - 1);
+        return (shift << SUB_BUCKET_BITS) + (int) (nanos >>> shift);
+    }
+
+    // EFFECTS: returns the largest latency counted in given sub-bucket
+    private static long highestIn(int index) {
+        int shift = Math.max(0, (index >>> SUB_BUCKET_BITS) - 1);
+        long top = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((top + 1) << shift) - 1;
+    }
+}
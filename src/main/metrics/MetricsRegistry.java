@@ -0,0 +1,63 @@
+package metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+// Represents the registry of this program's operational metrics: those of its stores (see StoreMetrics)
+// and of its store files (see PersistenceMetrics). They are recorded from the moment the program starts,
+// and can be exported as JMX MBeans, named DOMAIN:type=Store and DOMAIN:type=Persistence, to be watched
+// with jconsole or any other JMX client.
+public final class MetricsRegistry {
+    public static final String DOMAIN = "storerunner";
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final StoreMetrics store;
+    private final PersistenceMetrics persistence;
+
+    // EFFECTS: constructs registry of metrics of nothing done yet
+    private MetricsRegistry() {
+        store = new StoreMetrics();
+        persistence = new PersistenceMetrics();
+    }
+
+    // EFFECTS: returns the registry every store and store file records into
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    // EFFECTS: returns the metrics of every store
+    public StoreMetrics getStoreMetrics() {
+        return store;
+    }
+
+    // EFFECTS: returns the metrics of every store file
+    public PersistenceMetrics getPersistenceMetrics() {
+        return persistence;
+    }
+
+    // MODIFIES: the platform MBean server
+    // EFFECTS: exports the metrics as MBeans on the platform MBean server, unless they already are;
+    //          throws IllegalStateException if they cannot be
+    public synchronized void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            register(server, store, "Store");
+            register(server, persistence, "Persistence");
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to export metrics through JMX", e);
+        }
+    }
+
+    // MODIFIES: server
+    // EFFECTS: registers mbean in server as DOMAIN:type=type, unless it already is
+    private static void register(MBeanServer server, Object mbean, String type) throws JMException {
+        try {
+            server.registerMBean(mbean, new ObjectName(DOMAIN + ":type=" + type));
+        } catch (InstanceAlreadyExistsException e) {
+            // already exported
+        }
+    }
+}
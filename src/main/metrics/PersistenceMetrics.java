@@ -0,0 +1,167 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Represents the counts, sizes and latencies of the store files read and written by this program,
+// and of the batches committed to transaction journals
+public class PersistenceMetrics implements PersistenceMetricsMBean {
+    private final LongAdder reads;
+    private final LongAdder bytesRead;
+    private final ConcurrentHistogram readLatency;
+    private volatile long lastReadBytes;            // the size of the file last read
+    private volatile long lastReadItems;            // the number of items in the store last read
+    private final LongAdder writes;
+    private final LongAdder bytesWritten;
+    private final ConcurrentHistogram writeLatency;
+    private volatile long lastWrittenBytes;         // the size of the file last written
+    private volatile long lastWrittenItems;         // the number of items in the store last written
+    private final LongAdder journalCommits;
+    private final LongAdder journalBytes;
+    private final LongAdder journalForces;          // the commits forced to disk
+    private final ConcurrentHistogram commitLatency;
+
+    // EFFECTS: constructs metrics of no file read or written yet
+    PersistenceMetrics() {
+        reads = new LongAdder();
+        bytesRead = new LongAdder();
+        readLatency = new ConcurrentHistogram();
+        writes = new LongAdder();
+        bytesWritten = new LongAdder();
+        writeLatency = new ConcurrentHistogram();
+        journalCommits = new LongAdder();
+        journalBytes = new LongAdder();
+        journalForces = new LongAdder();
+        commitLatency = new ConcurrentHistogram();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records a store of given items read from a file of given bytes in nanos
+    public void read(long bytes, long items, long nanos) {
+        reads.increment();
+        bytesRead.add(bytes);
+        readLatency.record(nanos);
+        lastReadBytes = bytes;
+        lastReadItems = items;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records a store of given items written to a file of given bytes in nanos
+    public void written(long bytes, long items, long nanos) {
+        writes.increment();
+        bytesWritten.add(bytes);
+        writeLatency.record(nanos);
+        lastWrittenBytes = bytes;
+        lastWrittenItems = items;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records a batch of given bytes committed to a journal in nanos, forced to disk if forced
+    public void committed(long bytes, boolean forced, long nanos) {
+        journalCommits.increment();
+        journalBytes.add(bytes);
+        if (forced) {
+            journalForces.increment();
+        }
+        commitLatency.record(nanos);
+    }
+
+    // EFFECTS: returns the latencies of every file read so far
+    public LatencyHistogram getReadLatency() {
+        return readLatency.snapshot();
+    }
+
+    // EFFECTS: returns the latencies of every file written so far
+    public LatencyHistogram getWriteLatency() {
+        return writeLatency.snapshot();
+    }
+
+    // EFFECTS: returns the latencies of every journal commit so far
+    public LatencyHistogram getCommitLatency() {
+        return commitLatency.snapshot();
+    }
+
+    @Override
+    public long getReads() {
+        return reads.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getLastReadBytes() {
+        return lastReadBytes;
+    }
+
+    @Override
+    public long getLastReadItems() {
+        return lastReadItems;
+    }
+
+    @Override
+    public double getReadLatencyP50() {
+        return StoreMetrics.micros(getReadLatency().getPercentile(50));
+    }
+
+    @Override
+    public double getReadLatencyMax() {
+        return StoreMetrics.micros(getReadLatency().getMax());
+    }
+
+    @Override
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getLastWrittenBytes() {
+        return lastWrittenBytes;
+    }
+
+    @Override
+    public long getLastWrittenItems() {
+        return lastWrittenItems;
+    }
+
+    @Override
+    public double getWriteLatencyP50() {
+        return StoreMetrics.micros(getWriteLatency().getPercentile(50));
+    }
+
+    @Override
+    public double getWriteLatencyMax() {
+        return StoreMetrics.micros(getWriteLatency().getMax());
+    }
+
+    @Override
+    public long getJournalCommits() {
+        return journalCommits.sum();
+    }
+
+    @Override
+    public long getJournalBytes() {
+        return journalBytes.sum();
+    }
+
+    @Override
+    public long getJournalForces() {
+        return journalForces.sum();
+    }
+
+    @Override
+    public double getCommitLatencyP50() {
+        return StoreMetrics.micros(getCommitLatency().getPercentile(50));
+    }
+
+    @Override
+    public double getCommitLatencyMax() {
+        return StoreMetrics.micros(getCommitLatency().getMax());
+    }
+}
@@ -0,0 +1,38 @@
+package metrics;
+
+// The management interface of PersistenceMetrics, as exported through JMX; latencies are in microseconds
+public interface PersistenceMetricsMBean {
+    long getReads();
+
+    long getBytesRead();
+
+    long getLastReadBytes();
+
+    long getLastReadItems();
+
+    double getReadLatencyP50();
+
+    double getReadLatencyMax();
+
+    long getWrites();
+
+    long getBytesWritten();
+
+    long getLastWrittenBytes();
+
+    long getLastWrittenItems();
+
+    double getWriteLatencyP50();
+
+    double getWriteLatencyMax();
+
+    long getJournalCommits();
+
+    long getJournalBytes();
+
+    long getJournalForces();
+
+    double getCommitLatencyP50();
+
+    double getCommitLatencyMax();
+}
@@ -0,0 +1,9 @@
+package metrics;
+
+// The reasons a store turns down a stock or a sale
+public enum Rejection {
+    INSUFFICIENT_ASSET,     // a stock costs more than the store's asset
+    NOT_STOCKED,            // a sale of an item the store does not stock
+    PRICE_UNSET,            // a sale of an item whose price is not set
+    INSUFFICIENT_QUANTITY   // a sale of more of an item than is in stock
+}
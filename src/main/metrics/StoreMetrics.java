@@ -0,0 +1,147 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Represents the counts and latencies of the stocks and sales made by every store in this program.
+// Every count is a striped counter (LongAdder) and every latency is recorded in a ConcurrentHistogram,
+// so recording costs a few uncontended writes however many threads are selling.
+public class StoreMetrics implements StoreMetricsMBean {
+    private final LongAdder stocks;
+    private final LongAdder unitsStocked;
+    private final LongAdder sales;
+    private final LongAdder unitsSold;
+    private final LongAdder[] rejections;           // the stocks and sales turned down, by Rejection ordinal
+    private final ConcurrentHistogram stockLatency; // the time taken by every stock, made or not
+    private final ConcurrentHistogram sellLatency;  // the time taken by every sale, made or not
+
+    // EFFECTS: constructs metrics of nothing done yet
+    StoreMetrics() {
+        stocks = new LongAdder();
+        unitsStocked = new LongAdder();
+        sales = new LongAdder();
+        unitsSold = new LongAdder();
+        rejections = new LongAdder[Rejection.values().length];
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+        stockLatency = new ConcurrentHistogram();
+        sellLatency = new ConcurrentHistogram();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records a stock of given units made in nanos
+    public void stocked(long units, long nanos) {
+        stocks.increment();
+        unitsStocked.add(units);
+        stockLatency.record(nanos);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records a sale of given units made in nanos
+    public void sold(long units, long nanos) {
+        sales.increment();
+        unitsSold.add(units);
+        sellLatency.record(nanos);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records a stock or sale turned down for reason in nanos
+    public void rejected(Rejection reason, long nanos) {
+        rejections[reason.ordinal()].increment();
+        if (reason == Rejection.INSUFFICIENT_ASSET) {
+            stockLatency.record(nanos);
+        } else {
+            sellLatency.record(nanos);
+        }
+    }
+
+    // EFFECTS: returns the number of stocks and sales turned down for reason
+    public long getRejected(Rejection reason) {
+        return rejections[reason.ordinal()].sum();
+    }
+
+    // EFFECTS: returns the latencies of every stock, made or not, so far
+    public LatencyHistogram getStockLatency() {
+        return stockLatency.snapshot();
+    }
+
+    // EFFECTS: returns the latencies of every sale, made or not, so far
+    public LatencyHistogram getSellLatency() {
+        return sellLatency.snapshot();
+    }
+
+    @Override
+    public long getStocks() {
+        return stocks.sum();
+    }
+
+    @Override
+    public long getUnitsStocked() {
+        return unitsStocked.sum();
+    }
+
+    @Override
+    public long getSales() {
+        return sales.sum();
+    }
+
+    @Override
+    public long getUnitsSold() {
+        return unitsSold.sum();
+    }
+
+    @Override
+    public long getRejectedInsufficientAsset() {
+        return getRejected(Rejection.INSUFFICIENT_ASSET);
+    }
+
+    @Override
+    public long getRejectedNotStocked() {
+        return getRejected(Rejection.NOT_STOCKED);
+    }
+
+    @Override
+    public long getRejectedPriceUnset() {
+        return getRejected(Rejection.PRICE_UNSET);
+    }
+
+    @Override
+    public long getRejectedInsufficientQuantity() {
+        return getRejected(Rejection.INSUFFICIENT_QUANTITY);
+    }
+
+    @Override
+    public double getStockLatencyP50() {
+        return micros(getStockLatency().getPercentile(50));
+    }
+
+    @Override
+    public double getStockLatencyP99() {
+        return micros(getStockLatency().getPercentile(99));
+    }
+
+    @Override
+    public double getStockLatencyMax() {
+        return micros(getStockLatency().getMax());
+    }
+
+    @Override
+    public double getSellLatencyP50() {
+        return micros(getSellLatency().getPercentile(50));
+    }
+
+    @Override
+    public double getSellLatencyP99() {
+        return micros(getSellLatency().getPercentile(99));
+    }
+
+    @Override
+    public double getSellLatencyMax() {
+        return micros(getSellLatency().getMax());
+    }
+
+    // EFFECTS: returns nanos in microseconds
+    static double micros(long nanos) {
+        return nanos / 1e3;
+    }
+}
@@ -0,0 +1,32 @@
+package metrics;
+
+// The management interface of StoreMetrics, as exported through JMX; latencies are in microseconds
+public interface StoreMetricsMBean {
+    long getStocks();
+
+    long getUnitsStocked();
+
+    long getSales();
+
+    long getUnitsSold();
+
+    long getRejectedInsufficientAsset();
+
+    long getRejectedNotStocked();
+
+    long getRejectedPriceUnset();
+
+    long getRejectedInsufficientQuantity();
+
+    double getStockLatencyP50();
+
+    double getStockLatencyP99();
+
+    double getStockLatencyMax();
+
+    double getSellLatencyP50();
+
+    double getSellLatencyP99();
+
+    double getSellLatencyMax();
+}
@@ -0,0 +1,39 @@
+package model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Represents a basket of order lines, each an item with a quantity, to be stocked or sold in one transaction
+public class Basket {
+    private final Map<Item, Integer> lines;     // the quantity of each item, in the order lines were added
+
+    // EFFECTS: basket is empty
+    public Basket() {
+        lines = new LinkedHashMap<>();
+    }
+
+    // REQUIRES: quantity > 0
+    // MODIFIES: this
+    // EFFECTS: adds a line of quantity items; if an equal item is already in the basket,
+    //          adds quantity to that line instead; returns this basket
+    public Basket add(Item item, int quantity) {
+        lines.merge(item, quantity, Integer::sum);
+        return this;
+    }
+
+    // EFFECTS: returns the read-only lines of this basket, in the order they were added
+    public Map<Item, Integer> getLines() {
+        return Collections.unmodifiableMap(lines);
+    }
+
+    // EFFECTS: returns the number of distinct items in this basket
+    public int size() {
+        return lines.size();
+    }
+
+    // EFFECTS: returns true if this basket has no lines
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+}
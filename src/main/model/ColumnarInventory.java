@@ -0,0 +1,176 @@
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// An inventory holding its items as rows of primitive columns rather than as objects, so that a store
+// of millions of items costs a few dozen bytes per item and scans run over plain arrays.
+//
+// Rows are grouped in chunks of CHUNK_SIZE; each chunk holds one array per column (SKU id,
+// price, quantity, units reserved), and chunks never move once allocated. Names are kept once, in the SkuRegistry.
+// Rows are found through an array of row numbers indexed by SKU id. The items handed out are views
+// of rows (see Item); price and quantity are read and written atomically in the columns, and changes
+// to a row are made under one of LOCK_STRIPES locks, shared by every view of it.
+class ColumnarInventory implements Inventory {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int LOCK_STRIPES = 64;
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // The columns of CHUNK_SIZE consecutive rows
+    private static final class Chunk {
+        final int[] sku = new int[CHUNK_SIZE];
+        final long[] price = new long[CHUNK_SIZE];
+        final int[] quantity = new int[CHUNK_SIZE];
+        final int[] reserved = new int[CHUNK_SIZE];
+    }
+
+    private final Store owner;                  // the store this is the inventory of
+    private final Object[] locks;               // the locks guarding rows, each shared by every LOCK_STRIPES-th row
+    private volatile Chunk[] chunks;            // the row chunks, replaced when one is added
+    private volatile int[] rowBySku;            // the row of each SKU id plus one, or 0 if not stocked
+    private volatile int size;                  // the number of rows
+
+    // EFFECTS: constructs empty inventory for store owner
+    ColumnarInventory(Store owner) {
+        this.owner = owner;
+        chunks = new Chunk[0];
+        rowBySku = new int[0];
+        locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public Item lookup(int sku) {
+        int row = indexOf(sku);
+        return row < 0 ? null : new Item(this, row, sku, owner);
+    }
+
+    @Override
+    public int indexOf(int sku) {
+        int[] rows = rowBySku;
+        return sku < rows.length ? rows[sku] - 1 : -1;
+    }
+
+    @Override
+    public Item add(Item item, int quantity) {
+        int sku = item.getSku();
+        int row = size;
+        if ((row & (CHUNK_SIZE - 1)) == 0) {
+            addChunk();
+        }
+        Chunk chunk = chunks[row >>> CHUNK_BITS];
+        int i = row & (CHUNK_SIZE - 1);
+        chunk.sku[i] = sku;
+        chunk.price[i] = item.getPriceCents();
+        chunk.quantity[i] = item.getQuantity() + quantity;
+        int[] rows = rowBySku;
+        if (sku >= rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(sku + 1, 2 * rows.length));
+        }
+        rows[sku] = row + 1;
+        size = row + 1;
+        rowBySku = rows;  // (re)published so that readers see the new row
+        return new Item(this, row, sku, owner);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<Item> items() {
+        int n = size;
+        List<Item> items = new ArrayList<>(n);
+        for (int row = 0; row < n; row++) {
+            items.add(view(row));
+        }
+        return items;
+    }
+
+    @Override
+    public List<Item> lowStock(int threshold) {
+        int n = size;
+        Chunk[] all = chunks;
+        List<Item> low = new ArrayList<>();
+        for (int c = 0; c * CHUNK_SIZE < n; c++) {
+            Chunk chunk = all[c];
+            int rows = Math.min(CHUNK_SIZE, n - c * CHUNK_SIZE);
+            for (int i = 0; i < rows; i++) {
+                if ((int) INTS.getVolatile(chunk.quantity, i) <= threshold) {
+                    low.add(view(c * CHUNK_SIZE + i));
+                }
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public Inventory emptyCopy(Store owner) {
+        return new ColumnarInventory(owner);
+    }
+
+    // EFFECTS: returns the price (cents) in given row
+    long getPrice(int row) {
+        return (long) LONGS.getVolatile(chunk(row).price, row & (CHUNK_SIZE - 1));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the price in given row to cents
+    void setPrice(int row, long cents) {
+        LONGS.setVolatile(chunk(row).price, row & (CHUNK_SIZE - 1), cents);
+    }
+
+    // EFFECTS: returns the quantity in given row
+    int getQuantity(int row) {
+        return (int) INTS.getVolatile(chunk(row).quantity, row & (CHUNK_SIZE - 1));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: atomically adds n to the quantity in given row
+    void addQuantity(int row, int n) {
+        INTS.getAndAdd(chunk(row).quantity, row & (CHUNK_SIZE - 1), n);
+    }
+
+    // EFFECTS: returns the units reserved in given row
+    int getReserved(int row) {
+        return (int) INTS.getVolatile(chunk(row).reserved, row & (CHUNK_SIZE - 1));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: atomically adds n to the units reserved in given row
+    void addReserved(int row, int n) {
+        INTS.getAndAdd(chunk(row).reserved, row & (CHUNK_SIZE - 1), n);
+    }
+
+    // EFFECTS: returns the lock that guards changes to given row made through its views
+    Object lockFor(int row) {
+        return locks[row & (LOCK_STRIPES - 1)];
+    }
+
+    // EFFECTS: returns the chunk holding given row
+    private Chunk chunk(int row) {
+        return chunks[row >>> CHUNK_BITS];
+    }
+
+    // EFFECTS: returns a view of given row
+    private Item view(int row) {
+        return new Item(this, row, chunk(row).sku[row & (CHUNK_SIZE - 1)], owner);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds an empty chunk of rows
+    private void addChunk() {
+        Chunk[] grown = new Chunk[chunks.length + 1];
+        System.arraycopy(chunks, 0, grown, 0, chunks.length);
+        grown[chunks.length] = new Chunk();
+        chunks = grown;
+    }
+}
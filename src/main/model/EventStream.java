@@ -0,0 +1,208 @@
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// A stream of the events of a store (see Store.getEvents()), delivered to any number of subscribers,
+// each on a thread of its own, in the order they were published.
+//
+// The stream is a ring buffer of capacity StoreEvent entries, all allocated up front. A store's
+// checkout threads publish concurrently: each claims the next sequence number with one atomic increment,
+// fills in the entry in slot sequence % capacity, and marks the slot published with that sequence number.
+// Publishing takes no lock, allocates nothing and wakes no thread; when nobody subscribes it does nothing.
+// Each subscriber follows the published sequence at its own pace, handing its subscriber every event
+// published since it last caught up as one batch, and waits by spinning briefly and then sleeping
+// PARK_NANOS at a time. A publisher about to reuse a slot that some subscriber has not yet seen waits
+// for it, so a slow subscriber holds up publishers rather than missing events.
+public class EventStream {
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+    private static final int SPINS = 100;
+    private static final long PARK_NANOS = 50_000;
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // A subscriber's place in the stream, and the thread delivering events to it
+    public final class Subscription {
+        private final EventSubscriber subscriber;
+        private final AtomicLong sequence;      // the last sequence delivered
+        private final AtomicLong failures;      // the events subscriber threw on
+        private final Thread thread;
+        private volatile boolean running;
+
+        // EFFECTS: constructs subscription of subscriber to the events published after the last sequence claimed,
+        //          delivered on a daemon thread with given name once started
+        private Subscription(String name, EventSubscriber subscriber) {
+            this.subscriber = subscriber;
+            sequence = new AtomicLong(cursor.get() - 1);
+            failures = new AtomicLong();
+            thread = new Thread(this::deliver, name);
+            thread.setDaemon(true);
+            running = true;
+        }
+
+        // EFFECTS: returns the sequence of the last event delivered
+        public long getSequence() {
+            return sequence.get();
+        }
+
+        // EFFECTS: returns the number of events the subscriber threw an exception on; those are skipped
+        public long getFailures() {
+            return failures.get();
+        }
+
+        // MODIFIES: this
+        // EFFECTS: delivers the events already published, stops delivering, and no longer holds up publishers;
+        //          waits for the delivering thread to finish unless called from it
+        public void close() {
+            running = false;
+            LockSupport.unpark(thread);
+            if (Thread.currentThread() != thread) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            unsubscribe(this);
+        }
+
+        // EFFECTS: delivers every event published to the subscriber in batches until closed
+        private void deliver() {
+            int idle = 0;
+            while (true) {
+                boolean stopping = !running;
+                long next = sequence.get() + 1;
+                long last = lastPublished(next);
+                if (last >= next) {
+                    for (long s = next; s <= last; s++) {
+                        try {
+                            subscriber.onEvent(entries[(int) s & mask], s, s == last);
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    sequence.set(last);
+                    idle = 0;
+                }
+                if (stopping) {
+                    return;
+                } else if (last >= next) {
+                    continue;
+                } else if (++idle < SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+        }
+    }
+
+    private final StoreEvent[] entries;         // the ring of events
+    private final long[] published;             // the sequence last published in each slot
+    private final int mask;                     // capacity - 1
+    private final AtomicLong cursor;            // the next sequence to claim
+    private volatile Subscription[] subscriptions; // the subscriptions, replaced on update
+    private volatile long gate;                 // no more than the lowest sequence every subscriber has seen
+
+    // REQUIRES: capacity is a power of 2
+    // EFFECTS: constructs stream of no events and no subscribers, holding up to capacity events not yet seen
+    public EventStream(int capacity) {
+        entries = new StoreEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new StoreEvent();
+        }
+        published = new long[capacity];
+        Arrays.fill(published, -1);
+        mask = capacity - 1;
+        cursor = new AtomicLong();
+        subscriptions = new Subscription[0];
+        gate = Long.MAX_VALUE;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts delivering every event published from now on to subscriber, on a daemon thread with
+    //          given name, and returns the subscription
+    public synchronized Subscription subscribe(String name, EventSubscriber subscriber) {
+        Subscription subscription = new Subscription(name, subscriber);
+        gate = Math.min(gate, subscription.getSequence());
+        Subscription[] grown = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+        grown[subscriptions.length] = subscription;
+        subscriptions = grown;
+        subscription.thread.start();
+        return subscription;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes every subscription
+    public void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    // EFFECTS: returns the number of events published while someone subscribed
+    public long getPublished() {
+        return cursor.get();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: publishes the event given by type, sku, quantity, cents and result to every subscriber,
+    //          unless there are none
+    void publish(StoreEvent.Type type, int sku, int quantity, long cents, TransactionResult result) {
+        if (subscriptions.length == 0) {
+            return;
+        }
+        long sequence = cursor.getAndIncrement();
+        long wrap = sequence - entries.length;
+        if (wrap > gate) {
+            awaitSubscribers(wrap);
+        }
+        entries[(int) sequence & mask].set(type, sku, quantity, cents, result);
+        LONGS.setRelease(published, (int) sequence & mask, sequence);
+    }
+
+    // EFFECTS: waits until every subscriber has seen the event with given sequence
+    private void awaitSubscribers(long sequence) {
+        int idle = 0;
+        while (true) {
+            long lowest = Long.MAX_VALUE;
+            for (Subscription subscription : subscriptions) {
+                lowest = Math.min(lowest, subscription.getSequence());
+            }
+            gate = lowest;
+            if (lowest >= sequence) {
+                return;
+            }
+            if (++idle < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    // EFFECTS: returns the highest sequence from next on up to which every event has been published,
+    //          or next - 1 if next has not been
+    private long lastPublished(long next) {
+        long last = next - 1;
+        long limit = next + mask;
+        while (last < limit && (long) LONGS.getAcquire(published, (int) (last + 1) & mask) == last + 1) {
+            last++;
+        }
+        return last;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops subscription holding up publishers
+    private synchronized void unsubscribe(Subscription subscription) {
+        Subscription[] remaining = Arrays.stream(subscriptions)
+                .filter(s -> s != subscription)
+                .toArray(Subscription[]::new);
+        subscriptions = remaining;
+        if (remaining.length == 0) {
+            gate = Long.MAX_VALUE;
+        }
+    }
+}
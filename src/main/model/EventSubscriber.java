@@ -0,0 +1,12 @@
+package model;
+
+// Receives the events of an EventStream on a thread of its own, in the order they were published.
+// Events arrive in batches of those published since the subscriber last caught up, so it can do its
+// expensive work (a repaint, a write, a flush) once per batch rather than once per event.
+// A subscriber must not change the store it follows: the change could wait for the subscriber itself
+// to make room in the stream.
+public interface EventSubscriber {
+    // EFFECTS: handles event, the sequence-th published; endOfBatch is true if it is the last of those
+    //          available now. event is reused after this returns
+    void onEvent(StoreEvent event, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,80 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// An inventory holding every stocked item as its own object: the item passed to add() is the one stocked.
+// Items are found through arrays indexed by SKU id, grown as larger ids are stocked.
+class HeapInventory implements Inventory {
+    private final Store owner;                 // the store this is the inventory of
+    private final List<Item> itemsStocked;     // the items in stock, in the order they were first stocked
+    private volatile Item[] bySku;             // the stocked item of each SKU id, or null
+    private volatile int[] positionBySku;      // the position in itemsStocked of each SKU id, plus one, or 0
+
+    // EFFECTS: constructs empty inventory for store owner
+    HeapInventory(Store owner) {
+        this.owner = owner;
+        itemsStocked = new ArrayList<>();
+        bySku = new Item[0];
+        positionBySku = new int[0];
+    }
+
+    @Override
+    public Item lookup(int sku) {
+        Item[] items = bySku;
+        return sku < items.length ? items[sku] : null;
+    }
+
+    @Override
+    public int indexOf(int sku) {
+        int[] positions = positionBySku;
+        return sku < positions.length ? positions[sku] - 1 : -1;
+    }
+
+    @Override
+    public Item add(Item item, int quantity) {
+        item.increaseQ(quantity);
+        item.setOwner(owner);
+        int sku = item.getSku();
+        Item[] items = bySku;
+        int[] positions = positionBySku;
+        if (sku >= items.length) {
+            int length = Math.max(sku + 1, 2 * items.length);
+            items = Arrays.copyOf(items, length);
+            positions = Arrays.copyOf(positions, length);
+        }
+        positions[sku] = itemsStocked.size() + 1;
+        items[sku] = item;
+        itemsStocked.add(item);
+        positionBySku = positions;  // (re)published so that readers see the new entries
+        bySku = items;
+        return item;
+    }
+
+    @Override
+    public synchronized int size() {
+        return itemsStocked.size();
+    }
+
+    @Override
+    public synchronized List<Item> items() {
+        return new ArrayList<>(itemsStocked);
+    }
+
+    @Override
+    public List<Item> lowStock(int threshold) {
+        List<Item> low = new ArrayList<>();
+        for (Item item : items()) {
+            if (item.getQuantity() <= threshold) {
+                low.add(item);
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public Inventory emptyCopy(Store owner) {
+        return new HeapInventory(owner);
+    }
+}
@@ -0,0 +1,26 @@
+package model;
+
+// The fields of an item a store can keep a sorted secondary index on (see Store.enableIndex())
+public enum IndexedField {
+    QUANTITY,   // the quantity in stock
+    PRICE,      // the retail price (cents); items whose price is not set are left out
+    MARGIN;     // the price minus the cost (cents); items whose price is not set are left out
+
+    // EFFECTS: returns true if item has a value for this field
+    boolean appliesTo(Item item) {
+        return this == QUANTITY || item.priceIsSet();
+    }
+
+    // REQUIRES: appliesTo(item)
+    // EFFECTS: returns the value of this field for item
+    long valueOf(Item item) {
+        switch (this) {
+            case QUANTITY:
+                return item.getQuantity();
+            case PRICE:
+                return item.getPriceCents();
+            default:
+                return item.getPriceCents() - item.getCostCents();
+        }
+    }
+}
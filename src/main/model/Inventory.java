@@ -0,0 +1,30 @@
+package model;
+
+import java.util.List;
+
+// The items a store has in stock, numbered in the order they were first stocked and found by SKU id.
+// Lookups may run concurrently with anything; adds are made while holding the inventory's own lock.
+interface Inventory {
+    // EFFECTS: returns the stocked item with given SKU id, or null if it is not in stock
+    Item lookup(int sku);
+
+    // EFFECTS: returns the position of the stocked item with given SKU id, or -1 if it is not in stock
+    int indexOf(int sku);
+
+    // REQUIRES: the caller holds this inventory's lock; no item equal to given item is in stock; quantity >= 0
+    // MODIFIES: this, item
+    // EFFECTS: adds item, with its price and given quantity, to the end of the stock and returns the stocked item
+    Item add(Item item, int quantity);
+
+    // EFFECTS: returns the number of different items in stock
+    int size();
+
+    // EFFECTS: returns a copy of the items in stock, in the order they were first stocked
+    List<Item> items();
+
+    // EFFECTS: returns the items in stock with no more than threshold left, in the order they were first stocked
+    List<Item> lowStock(int threshold);
+
+    // EFFECTS: returns an empty inventory of the same kind as this one, for store owner
+    Inventory emptyCopy(Store owner);
+}
@@ -1,77 +1,284 @@
 package model;
 
 import org.json.JSONObject;
+import persistence.JsonStreamWriter;
+import persistence.StreamWritable;
 import persistence.Writable;
 
-import java.util.Objects;
+import java.io.IOException;
 
-// Represents an item with a name, cost and price (in dollars)
-public class Item implements Writable {
-    private final String name;     // the item's name
-    private final double cost;     // the unit cost ($) of the item
-    private double price;          // the retail price ($) of the item
-    private int quantity;          // the quantity of the item in store
+// Represents an item with a name, cost and price (held exactly in cents, see Money).
+// Its name and cost identify its product, registered in the SkuRegistry: items are equal exactly
+// when they have the same SKU id, and share the name String registered for it.
+// Quantity and price changes are guarded by the item's own lock, so different items can be sold concurrently.
+// An item stocked in a store with a columnar inventory is a view of a row of that inventory instead:
+// its price and quantity live in the row, any number of views of the same row may exist, and they
+// share a lock kept by the inventory.
+// Some of an item's quantity may be reserved (see Store.reserve()): those units are still on hand, but
+// only the rest are available to sell.
+public class Item implements Writable, StreamWritable {
+    private final int sku;              // the id of the item's product in SkuRegistry.getDefault()
+    private final String name;          // the item's name
+    private final long cost;            // the unit cost (cents) of the item
+    private volatile long price;        // the retail price (cents) of the item, unless a view
+    private volatile int quantity;      // the quantity of the item in store, unless a view
+    private volatile int reserved;      // the units of quantity held by reservations, unless a view
+    private volatile Store owner;       // the store this item is stocked in, or null
+    private final ColumnarInventory rows; // the inventory this item is a view into, or null
+    private final int row;              // the row this item is a view of
 
     /*
      * REQUIRES: itemName has a non-zero length; itemCost > 0.0
-     * EFFECTS: item's name is set to itemName; item's cost is set to itemCost;
+     * EFFECTS: item's name is set to itemName; item's cost is set to itemCost rounded to the cent;
      *          item's price is initialized to 0, meaning it is not yet set
      */
     public Item(String itemName, double itemCost) {
-        name = itemName;
-        cost = itemCost;
-        price = 0.0;
+        this(SkuRegistry.getDefault().register(itemName, Money.fromDollars(itemCost)));
+    }
+
+    // REQUIRES: sku is registered in SkuRegistry.getDefault()
+    // EFFECTS: item is of the product with given id; price and quantity are 0
+    private Item(int sku) {
+        this.sku = sku;
+        name = SkuRegistry.getDefault().getName(sku);
+        cost = SkuRegistry.getDefault().getCostCents(sku);
+        price = 0;
         quantity = 0;
+        reserved = 0;
+        rows = null;
+        row = -1;
+    }
+
+    // REQUIRES: sku is the id in given row of rows
+    // EFFECTS: item is a view of given row of rows, stocked in store
+    Item(ColumnarInventory rows, int row, int sku, Store store) {
+        this.rows = rows;
+        this.row = row;
+        this.sku = sku;
+        name = SkuRegistry.getDefault().getName(sku);
+        cost = SkuRegistry.getDefault().getCostCents(sku);
+        owner = store;
+    }
+
+    // REQUIRES: itemName has a non-zero length; costCents > 0
+    // EFFECTS: returns a new item with given name and a unit cost of costCents
+    public static Item ofCents(String itemName, long costCents) {
+        return new Item(SkuRegistry.getDefault().register(itemName, costCents));
+    }
+
+    // REQUIRES: sku is registered in SkuRegistry.getDefault()
+    // EFFECTS: returns a new item of the product with given id
+    public static Item ofSku(int sku) {
+        return new Item(sku);
     }
 
     /*
      * REQUIRES: amount > 0.0
      * MODIFIES: this
-     * EFFECTS: item's price is set to amount
+     * EFFECTS: item's price is set to amount rounded to the cent
      */
     public void setPrice(double amount) {
-        price = amount;
+        setPriceCents(Money.fromDollars(amount));
+    }
+
+    // REQUIRES: cents > 0
+    // MODIFIES: this
+    // EFFECTS: item's price is set to cents
+    public void setPriceCents(long cents) {
+        Store store = owner;
+        if (store != null) {
+            store.changePrice(this, cents);
+        } else {
+            price = cents;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: item's price is set to cents, without telling the store it is stocked in
+    void assignPrice(long cents) {
+        synchronized (lock()) {
+            long old = getPriceCents();
+            if (rows != null) {
+                rows.setPrice(row, cents);
+            } else {
+                price = cents;
+            }
+            int q = getQuantity();
+            changed(q, old, q, cents);
+        }
     }
 
     // EFFECTS: returns true if price has been set, false if not
     public boolean priceIsSet() {
-        return price != 0.0;
+        return getPriceCents() != 0;
     }
 
     // REQUIRES: n is a positive integer
     // MODIFIES: this
     // EFFECTS: increases item's quantity by n
     public void increaseQ(int n) {
-        quantity += n;
+        synchronized (lock()) {
+            int old = getQuantity();
+            if (rows != null) {
+                rows.addQuantity(row, n);
+            } else {
+                quantity += n;
+            }
+            changed(old, getPriceCents(), old + n, getPriceCents());
+        }
     }
 
     // REQUIRES: n is a positive integer
     // MODIFIES: this
     // EFFECTS: decreases item's quantity by n
     public void decreaseQ(int n) {
-        quantity -= n;
+        synchronized (lock()) {
+            int old = getQuantity();
+            if (rows != null) {
+                rows.addQuantity(row, -n);
+            } else {
+                quantity -= n;
+            }
+            changed(old, getPriceCents(), old - n, getPriceCents());
+        }
+    }
+
+    // REQUIRES: n is a positive integer
+    // MODIFIES: this
+    // EFFECTS: if item's available quantity >= n, decreases its quantity by n and returns true;
+    //          otherwise leaves it unchanged and returns false
+    public boolean tryDecreaseQ(int n) {
+        synchronized (lock()) {
+            int old = getQuantity();
+            if (n > old - getReservedQuantity()) {
+                return false;
+            }
+            if (rows != null) {
+                rows.addQuantity(row, -n);
+            } else {
+                quantity -= n;
+            }
+            changed(old, getPriceCents(), old - n, getPriceCents());
+            return true;
+        }
+    }
+
+    // REQUIRES: n is a positive integer
+    // MODIFIES: this
+    // EFFECTS: if item's available quantity >= n, reserves n more units and returns true;
+    //          otherwise leaves it unchanged and returns false
+    boolean tryReserve(int n) {
+        synchronized (lock()) {
+            if (n > getQuantity() - getReservedQuantity()) {
+                return false;
+            }
+            addReserved(n);
+            return true;
+        }
+    }
+
+    // REQUIRES: n units of item are reserved
+    // MODIFIES: this
+    // EFFECTS: puts n reserved units back on sale
+    void unreserve(int n) {
+        synchronized (lock()) {
+            addReserved(-n);
+        }
+    }
+
+    // REQUIRES: n units of item are reserved
+    // MODIFIES: this
+    // EFFECTS: takes n reserved units out of stock, decreasing item's quantity by n
+    void takeReserved(int n) {
+        synchronized (lock()) {
+            int old = getQuantity();
+            addReserved(-n);
+            if (rows != null) {
+                rows.addQuantity(row, -n);
+            } else {
+                quantity -= n;
+            }
+            changed(old, getPriceCents(), old - n, getPriceCents());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds n to the units reserved
+    private void addReserved(int n) {
+        if (rows != null) {
+            rows.addReserved(row, n);
+        } else {
+            reserved += n;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records that this item is stocked in store, which will be told when its price changes
+    void setOwner(Store store) {
+        owner = store;
+    }
+
+    // EFFECTS: returns the lock guarding changes to this item: the item itself, or the lock of its row
+    private Object lock() {
+        return rows != null ? rows.lockFor(row) : this;
+    }
+
+    // EFFECTS: tells the store this item is stocked in, if any, that its quantity and price have changed
+    //          from oldQuantity and oldPrice to newQuantity and newPrice
+    private void changed(int oldQuantity, long oldPrice, int newQuantity, long newPrice) {
+        Store store = owner;
+        if (store != null) {
+            store.itemChanged(this, oldQuantity, oldPrice, newQuantity, newPrice);
+        }
     }
 
 // Getters:
 
     //EFFECTS: returns item's price
     public double getPrice() {
-        return price;
+        return Money.toDollars(getPriceCents());
+    }
+
+    // EFFECTS: returns item's price in cents
+    public long getPriceCents() {
+        return rows != null ? rows.getPrice(row) : price;
     }
 
     // EFFECTS: returns item's cost
     public double getCost() {
+        return Money.toDollars(cost);
+    }
+
+    // EFFECTS: returns item's cost in cents
+    public long getCostCents() {
         return cost;
     }
 
+    // EFFECTS: returns the id of item's product
+    public int getSku() {
+        return sku;
+    }
+
     // EFFECTS: returns item's name
     public String getName() {
         return name;
     }
 
-    // EFFECTS: returns item's quantity
+    // EFFECTS: returns item's quantity, including any units reserved
     public int getQuantity() {
-        return quantity;
+        return rows != null ? rows.getQuantity(row) : quantity;
+    }
+
+    // EFFECTS: returns the units of item's quantity held by reservations
+    public int getReservedQuantity() {
+        return rows != null ? rows.getReserved(row) : reserved;
+    }
+
+    // EFFECTS: returns the units of item that can be sold, i.e. its quantity less the units reserved
+    public int getAvailableQuantity() {
+        synchronized (lock()) {
+            return getQuantity() - getReservedQuantity();
+        }
     }
 
     @Override
@@ -85,12 +292,22 @@ public class Item implements Writable {
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
         json.put("name", name);
-        json.put("cost", cost);
-        json.put("price", price);
-        json.put("quantity", quantity);
+        json.put("cost", getCost());
+        json.put("price", getPrice());
+        json.put("quantity", getQuantity());
         return json;
     }
 
+    @Override
+    public void writeJson(JsonStreamWriter writer) throws IOException {
+        writer.beginObject()
+                .name("name").value(name)
+                .name("cost").valueCents(cost)
+                .name("price").valueCents(getPriceCents())
+                .name("quantity").value(getQuantity())
+                .endObject();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -100,11 +317,11 @@ public class Item implements Writable {
             return false;
         }
         Item item = (Item) o;
-        return Double.compare(item.cost, cost) == 0 && Objects.equals(name, item.name);
+        return item.sku == sku;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, cost);
+        return sku;
     }
 }
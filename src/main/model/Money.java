@@ -0,0 +1,54 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Fixed-point money helpers. Amounts are held as a long number of cents, so arithmetic is exact
+// and never allocates; dollars (as double or decimal text) only appear at the edges of the model.
+public final class Money {
+    public static final int CENTS_PER_DOLLAR = 100;
+
+    private Money() {
+    }
+
+    // REQUIRES: dollars is finite
+    // EFFECTS: returns dollars, as its shortest decimal text, rounded half-up to the nearest cent as parse() does;
+    //          throws ArithmeticException if the result does not fit in a long
+    public static long fromDollars(double dollars) {
+        return fromDollars(BigDecimal.valueOf(dollars));
+    }
+
+    // EFFECTS: returns dollars rounded half-up to the nearest cent;
+    //          throws ArithmeticException if the result does not fit in a long
+    public static long fromDollars(BigDecimal dollars) {
+        return dollars.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    // REQUIRES: text is a decimal number, optionally in exponent notation
+    // EFFECTS: returns the amount of dollars written in text, rounded to the nearest cent;
+    //          throws NumberFormatException if text is not a number
+    public static long parse(String text) {
+        return fromDollars(new BigDecimal(text));
+    }
+
+    // EFFECTS: returns cents as dollars
+    public static double toDollars(long cents) {
+        return (double) cents / CENTS_PER_DOLLAR;
+    }
+
+    // EFFECTS: returns cents as an exact decimal number of dollars
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // EFFECTS: returns unit cents multiplied by quantity;
+    //          throws ArithmeticException if the result overflows
+    public static long times(long cents, int quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    // EFFECTS: returns cents formatted as dollars with two decimals, e.g. "$12.50"
+    public static String format(long cents) {
+        return (cents < 0 ? "-$" : "$") + toDecimal(Math.abs(cents)).toPlainString();
+    }
+}
@@ -0,0 +1,62 @@
+package model;
+
+import java.util.concurrent.CompletableFuture;
+
+// An order to stock or sell a quantity of an item, submitted to an OrderEngine, on its way through the
+// engine's stages, and the future its result is given to once it has been applied to the store
+final class Order {
+    static final Order END = new Order(false, null, 0);  // tells each stage there are no more orders
+
+    private final boolean sale;
+    private final Item item;
+    private final int quantity;
+    private final long started;                         // System.nanoTime() when the order was submitted
+    private final CompletableFuture<TransactionResult> future;
+    private TransactionResult result;                   // the result once applied, or null until then
+    private long cents;                                 // what it earned or cost once applied (cents)
+
+    // EFFECTS: constructs order to sell (if sale) or stock quantity of item, submitted now
+    Order(boolean sale, Item item, int quantity) {
+        this.sale = sale;
+        this.item = item;
+        this.quantity = quantity;
+        started = System.nanoTime();
+        future = new CompletableFuture<>();
+    }
+
+    // EFFECTS: returns true if this is an order to sell, false if to stock
+    boolean isSale() {
+        return sale;
+    }
+
+    Item getItem() {
+        return item;
+    }
+
+    int getQuantity() {
+        return quantity;
+    }
+
+    long getStarted() {
+        return started;
+    }
+
+    CompletableFuture<TransactionResult> getFuture() {
+        return future;
+    }
+
+    TransactionResult getResult() {
+        return result;
+    }
+
+    long getCents() {
+        return cents;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records the result of applying this order, and the cents it earned or cost
+    void setResult(TransactionResult result, long cents) {
+        this.result = result;
+        this.cents = cents;
+    }
+}
@@ -0,0 +1,248 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A pipeline that applies stock and sell orders to a store at high rates, in place of callers calling
+// Store.tryStock() and Store.trySell() themselves.
+//
+// Orders submitted from any number of threads go onto a bounded ingest queue. A validating thread takes
+// them off in batches, turns down malformed ones, and routes each to the partition of its item (by the
+// item's hash); each partition has a queue and one writer thread, so every item is changed by one
+// thread only and the orders for it are applied in the order they were submitted. A writer applies
+// whatever has queued up for its partition as one batch (see Store.applyOrders()): it takes the store's
+// change lock once per batch rather than once per order, and settles the store's asset once per batch
+// (and before any stock the batch's sales cannot pay for), so the writers of different partitions rarely
+// touch the same memory.
+//
+// The result of each order is given to the future submit returns, on the writer's thread: actions
+// attached to it that take long should be attached with an async method, or they hold up the partition.
+public class OrderEngine {
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1 << 16;
+
+    private final Store store;
+    private final int batchSize;
+    private final BlockingQueue<Order> ingest;          // the orders submitted and not yet validated
+    private final List<BlockingQueue<Order>> partitions; // the orders validated for each partition
+    private final Thread validator;
+    private final Thread[] writers;
+    private final AtomicLong batches;                   // the batches applied by every writer
+    private final AtomicLong applied;                   // the orders in those batches
+    private volatile boolean closed;
+
+    // EFFECTS: constructs engine applying orders to store with a writer per available processor, in batches
+    //          of up to DEFAULT_BATCH_SIZE orders, taking up to DEFAULT_QUEUE_CAPACITY orders at once
+    public OrderEngine(Store store) {
+        this(store, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    // REQUIRES: partitionCount > 0, batchSize > 0, queueCapacity > 0
+    // EFFECTS: constructs engine applying orders to store with partitionCount writers, in batches of up to
+    //          batchSize orders, taking up to queueCapacity orders at once; submitters wait when it is full
+    public OrderEngine(Store store, int partitionCount, int batchSize, int queueCapacity) {
+        this.store = store;
+        this.batchSize = batchSize;
+        ingest = new ArrayBlockingQueue<>(queueCapacity);
+        partitions = new ArrayList<>();
+        writers = new Thread[partitionCount];
+        batches = new AtomicLong();
+        applied = new AtomicLong();
+        for (int i = 0; i < partitionCount; i++) {
+            BlockingQueue<Order> queue = new ArrayBlockingQueue<>(Math.max(batchSize, queueCapacity / partitionCount));
+            partitions.add(queue);
+            writers[i] = daemon(() -> write(queue), "order-writer-" + i);
+        }
+        validator = daemon(this::validate, "order-validator");
+        validator.start();
+        for (Thread writer : writers) {
+            writer.start();
+        }
+    }
+
+    // REQUIRES: quantity > 0
+    // MODIFIES: this
+    // EFFECTS: submits an order to stock quantity of item, and returns a future completed with OK or
+    //          INSUFFICIENT_ASSET once it has been applied, as Store.tryStock() would; waits while the
+    //          engine is full
+    public CompletableFuture<TransactionResult> stock(Item item, int quantity) {
+        return submit(new Order(false, item, quantity));
+    }
+
+    // REQUIRES: quantity > 0
+    // MODIFIES: this
+    // EFFECTS: submits an order to sell quantity of item, and returns a future completed with OK or why
+    //          not once it has been applied, as Store.trySell() would; waits while the engine is full
+    public CompletableFuture<TransactionResult> sell(Item item, int quantity) {
+        return submit(new Order(true, item, quantity));
+    }
+
+    // EFFECTS: returns the number of partitions, each with a writer thread
+    public int getPartitionCount() {
+        return writers.length;
+    }
+
+    // EFFECTS: returns the partition the orders for item go to
+    public int partitionOf(Item item) {
+        return Math.floorMod(item.hashCode(), writers.length);
+    }
+
+    // EFFECTS: returns the number of batches applied
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    // EFFECTS: returns the number of orders applied in those batches
+    public long getAppliedCount() {
+        return applied.get();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: applies every order already submitted, then stops the engine's threads; orders submitted
+    //          from now on are completed exceptionally with RejectedExecutionException
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        try {
+            ingest.put(Order.END);
+            validator.join();
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Order> left = new ArrayList<>();
+        ingest.drainTo(left);
+        for (Order order : left) {
+            reject(order);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues order to be validated, unless the engine is closed, and returns its future
+    private CompletableFuture<TransactionResult> submit(Order order) {
+        if (closed) {
+            reject(order);
+            return order.getFuture();
+        }
+        try {
+            ingest.put(order);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            order.getFuture().completeExceptionally(e);
+            return order.getFuture();
+        }
+        if (closed && ingest.remove(order)) {
+            reject(order);      // queued behind the end of the orders, so never validated
+        }
+        return order.getFuture();
+    }
+
+    // EFFECTS: takes the submitted orders off the ingest queue in batches, completes those that are
+    //          malformed exceptionally, and routes the rest to the partitions of their items, until the end
+    private void validate() {
+        List<Order> batch = new ArrayList<>(batchSize);
+        while (true) {
+            take(ingest, batch);
+            for (Order order : batch) {
+                if (order == Order.END) {
+                    for (BlockingQueue<Order> queue : partitions) {
+                        putUninterruptibly(queue, Order.END);
+                    }
+                    return;
+                }
+                if (order.getItem() == null || order.getQuantity() <= 0) {
+                    order.getFuture().completeExceptionally(
+                            new IllegalArgumentException("Expected an item and a positive quantity"));
+                } else {
+                    putUninterruptibly(partitions.get(partitionOf(order.getItem())), order);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    // EFFECTS: applies the orders validated for the partition of queue to the store in batches, and
+    //          completes their futures, until the end
+    private void write(BlockingQueue<Order> queue) {
+        List<Order> batch = new ArrayList<>(batchSize);
+        while (true) {
+            take(queue, batch);
+            boolean end = batch.remove(Order.END);
+            if (!batch.isEmpty()) {
+                apply(batch);
+            }
+            if (end) {
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    // EFFECTS: applies batch to the store and completes the future of each order with its result, or
+    //          exceptionally with what applying it threw
+    private void apply(List<Order> batch) {
+        RuntimeException failure = null;
+        try {
+            store.applyOrders(batch);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (Order order : batch) {
+            if (order.getResult() != null) {
+                order.getFuture().complete(order.getResult());
+            } else {
+                order.getFuture().completeExceptionally(failure != null ? failure : new IllegalStateException());
+            }
+        }
+        batches.incrementAndGet();
+        applied.addAndGet(batch.size());
+    }
+
+    // MODIFIES: batch
+    // EFFECTS: waits for an order on queue, then adds it and up to batchSize - 1 more already queued to batch
+    private void take(BlockingQueue<Order> queue, List<Order> batch) {
+        while (batch.isEmpty()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // the engine's threads stop only at the end of the orders
+            }
+        }
+        queue.drainTo(batch, batchSize - 1);
+    }
+
+    // EFFECTS: puts order on queue, waiting for room
+    private static void putUninterruptibly(BlockingQueue<Order> queue, Order order) {
+        while (true) {
+            try {
+                queue.put(order);
+                return;
+            } catch (InterruptedException e) {
+                // the order must not be lost
+            }
+        }
+    }
+
+    // EFFECTS: completes the future of order exceptionally, as submitted to a closed engine
+    private static void reject(Order order) {
+        order.getFuture().completeExceptionally(new RejectedExecutionException("Order engine is closed"));
+    }
+
+    // EFFECTS: returns a daemon thread running task with given name, not yet started
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
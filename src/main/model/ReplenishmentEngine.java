@@ -0,0 +1,119 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Restocks a store automatically from a forecast of each item's demand.
+//
+// Each pass blends every item's sales rate over the last hour (see SalesWindow.HOUR) into a forecast of
+// its demand in units per hour, by exponential smoothing. An item is due for restocking when the units of
+// it available (its quantity less those reserved) fall to its reorder point, the demand forecast over the
+// lead time plus the safety time; it is then ordered up to that point plus the demand forecast over the
+// cover time. The items due are planned most urgent first (fewest hours of stock left), leaving out any
+// that the store's asset cannot pay for, and the plan is stocked in one batch. Items are evaluated in
+// parallel, so a pass over a store of millions of items takes a fraction of the time a sequential one
+// would; one pass runs at a time.
+public class ReplenishmentEngine {
+    private final Store store;
+    private final double smoothing;     // the weight of the latest sales rate in each forecast, in (0, 1]
+    private final double leadTime;      // the hours a restock takes to arrive
+    private final double safetyTime;    // the hours of extra demand kept in stock against a forecast too low
+    private final double coverTime;     // the hours of demand each restock should last beyond the reorder point
+    private double[] forecasts;         // the demand forecast (units per hour) of each SKU id, or NaN if none
+
+    // An order line under consideration
+    private static final class Order {
+        final Item item;
+        final int quantity;
+        final double hoursLeft;         // the hours the item's stock will last at its forecast demand
+
+        Order(Item item, int quantity, double hoursLeft) {
+            this.item = item;
+            this.quantity = quantity;
+            this.hoursLeft = hoursLeft;
+        }
+    }
+
+    // REQUIRES: 0 < smoothing <= 1; leadTime, safetyTime and coverTime >= 0
+    // EFFECTS: constructs engine restocking store with given smoothing weight and times (hours)
+    public ReplenishmentEngine(Store store, double smoothing, double leadTime, double safetyTime, double coverTime) {
+        this.store = store;
+        this.smoothing = smoothing;
+        this.leadTime = leadTime;
+        this.safetyTime = safetyTime;
+        this.coverTime = coverTime;
+        forecasts = new double[0];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: updates the demand forecast of every item in stock and returns a plan restocking the
+    //          items due, most urgent first, that the store's current asset can pay for
+    public synchronized RestockPlan plan() {
+        List<Item> items = store.getItemsStocked();
+        int registered = SkuRegistry.getDefault().size();
+        if (forecasts.length < registered) {
+            int old = forecasts.length;
+            forecasts = Arrays.copyOf(forecasts, registered);
+            Arrays.fill(forecasts, old, registered, Double.NaN);
+        }
+        List<Order> due = IntStream.range(0, items.size()).parallel()
+                .mapToObj(i -> evaluate(items.get(i)))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingDouble((Order order) -> order.hoursLeft)
+                        .thenComparingInt(order -> order.item.getSku()))
+                .collect(Collectors.toList());
+        Basket basket = new Basket();
+        long budget = store.getAssetCents();
+        long totalCost = 0;
+        for (Order order : due) {
+            long cost = Money.times(order.item.getCostCents(), order.quantity);
+            if (cost <= budget - totalCost) {
+                basket.add(order.item, order.quantity);
+                totalCost += cost;
+            }
+        }
+        return new RestockPlan(basket, totalCost, due.size() - basket.size());
+    }
+
+    // MODIFIES: store
+    // EFFECTS: stocks every line of plan in one batch and returns true; returns false, stocking nothing,
+    //          if the store's asset can no longer pay for it
+    public boolean apply(RestockPlan plan) {
+        return plan.isEmpty() || store.stockAll(plan.getBasket());
+    }
+
+    // MODIFIES: this, store
+    // EFFECTS: plans a restock and applies it, returning the plan if it was applied and null otherwise
+    public RestockPlan replenish() {
+        RestockPlan plan = plan();
+        return apply(plan) ? plan : null;
+    }
+
+    // EFFECTS: returns the demand forecast of item in units per hour, or 0 if it has none yet
+    public synchronized double getForecast(Item item) {
+        int sku = item.getSku();
+        return sku < forecasts.length && !Double.isNaN(forecasts[sku]) ? forecasts[sku] : 0;
+    }
+
+    // REQUIRES: item's SKU id is below forecasts.length
+    // MODIFIES: this
+    // EFFECTS: updates the demand forecast of item and returns an order restocking it if it is due, else null
+    private Order evaluate(Item item) {
+        int sku = item.getSku();
+        double rate = store.getSalesRatePerHour(item, SalesWindow.HOUR);
+        double forecast = Double.isNaN(forecasts[sku]) ? rate : smoothing * rate + (1 - smoothing) * forecasts[sku];
+        forecasts[sku] = forecast;
+        int quantity = item.getAvailableQuantity();      // reserved units cannot be sold
+        double reorderPoint = forecast * (leadTime + safetyTime);
+        if (forecast <= 0 || quantity > reorderPoint) {
+            return null;
+        }
+        double orderUpTo = reorderPoint + forecast * coverTime;
+        int ordered = (int) Math.min(Integer.MAX_VALUE, Math.ceil(orderUpTo - quantity));
+        return ordered > 0 ? new Order(item, ordered, quantity / forecast) : null;
+    }
+}
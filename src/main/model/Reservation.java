@@ -0,0 +1,83 @@
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// A hold on some units of a stocked item (see Store.reserve()): while it is held those units stay
+// on hand but cannot be sold to anyone else, until the holder commits it, which sells them, or
+// releases it, or its time to live runs out and the store expires it, which both put them back on sale.
+// Exactly one of these happens to a hold, however many threads try at once.
+public final class Reservation {
+    private static final VarHandle STATUS;
+
+    static {
+        try {
+            STATUS = MethodHandles.lookup().findVarHandle(Reservation.class, "status", Status.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // The state of a reservation
+    public enum Status {
+        HELD,           // the units are held, awaiting commit or release
+        COMMITTED,      // the units have been sold to the holder
+        RELEASED,       // the holder gave the units back
+        EXPIRED,        // the hold ran out of time and the units went back on sale
+        REJECTED        // nothing was held; see getResult() for why
+    }
+
+    private final Item item;                // the stocked item held, or the item asked for if rejected
+    private final int quantity;             // the units held
+    private final long expiresAt;           // the time (ms) the hold runs out
+    private final TransactionResult result; // OK, or why nothing was held
+    private volatile Status status;         // the state of this reservation
+    TimerWheel.Timer<Reservation> timer;    // the timer expiring this hold, guarded by the store's ReservationBook
+
+    // EFFECTS: constructs reservation of quantity of item, held until expiresAt (ms) if result is OK,
+    //          otherwise rejected for result
+    Reservation(Item item, int quantity, long expiresAt, TransactionResult result) {
+        this.item = item;
+        this.quantity = quantity;
+        this.expiresAt = expiresAt;
+        this.result = result;
+        status = result == TransactionResult.OK ? Status.HELD : Status.REJECTED;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if this is held, changes its status to given one and returns true; otherwise returns false
+    boolean settle(Status settled) {
+        return STATUS.compareAndSet(this, Status.HELD, settled);
+    }
+
+    // EFFECTS: returns the item held
+    public Item getItem() {
+        return item;
+    }
+
+    // EFFECTS: returns the number of units held
+    public int getQuantity() {
+        return quantity;
+    }
+
+    // EFFECTS: returns the time (ms since the epoch) after which the hold expires
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    // EFFECTS: returns OK if the units were held, otherwise why not: NOT_STOCKED, PRICE_UNSET or
+    //          INSUFFICIENT_QUANTITY
+    public TransactionResult getResult() {
+        return result;
+    }
+
+    // EFFECTS: returns the state of this reservation
+    public Status getStatus() {
+        return status;
+    }
+
+    // EFFECTS: returns true if the units are still held
+    public boolean isHeld() {
+        return status == Status.HELD;
+    }
+}
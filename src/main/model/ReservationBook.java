@@ -0,0 +1,91 @@
+package model;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// The reservations a store holds, each with a timer in one TimerWheel rather than a task of its own,
+// so that holding, settling and expiring a reservation take constant time however many are held.
+//
+// One daemon thread shared by every store moves each store's wheel on every TICK_MILLIS and has the store
+// expire what ran out (see Store.expireReservations()); it holds stores only weakly, and stops ticking
+// for a store once it is garbage. The wheel is guarded by the book's lock, which is held only to link or
+// unlink a timer, or to collect those that expired.
+class ReservationBook {
+    static final long TICK_MILLIS = 10;
+    private static final ScheduledExecutorService TICKER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "reservation-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Expires the reservations of a store every tick, until the store is garbage
+    private static final class Ticker implements Runnable {
+        private final WeakReference<Store> store;
+        private volatile ScheduledFuture<?> future;    // this ticker's schedule, set once it is scheduled
+
+        Ticker(Store store) {
+            this.store = new WeakReference<>(store);
+        }
+
+        @Override
+        public void run() {
+            Store s = store.get();
+            if (s != null) {
+                s.expireReservations();
+            } else if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private final LongSupplier clock;                   // the current time (ms)
+    private final TimerWheel<Reservation> wheel;        // the timer of each reservation held
+
+    // EFFECTS: constructs empty book telling the time by clock (ms)
+    ReservationBook(LongSupplier clock) {
+        this.clock = clock;
+        wheel = new TimerWheel<>(TICK_MILLIS, clock.getAsLong());
+    }
+
+    // EFFECTS: returns a new book for the reservations of store, which is told to expire them every tick
+    static ReservationBook startTicking(Store store) {
+        ReservationBook book = new ReservationBook(System::currentTimeMillis);
+        Ticker ticker = new Ticker(store);
+        ticker.future = TICKER.scheduleWithFixedDelay(ticker, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        return book;
+    }
+
+    // EFFECTS: returns the current time (ms) by this book's clock
+    long now() {
+        return clock.getAsLong();
+    }
+
+    // REQUIRES: reservation is held and not in this book
+    // MODIFIES: this, reservation
+    // EFFECTS: schedules reservation to expire at its expiry time
+    synchronized void hold(Reservation reservation) {
+        reservation.timer = wheel.schedule(reservation, reservation.getExpiresAt());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: unschedules reservation, if it has not yet expired
+    synchronized void remove(Reservation reservation) {
+        wheel.cancel(reservation.timer);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes and returns the reservations whose expiry time has passed
+    synchronized List<Reservation> takeExpired() {
+        return wheel.advance(clock.getAsLong());
+    }
+
+    // EFFECTS: returns the number of reservations in this book
+    synchronized int size() {
+        return wheel.size();
+    }
+}
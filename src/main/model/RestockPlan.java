@@ -0,0 +1,37 @@
+package model;
+
+// Represents a plan to restock a store in one batch (see ReplenishmentEngine): the items to stock,
+// most urgent first, with the quantity of each, costing no more than the store's asset when planned
+public class RestockPlan {
+    private final Basket basket;        // the items to stock with their quantities, most urgent first
+    private final long totalCost;       // the cost (cents) of stocking every line of basket
+    private final int deferred;         // the number of items due for restocking left out for lack of asset
+
+    // REQUIRES: totalCost is the cost of stocking every line of basket
+    // EFFECTS: constructs plan to stock basket for totalCost, leaving out deferred items that were due
+    RestockPlan(Basket basket, long totalCost, int deferred) {
+        this.basket = basket;
+        this.totalCost = totalCost;
+        this.deferred = deferred;
+    }
+
+    // EFFECTS: returns the items to stock with their quantities, most urgent first
+    public Basket getBasket() {
+        return basket;
+    }
+
+    // EFFECTS: returns the cost (cents) of carrying out this plan
+    public long getTotalCostCents() {
+        return totalCost;
+    }
+
+    // EFFECTS: returns the number of items due for restocking that this plan leaves out for lack of asset
+    public int getDeferred() {
+        return deferred;
+    }
+
+    // EFFECTS: returns true if this plan stocks nothing
+    public boolean isEmpty() {
+        return basket.isEmpty();
+    }
+}
@@ -0,0 +1,196 @@
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+// The units sold and revenue of each item of a store over every SalesWindow, recorded as sales are made.
+//
+// Each SKU id that has been sold has one array of buckets: for each window, a ring of unit counts and
+// a ring of revenue (cents). Each bucket is a single long holding the low bits of the number of its
+// period of time (its tag) above the amount sold in it, so a sale updates a bucket with one compare-and-set,
+// and a bucket whose tag is out of date counts as empty and is reset by the first sale that lands in it.
+// Recording a sale takes no lock and allocates nothing, except for the first sale of each SKU id.
+// Queries read only the buckets, never a log of the sales.
+class SalesHistory {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int VALUE_BITS = 40;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+    private static final long TAG_MASK = (1L << (64 - VALUE_BITS)) - 1;
+    private static final SalesWindow[] WINDOWS = SalesWindow.values();
+    private static final int[] OFFSETS = new int[WINDOWS.length];   // the first bucket of each window
+    private static final int BUCKETS;                               // the buckets of every window together
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    static {
+        int offset = 0;
+        for (SalesWindow window : WINDOWS) {
+            OFFSETS[window.ordinal()] = offset;
+            offset += window.getBuckets();
+        }
+        BUCKETS = offset;
+    }
+
+    // The bucket arrays of CHUNK_SIZE consecutive SKU ids, each null until that id is first sold
+    private static final class Chunk {
+        final AtomicReferenceArray<long[]> buckets = new AtomicReferenceArray<>(CHUNK_SIZE);
+    }
+
+    // An item's place in a list of top sellers
+    private static final class Seller implements Comparable<Seller> {
+        final long units;
+        final int sku;
+
+        Seller(long units, int sku) {
+            this.units = units;
+            this.sku = sku;
+        }
+
+        // EFFECTS: orders sellers from worst to best: fewest units first, then highest SKU id first
+        @Override
+        public int compareTo(Seller other) {
+            int byUnits = Long.compare(units, other.units);
+            return byUnits != 0 ? byUnits : Integer.compare(other.sku, sku);
+        }
+    }
+
+    private final LongSupplier clock;   // the current time (ms)
+    private volatile Chunk[] chunks;    // the bucket arrays by SKU id, in chunks that never move
+
+    // EFFECTS: constructs empty history telling the time by clock (ms)
+    SalesHistory(LongSupplier clock) {
+        this.clock = clock;
+        chunks = new Chunk[0];
+    }
+
+    // REQUIRES: units > 0, revenueCents >= 0, and no bucket reaches 2^40 units or cents
+    // MODIFIES: this
+    // EFFECTS: records that units of the item with given SKU id were sold just now for revenueCents
+    void record(int sku, int units, long revenueCents) {
+        long now = clock.getAsLong();
+        long[] buckets = bucketsOf(sku);
+        for (SalesWindow window : WINDOWS) {
+            long period = now / window.getBucketMillis();
+            int bucket = OFFSETS[window.ordinal()] + (int) (period % window.getBuckets());
+            add(buckets, bucket, period, window.getBuckets(), units);
+            add(buckets, BUCKETS + bucket, period, window.getBuckets(), revenueCents);
+        }
+    }
+
+    // EFFECTS: returns the units of the item with given SKU id sold over window
+    long getUnits(int sku, SalesWindow window) {
+        long[] buckets = find(sku);
+        return buckets == null ? 0 : sum(buckets, 0, window, clock.getAsLong());
+    }
+
+    // EFFECTS: returns the revenue (cents) from the item with given SKU id over window
+    long getRevenueCents(int sku, SalesWindow window) {
+        long[] buckets = find(sku);
+        return buckets == null ? 0 : sum(buckets, BUCKETS, window, clock.getAsLong());
+    }
+
+    // EFFECTS: returns the SKU ids of the n items that sold the most units over window, most first
+    //          (then by SKU id); items that sold nothing are left out
+    List<Integer> topSellers(SalesWindow window, int n) {
+        long now = clock.getAsLong();
+        PriorityQueue<Seller> top = new PriorityQueue<>();
+        Chunk[] all = chunks;
+        for (int c = 0; c < all.length && n > 0; c++) {
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                long[] buckets = all[c].buckets.get(i);
+                long units = buckets == null ? 0 : sum(buckets, 0, window, now);
+                if (units > 0 && (top.size() < n || top.peek().units < units)) {
+                    top.add(new Seller(units, (c << CHUNK_BITS) + i));
+                    if (top.size() > n) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+        List<Integer> skus = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            skus.add(top.poll().sku);
+        }
+        Collections.reverse(skus);
+        return skus;
+    }
+
+    // MODIFIES: buckets
+    // EFFECTS: adds amount to the bucket at given index, in a ring of given size, for given period,
+    //          resetting the bucket first if it holds another period; a sale recorded late, after the
+    //          bucket has moved on to the period one lap later, is added to that period rather than wiping it out
+    private static void add(long[] buckets, int index, long period, int ringSize, long amount) {
+        long tag = period & TAG_MASK;
+        while (true) {
+            long current = (long) LONGS.getVolatile(buckets, index);
+            long ahead = ((current >>> VALUE_BITS) - tag) & TAG_MASK;
+            long updated = current != 0 && (ahead == 0 || ahead == ringSize)
+                    ? current + amount
+                    : (tag << VALUE_BITS) | amount;
+            if (LONGS.compareAndSet(buckets, index, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    // EFFECTS: returns the sum of the buckets of window at time now (ms), in the rings starting at base
+    private static long sum(long[] buckets, int base, SalesWindow window, long now) {
+        long period = now / window.getBucketMillis();
+        int offset = base + OFFSETS[window.ordinal()];
+        long total = 0;
+        for (long p = period; p > period - window.getBuckets() && p >= 0; p--) {
+            long bucket = (long) LONGS.getVolatile(buckets, offset + (int) (p % window.getBuckets()));
+            if (bucket >>> VALUE_BITS == (p & TAG_MASK)) {
+                total += bucket & VALUE_MASK;
+            }
+        }
+        return total;
+    }
+
+    // EFFECTS: returns the buckets of given SKU id, or null if it has never been sold
+    private long[] find(int sku) {
+        Chunk[] all = chunks;
+        int c = sku >>> CHUNK_BITS;
+        return c < all.length ? all[c].buckets.get(sku & (CHUNK_SIZE - 1)) : null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the buckets of given SKU id, adding empty ones if it has never been sold
+    private long[] bucketsOf(int sku) {
+        long[] buckets = find(sku);
+        if (buckets != null) {
+            return buckets;
+        }
+        Chunk[] all = chunks;
+        int c = sku >>> CHUNK_BITS;
+        if (c >= all.length) {
+            all = grow(c);
+        }
+        AtomicReferenceArray<long[]> chunk = all[c].buckets;
+        int i = sku & (CHUNK_SIZE - 1);
+        chunk.compareAndSet(i, null, new long[2 * BUCKETS]);
+        return chunk.get(i);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds empty chunks up to and including chunk c, and returns the chunks
+    private synchronized Chunk[] grow(int c) {
+        Chunk[] all = chunks;
+        if (c < all.length) {
+            return all;
+        }
+        Chunk[] grown = new Chunk[c + 1];
+        System.arraycopy(all, 0, grown, 0, all.length);
+        for (int i = all.length; i <= c; i++) {
+            grown[i] = new Chunk();
+        }
+        chunks = grown;
+        return grown;
+    }
+}
@@ -0,0 +1,34 @@
+package model;
+
+// The rolling windows a store tracks sales over (see Store.getUnitsSold()). Each window is kept as a ring
+// of buckets of a fixed width of time, so a window covers the current, partly elapsed bucket and the
+// whole buckets before it: "the last hour" is the last 55 to 60 minutes.
+public enum SalesWindow {
+    MINUTE(12, 5_000L),         // twelve 5-second buckets
+    HOUR(12, 300_000L),         // twelve 5-minute buckets
+    DAY(24, 3_600_000L);        // twenty-four 1-hour buckets
+
+    private final int buckets;          // the number of buckets in the ring
+    private final long bucketMillis;    // the width of each bucket (ms)
+
+    // EFFECTS: constructs window kept as a ring of given number of buckets of given width (ms)
+    SalesWindow(int buckets, long bucketMillis) {
+        this.buckets = buckets;
+        this.bucketMillis = bucketMillis;
+    }
+
+    // EFFECTS: returns the number of buckets in the ring
+    int getBuckets() {
+        return buckets;
+    }
+
+    // EFFECTS: returns the width of each bucket (ms)
+    long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    // EFFECTS: returns the length of the window (ms)
+    public long getMillis() {
+        return buckets * bucketMillis;
+    }
+}
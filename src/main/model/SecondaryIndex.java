@@ -0,0 +1,131 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// A sorted index of the SKU ids of a store's items by one field, kept up to date as items change,
+// so that range and top-k queries take logarithmic time plus the size of the answer.
+//
+// Entries are (value, SKU id) pairs in a concurrent skip list. The value each item is indexed under
+// is kept in chunked arrays indexed by SKU id, so an update can remove the item's old entry; updates
+// of the same item are serialized by one of STRIPES locks, and updates of different items run in parallel.
+class SecondaryIndex {
+    private static final int STRIPES = 64;
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    // An item's place in the index
+    private static final class Entry implements Comparable<Entry> {
+        final long value;
+        final int sku;
+
+        Entry(long value, int sku) {
+            this.value = value;
+            this.sku = sku;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byValue = Long.compare(value, other.value);
+            return byValue != 0 ? byValue : Integer.compare(sku, other.sku);
+        }
+    }
+
+    private final IndexedField field;
+    private final ConcurrentSkipListSet<Entry> entries;
+    private final Object[] stripes;
+    private volatile long[][] values;   // the value each SKU id is indexed under, or ABSENT
+
+    // EFFECTS: constructs empty index on field
+    SecondaryIndex(IndexedField field) {
+        this.field = field;
+        entries = new ConcurrentSkipListSet<>();
+        stripes = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        values = new long[0][];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves item to where its current value of the field belongs in the index
+    void update(Item item) {
+        int sku = item.getSku();
+        long[] chunk = chunk(sku);
+        int i = sku & (CHUNK_SIZE - 1);
+        synchronized (stripes[sku & (STRIPES - 1)]) {
+            long value = field.appliesTo(item) ? field.valueOf(item) : ABSENT;
+            long old = chunk[i];
+            if (value != old) {
+                if (old != ABSENT) {
+                    entries.remove(new Entry(old, sku));
+                }
+                if (value != ABSENT) {
+                    entries.add(new Entry(value, sku));
+                }
+                chunk[i] = value;
+            }
+        }
+    }
+
+    // EFFECTS: returns the SKU ids of the items whose value is between min and max inclusive, by value
+    List<Integer> range(long min, long max) {
+        if (min > max) {
+            return new ArrayList<>();
+        }
+        return skus(entries.subSet(new Entry(min, Integer.MIN_VALUE), true, new Entry(max, Integer.MAX_VALUE), true),
+                Integer.MAX_VALUE);
+    }
+
+    // EFFECTS: returns the SKU ids of the k items with the lowest values, lowest first
+    List<Integer> lowest(int k) {
+        return skus(entries, k);
+    }
+
+    // EFFECTS: returns the SKU ids of the k items with the highest values, highest first
+    List<Integer> highest(int k) {
+        return skus(entries.descendingSet(), k);
+    }
+
+    // EFFECTS: returns the SKU ids of the first k entries of set
+    private static List<Integer> skus(NavigableSet<Entry> set, int k) {
+        List<Integer> skus = new ArrayList<>();
+        for (Iterator<Entry> it = set.iterator(); it.hasNext() && skus.size() < k; ) {
+            skus.add(it.next().sku);
+        }
+        return skus;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the chunk of values holding given SKU id, adding chunks if needed
+    private long[] chunk(int sku) {
+        long[][] chunks = values;
+        int c = sku >>> CHUNK_BITS;
+        if (c >= chunks.length) {
+            chunks = grow(c);
+        }
+        return chunks[c];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds chunks of values, all ABSENT, up to and including chunk c, and returns the chunks
+    private synchronized long[][] grow(int c) {
+        long[][] chunks = values;
+        if (c < chunks.length) {
+            return chunks;
+        }
+        long[][] grown = new long[c + 1][];
+        System.arraycopy(chunks, 0, grown, 0, chunks.length);
+        for (int i = chunks.length; i <= c; i++) {
+            grown[i] = new long[CHUNK_SIZE];
+            Arrays.fill(grown[i], ABSENT);
+        }
+        values = grown;
+        return grown;
+    }
+}
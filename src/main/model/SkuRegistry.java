@@ -0,0 +1,134 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Represents the registry of every distinct product (a name and a unit cost in cents) this program
+// has seen, each identified by a dense int SKU id: 0 for the first product registered, 1 for the next,
+// and so on. A product's name is kept once, and every item of that product shares that String.
+//
+// Lookups never block; registering a new product takes the registry's lock. Ids are only meaningful
+// within one run of the program and are never written to store files.
+public final class SkuRegistry {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final SkuRegistry DEFAULT = new SkuRegistry();
+
+    private volatile String[][] names;          // the name of each id, in chunks that never move
+    private volatile long[][] costs;            // the unit cost (cents) of each id, likewise
+    private volatile AtomicIntegerArray slots;  // id + 1 for each used hash slot, 0 if free
+    private volatile int size;                  // the number of ids registered
+
+    // EFFECTS: constructs empty registry; every item is registered in the default one (see getDefault())
+    SkuRegistry() {
+        names = new String[0][];
+        costs = new long[0][];
+        slots = new AtomicIntegerArray(16);
+    }
+
+    // EFFECTS: returns the registry every item is registered in
+    public static SkuRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    // REQUIRES: name has a non-zero length
+    // MODIFIES: this
+    // EFFECTS: returns the id of the product with given name and cost, registering it if it is new
+    public int register(String name, long costCents) {
+        int sku = find(name, costCents);
+        return sku >= 0 ? sku : add(name, costCents);
+    }
+
+    // EFFECTS: returns the id of the product with given name and cost, or -1 if it is not registered
+    public int find(String name, long costCents) {
+        int hash = hash(name, costCents);
+        AtomicIntegerArray table = slots;
+        int mask = table.length() - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int sku = table.get(slot) - 1;
+            if (sku < 0) {
+                return -1;
+            }
+            if (getCostCents(sku) == costCents && getName(sku).equals(name)) {
+                return sku;
+            }
+        }
+    }
+
+    // REQUIRES: sku is a registered id
+    // EFFECTS: returns the name of the product with given id
+    public String getName(int sku) {
+        return names[sku >>> CHUNK_BITS][sku & (CHUNK_SIZE - 1)];
+    }
+
+    // REQUIRES: sku is a registered id
+    // EFFECTS: returns the unit cost (cents) of the product with given id
+    public long getCostCents(int sku) {
+        return costs[sku >>> CHUNK_BITS][sku & (CHUNK_SIZE - 1)];
+    }
+
+    // EFFECTS: returns the number of products registered, one more than the largest id
+    public int size() {
+        return size;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: registers the product with given name and cost unless another thread just has, and returns its id
+    private synchronized int add(String name, long costCents) {
+        int sku = find(name, costCents);
+        if (sku >= 0) {
+            return sku;
+        }
+        sku = size;
+        if ((sku & (CHUNK_SIZE - 1)) == 0) {
+            addChunk();
+        }
+        names[sku >>> CHUNK_BITS][sku & (CHUNK_SIZE - 1)] = name;
+        costs[sku >>> CHUNK_BITS][sku & (CHUNK_SIZE - 1)] = costCents;
+        if (2 * (sku + 1) > slots.length()) {
+            rehash(2 * slots.length());
+        }
+        insert(slots, sku);
+        size = sku + 1;
+        return sku;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds an empty chunk of ids
+    private void addChunk() {
+        String[][] grownNames = new String[names.length + 1][];
+        long[][] grownCosts = new long[costs.length + 1][];
+        System.arraycopy(names, 0, grownNames, 0, names.length);
+        System.arraycopy(costs, 0, grownCosts, 0, costs.length);
+        grownNames[names.length] = new String[CHUNK_SIZE];
+        grownCosts[costs.length] = new long[CHUNK_SIZE];
+        names = grownNames;
+        costs = grownCosts;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replaces the hash table with one of given capacity holding every id
+    private void rehash(int capacity) {
+        AtomicIntegerArray table = new AtomicIntegerArray(capacity);
+        for (int sku = 0; sku < size; sku++) {
+            insert(table, sku);
+        }
+        slots = table;
+    }
+
+    // MODIFIES: table
+    // EFFECTS: puts sku in the first free slot of table for its hash
+    private void insert(AtomicIntegerArray table, int sku) {
+        int mask = table.length() - 1;
+        int slot = hash(getName(sku), getCostCents(sku)) & mask;
+        while (table.get(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.set(slot, sku + 1);
+    }
+
+    // EFFECTS: returns the hash of the product with given name and cost
+    private static int hash(String name, long costCents) {
+        int h = 31 * name.hashCode() + Long.hashCode(costCents);
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,19 +1,69 @@
 package model;
 
+import metrics.MetricsRegistry;
+import metrics.StoreMetrics;
 import model.exceptions.InsufficientQuantityException;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import persistence.JsonStreamWriter;
+import persistence.StreamWritable;
 import persistence.Writable;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
 
-// Represents a store with items in stock; asset, revenue, and expenditure (in dollars)
-public class Store implements Writable {
-    private final List<Item> itemsStocked;     // the items in stock
-    private double asset;                      // the store's asset ($)
-    private double revenue;                    // the store's total revenue ($)
-    private double expenditure;                // the store's total expenditure ($)
+// Represents a store with items in stock; asset, revenue, and expenditure (held exactly in cents, see Money).
+// A store may be shared by many threads: sales of different items never block each other,
+// and asset, revenue and expenditure are updated atomically. Every change is made under a shared
+// change lock, so runExclusively() can see the whole store at a moment when no change is in progress.
+// The items in stock are kept either as objects (the default) or, for very large stores, as rows of
+// a columnar inventory (see withColumnarInventory()). Totals over the stock (units on hand, inventory
+// value, retail value, gross profit) are kept up to date on every change, so reading them costs O(1).
+// Each sale is also recorded in a rolling history of units sold and revenue per item (see SalesWindow).
+// Every stock and sale, and every one turned down, is counted and timed in the program's StoreMetrics.
+// Units may be reserved for a while before they are sold (see reserve()); reserved units stay on hand but
+// cannot be sold to anyone else, and go back on sale if the reservation is not committed in time.
+// While an ordered listener listens (a journal, which must be able to replay changes in the order it is
+// told of them), they do block each other: changes are made one at a time, each telling the listeners
+// before the next begins.
+// Besides telling its listeners about each change as it is made, a store publishes it, and every sale
+// it turns down, to an event stream (see getEvents()) that subscribers follow on threads of their own.
+// A change is published only once it has been made, so that a lagging subscriber, which holds up
+// publishers, never holds up the changes of other threads; events of changes made at the same time on
+// different threads may therefore be published in either order.
+// For high order rates, stocks and sales can instead be submitted to an OrderEngine, which applies them
+// in batches, one writer thread per partition of the items.
+public class Store implements Writable, StreamWritable {
+    private static final StoreMetrics METRICS = MetricsRegistry.getDefault().getStoreMetrics();
+
+    private final Inventory inventory;         // the items in stock, in the order they were first stocked
+    private final AtomicLong asset;            // the store's asset (cents)
+    private final LongAdder revenue;           // the store's total revenue (cents)
+    private final LongAdder expenditure;       // the store's total expenditure (cents)
+    private volatile StoreListener[] listeners; // the listeners told about every change, replaced on update
+    private final StampedLock changeLock;      // held shared by every change, exclusively by runExclusively
+    private final ReentrantLock orderLock;     // held through every change while an ordered listener listens
+    private volatile boolean ordered;          // true if some listener is ordered (see StoreListener.isOrdered())
+    private final Set<Item> dirty;             // the stocked items changed since takeDirtyItems() was last called
+    private volatile SecondaryIndex[] indexes; // the index on each IndexedField, by ordinal, or null if not kept
+    private final LongAdder unitsOnHand;       // the sum of the quantities of every item in stock
+    private final LongAdder inventoryValue;    // the sum of quantity times cost (cents) of every item in stock
+    private final LongAdder retailValue;       // the sum of quantity times price (cents) of every item in stock
+    private final LongAdder pricedCost;        // the sum of quantity times cost (cents) of every priced item in stock
+    private final SalesHistory sales;          // the units sold and revenue of each item over recent windows
+    private volatile ReservationBook reservations; // the reservations held, or null until the first one is made
+    private volatile EventStream events;       // the stream every change is published to, or null until asked for
 
     /*
      * REQUIRES: initialAsset > 0.0
@@ -21,10 +71,37 @@ public class Store implements Writable {
      *          store's revenue and expenditure are set to 0.0
      */
     public Store(double initialAsset) {
-        asset = initialAsset;
-        itemsStocked = new ArrayList<>();
-        revenue = 0.0;
-        expenditure = 0.0;
+        this(Money.fromDollars(initialAsset), false);
+    }
+
+    // EFFECTS: store's asset is set to assetCents; store's stock is empty, kept in a columnar inventory
+    //          if columnar; store's revenue and expenditure are set to 0
+    private Store(long assetCents, boolean columnar) {
+        asset = new AtomicLong(assetCents);
+        inventory = columnar ? new ColumnarInventory(this) : new HeapInventory(this);
+        revenue = new LongAdder();
+        expenditure = new LongAdder();
+        listeners = new StoreListener[0];
+        changeLock = new StampedLock();
+        orderLock = new ReentrantLock();
+        dirty = ConcurrentHashMap.newKeySet();
+        indexes = new SecondaryIndex[IndexedField.values().length];
+        unitsOnHand = new LongAdder();
+        inventoryValue = new LongAdder();
+        retailValue = new LongAdder();
+        pricedCost = new LongAdder();
+        sales = new SalesHistory(System::currentTimeMillis);
+    }
+
+    /*
+     * REQUIRES: initialAsset > 0.0
+     * EFFECTS: returns a store as new Store(initialAsset) would, but keeping its items as rows of primitive
+     *          columns instead of as objects. The items it hands out are views of those rows: stocking an
+     *          item copies it into a row rather than stocking that instance, and lookup() returns an equal
+     *          view rather than the same instance every time.
+     */
+    public static Store withColumnarInventory(double initialAsset) {
+        return new Store(Money.fromDollars(initialAsset), true);
     }
 
     /*
@@ -39,15 +116,32 @@ public class Store implements Writable {
      *                     and returns true.
      */
     public boolean stock(Item item, int quantity) {
-        double totalCost = quantity * item.getCost();
-        if (totalCost <= asset) {
-            addItemToStore(item, quantity);
-            expenditure += totalCost;
-            asset -= totalCost;
-            return true;
-        } else {
-            return false;
+        return tryStock(item, quantity) == TransactionResult.OK;
+    }
+
+    /*
+     * REQUIRES: quantity > 0
+     * MODIFIES: this and item
+     * EFFECTS: stocks quantity of item as stock() does, and returns OK if it did, or INSUFFICIENT_ASSET if
+     *          the transaction costs more than asset
+     */
+    public TransactionResult tryStock(Item item, int quantity) {
+        long started = System.nanoTime();
+        long totalCost = Money.times(item.getCostCents(), quantity);
+        long stamp = beginChange();
+        try {
+            if (!withdraw(totalCost)) {
+                return rejected(TransactionResult.INSUFFICIENT_ASSET, started);
+            }
+            Item stocked = addToStock(item, quantity);
+            expenditure.add(totalCost);
+            fireStocked(stocked, quantity);
+        } finally {
+            endChange(stamp);
         }
+        publish(StoreEvent.Type.ITEM_STOCKED, item.getSku(), quantity, totalCost, TransactionResult.OK);
+        METRICS.stocked(quantity, System.nanoTime() - started);
+        return TransactionResult.OK;
     }
 
     /*
@@ -56,21 +150,800 @@ public class Store implements Writable {
      * EFFECTS: if there are > quantity of items in stock and its price is set,
      *          deducts quantity from item's original quantity,
      *          adds the money earned to revenue and asset, and returns true;
+     *          if there are fewer than quantity in stock, throws InsufficientQuantityException;
      *          otherwise returns false
      */
     public boolean sell(Item item, int quantity) throws InsufficientQuantityException {
-        if (itemsStocked.contains(item) && item.priceIsSet()) {
-            if (quantity <= item.getQuantity()) {
-                item.decreaseQ(quantity);
-                revenue += quantity * item.getPrice();
-                asset += quantity * item.getPrice();
-                return true;
-            } else {
-                throw new InsufficientQuantityException();
+        return succeeded(trySell(item, quantity));
+    }
+
+    /*
+     * REQUIRES: quantity > 0
+     * MODIFIES: this and item
+     * EFFECTS: sells quantity of item as sell() does, and returns OK if it did; otherwise returns why not,
+     *          one of NOT_STOCKED, PRICE_UNSET or INSUFFICIENT_QUANTITY, leaving the store unchanged.
+     *          Allocates no exception, so it costs little even when most sales are turned down.
+     */
+    public TransactionResult trySell(Item item, int quantity) {
+        long started = System.nanoTime();
+        Item stocked = lookup(item);
+        if (stocked == null) {
+            return saleRejected(item, quantity, TransactionResult.NOT_STOCKED, started);
+        }
+        if (!stocked.priceIsSet()) {
+            return saleRejected(item, quantity, TransactionResult.PRICE_UNSET, started);
+        }
+        long earned;
+        boolean taken;
+        long stamp = beginChange();
+        try {
+            earned = Money.times(stocked.getPriceCents(), quantity);
+            taken = stocked.tryDecreaseQ(quantity);
+            if (taken) {
+                revenue.add(earned);
+                asset.addAndGet(earned);
+                sales.record(stocked.getSku(), quantity, earned);
+                fireSold(stocked, quantity);
             }
-        } else {
+        } finally {
+            endChange(stamp);
+        }
+        if (!taken) {
+            return saleRejected(item, quantity, TransactionResult.INSUFFICIENT_QUANTITY, started);
+        }
+        publish(StoreEvent.Type.ITEM_SOLD, stocked.getSku(), quantity, earned, TransactionResult.OK);
+        METRICS.sold(quantity, System.nanoTime() - started);
+        return TransactionResult.OK;
+    }
+
+    /*
+     * REQUIRES: every line of basket has quantity > 0
+     * MODIFIES: this and the items in basket
+     * EFFECTS: if the total cost of basket > asset, returns false;
+     *          otherwise stocks every line as stock() would, adds the total cost to expenditure,
+     *          deducts it from asset once, and returns true
+     */
+    public boolean stockAll(Basket basket) {
+        return tryStockAll(basket) == TransactionResult.OK;
+    }
+
+    /*
+     * REQUIRES: every line of basket has quantity > 0
+     * MODIFIES: this and the items in basket
+     * EFFECTS: stocks basket as stockAll() does, and returns OK if it did, or INSUFFICIENT_ASSET if
+     *          the total cost of basket > asset
+     */
+    public TransactionResult tryStockAll(Basket basket) {
+        long started = System.nanoTime();
+        long totalCost = 0;
+        long units = 0;
+        for (Map.Entry<Item, Integer> line : basket.getLines().entrySet()) {
+            totalCost = Math.addExact(totalCost, Money.times(line.getKey().getCostCents(), line.getValue()));
+            units += line.getValue();
+        }
+        long stamp = beginChange();
+        try {
+            if (!withdraw(totalCost)) {
+                return rejected(TransactionResult.INSUFFICIENT_ASSET, started);
+            }
+            for (Map.Entry<Item, Integer> line : basket.getLines().entrySet()) {
+                Item stocked = addToStock(line.getKey(), line.getValue());
+                fireStocked(stocked, line.getValue());
+            }
+            expenditure.add(totalCost);
+        } finally {
+            endChange(stamp);
+        }
+        for (Map.Entry<Item, Integer> line : basket.getLines().entrySet()) {
+            Item item = line.getKey();
+            publish(StoreEvent.Type.ITEM_STOCKED, item.getSku(), line.getValue(),
+                    Money.times(item.getCostCents(), line.getValue()), TransactionResult.OK);
+        }
+        METRICS.stocked(units, System.nanoTime() - started);
+        return TransactionResult.OK;
+    }
+
+    /*
+     * REQUIRES: every line of basket has quantity > 0
+     * MODIFIES: this and the items in basket
+     * EFFECTS: if some item in basket is not in stock or its price is not set, returns false;
+     *          if some item has fewer in stock than its line asks for, throws InsufficientQuantityException;
+     *          otherwise deducts every line's quantity from its item, adds the total money earned
+     *          to revenue and asset once, and returns true.
+     *          Either every line is sold or the store is left unchanged.
+     */
+    public boolean sellAll(Basket basket) throws InsufficientQuantityException {
+        return succeeded(trySellAll(basket));
+    }
+
+    /*
+     * REQUIRES: every line of basket has quantity > 0
+     * MODIFIES: this and the items in basket
+     * EFFECTS: sells basket as sellAll() does, and returns OK if it did; otherwise returns why not, for the
+     *          first line that cannot be sold, one of NOT_STOCKED, PRICE_UNSET or INSUFFICIENT_QUANTITY,
+     *          leaving the store unchanged
+     */
+    public TransactionResult trySellAll(Basket basket) {
+        long started = System.nanoTime();
+        Item[] stocked = new Item[basket.size()];
+        int[] quantities = new int[basket.size()];
+        long[] prices = new long[basket.size()];
+        long earned = 0;
+        long units = 0;
+        int line = 0;
+        for (Map.Entry<Item, Integer> entry : basket.getLines().entrySet()) {
+            Item item = lookup(entry.getKey());
+            if (item == null) {
+                return saleRejected(entry.getKey(), entry.getValue(), TransactionResult.NOT_STOCKED, started);
+            }
+            if (!item.priceIsSet()) {
+                return saleRejected(item, entry.getValue(), TransactionResult.PRICE_UNSET, started);
+            }
+            stocked[line] = item;
+            quantities[line] = entry.getValue();
+            units += quantities[line];
+            line++;
+        }
+        int lacking;
+        long stamp = beginChange();
+        try {
+            for (int i = 0; i < stocked.length; i++) {
+                prices[i] = stocked[i].getPriceCents();
+                earned = Math.addExact(earned, Money.times(prices[i], quantities[i]));
+            }
+            lacking = takeAll(stocked, quantities);
+            if (lacking < 0) {
+                revenue.add(earned);
+                asset.addAndGet(earned);
+                for (int i = 0; i < stocked.length; i++) {
+                    long lineEarned = Money.times(prices[i], quantities[i]);
+                    sales.record(stocked[i].getSku(), quantities[i], lineEarned);
+                    fireSold(stocked[i], quantities[i]);
+                }
+            }
+        } finally {
+            endChange(stamp);
+        }
+        if (lacking >= 0) {
+            return saleRejected(stocked[lacking], quantities[lacking], TransactionResult.INSUFFICIENT_QUANTITY, started);
+        }
+        for (int i = 0; i < stocked.length; i++) {
+            publish(StoreEvent.Type.ITEM_SOLD, stocked[i].getSku(), quantities[i],
+                    Money.times(prices[i], quantities[i]), TransactionResult.OK);
+        }
+        METRICS.sold(units, System.nanoTime() - started);
+        return TransactionResult.OK;
+    }
+
+    /*
+     * REQUIRES: quantity > 0, ttlMillis >= 0
+     * MODIFIES: this and item
+     * EFFECTS: if item is in stock, its price is set and it has at least quantity units available, reserves
+     *          quantity of them for ttlMillis and returns the held reservation: they cannot be sold to anyone
+     *          else until it is committed, released or expired. Otherwise returns a rejected reservation
+     *          whose result says why, one of NOT_STOCKED, PRICE_UNSET or INSUFFICIENT_QUANTITY
+     */
+    public Reservation reserve(Item item, int quantity, long ttlMillis) {
+        Item stocked = lookup(item);
+        if (stocked == null) {
+            return new Reservation(item, quantity, 0, TransactionResult.NOT_STOCKED);
+        }
+        if (!stocked.priceIsSet()) {
+            return new Reservation(stocked, quantity, 0, TransactionResult.PRICE_UNSET);
+        }
+        if (!stocked.tryReserve(quantity)) {
+            return new Reservation(stocked, quantity, 0, TransactionResult.INSUFFICIENT_QUANTITY);
+        }
+        ReservationBook book = reservations();
+        Reservation reservation = new Reservation(stocked, quantity, book.now() + ttlMillis, TransactionResult.OK);
+        book.hold(reservation);
+        return reservation;
+    }
+
+    /*
+     * REQUIRES: reservation was made by this store
+     * MODIFIES: this, reservation and its item
+     * EFFECTS: if reservation is still held, sells its units at the item's current price as sell() would,
+     *          and returns true; otherwise (it was rejected, committed, released or has expired) returns false
+     */
+    public boolean commit(Reservation reservation) {
+        long started = System.nanoTime();
+        if (!reservation.settle(Reservation.Status.COMMITTED)) {
             return false;
         }
+        reservations.remove(reservation);
+        Item stocked = reservation.getItem();
+        int quantity = reservation.getQuantity();
+        long earned;
+        long stamp = beginChange();
+        try {
+            earned = Money.times(stocked.getPriceCents(), quantity);
+            stocked.takeReserved(quantity);
+            revenue.add(earned);
+            asset.addAndGet(earned);
+            sales.record(stocked.getSku(), quantity, earned);
+            fireSold(stocked, quantity);
+        } finally {
+            endChange(stamp);
+        }
+        publish(StoreEvent.Type.ITEM_SOLD, stocked.getSku(), quantity, earned, TransactionResult.OK);
+        METRICS.sold(quantity, System.nanoTime() - started);
+        return true;
+    }
+
+    /*
+     * REQUIRES: reservation was made by this store
+     * MODIFIES: this, reservation and its item
+     * EFFECTS: if reservation is still held, puts its units back on sale and returns true; otherwise returns false
+     */
+    public boolean release(Reservation reservation) {
+        if (!reservation.settle(Reservation.Status.RELEASED)) {
+            return false;
+        }
+        reservations.remove(reservation);
+        reservation.getItem().unreserve(reservation.getQuantity());
+        return true;
+    }
+
+    // MODIFIES: this and the items reserved
+    // EFFECTS: expires every reservation still held whose time to live has run out, putting its units back
+    //          on sale. This is done every few milliseconds in the background; calling it just does it now
+    public void expireReservations() {
+        ReservationBook book = reservations;
+        if (book == null) {
+            return;
+        }
+        for (Reservation reservation : book.takeExpired()) {
+            if (reservation.settle(Reservation.Status.EXPIRED)) {
+                reservation.getItem().unreserve(reservation.getQuantity());
+            }
+        }
+    }
+
+    // EFFECTS: returns the number of reservations held that have not yet been expired
+    public int getReservationCount() {
+        ReservationBook book = reservations;
+        return book == null ? 0 : book.size();
+    }
+
+    /*
+     * REQUIRES: quantity > 0, to is not this store
+     * MODIFIES: this, to and item
+     * EFFECTS: moves quantity of item from this store to store to, which pays this store their cost, and
+     *          returns OK; neither store's revenue or expenditure changes. Returns NOT_STOCKED or
+     *          INSUFFICIENT_QUANTITY if this store cannot spare them, or INSUFFICIENT_ASSET if to cannot pay,
+     *          leaving both stores unchanged. The units leave this store before they reach to, so for a moment
+     *          they are in neither; the stores' change locks are never held together. Transfers are not
+     *          stocks or sales, so neither they nor their rejections are counted in the StoreMetrics.
+     */
+    public TransactionResult transfer(Store to, Item item, int quantity) {
+        long cost = Money.times(item.getCostCents(), quantity);
+        long stamp = to.beginChange();
+        try {
+            if (!to.withdraw(cost)) {
+                return TransactionResult.INSUFFICIENT_ASSET;
+            }
+        } finally {
+            to.endChange(stamp);
+        }
+        TransactionResult result = transferOut(item, quantity);
+        stamp = to.beginChange();
+        try {
+            if (result != TransactionResult.OK) {
+                to.asset.addAndGet(cost);
+                return result;
+            }
+            to.receive(item, quantity);
+        } finally {
+            to.endChange(stamp);
+        }
+        to.publish(StoreEvent.Type.ITEM_TRANSFERRED, item.getSku(), quantity, cost, TransactionResult.OK);
+        return TransactionResult.OK;
+    }
+
+    /*
+     * REQUIRES: quantity > 0
+     * MODIFIES: this and item
+     * EFFECTS: takes the half of a transfer() this store receives: if the cost of quantity of item > asset,
+     *          returns INSUFFICIENT_ASSET; otherwise deducts it from asset, adds quantity of item to stock,
+     *          and returns OK. Expenditure does not change
+     */
+    public TransactionResult transferIn(Item item, int quantity) {
+        long cost = Money.times(item.getCostCents(), quantity);
+        long stamp = beginChange();
+        try {
+            if (!withdraw(cost)) {
+                return TransactionResult.INSUFFICIENT_ASSET;
+            }
+            receive(item, quantity);
+        } finally {
+            endChange(stamp);
+        }
+        publish(StoreEvent.Type.ITEM_TRANSFERRED, item.getSku(), quantity, cost, TransactionResult.OK);
+        return TransactionResult.OK;
+    }
+
+    /*
+     * REQUIRES: quantity > 0
+     * MODIFIES: this and item
+     * EFFECTS: takes the half of a transfer() this store sends: if item is in stock with at least quantity
+     *          available, deducts quantity from it, adds their cost to asset, and returns OK; otherwise
+     *          returns NOT_STOCKED or INSUFFICIENT_QUANTITY. Revenue does not change
+     */
+    public TransactionResult transferOut(Item item, int quantity) {
+        Item stocked = lookup(item);
+        if (stocked == null) {
+            return TransactionResult.NOT_STOCKED;
+        }
+        long stamp = beginChange();
+        try {
+            if (!stocked.tryDecreaseQ(quantity)) {
+                return TransactionResult.INSUFFICIENT_QUANTITY;
+            }
+            asset.addAndGet(Money.times(stocked.getCostCents(), quantity));
+            fireTransferred(stocked, -quantity);
+        } finally {
+            endChange(stamp);
+        }
+        publish(StoreEvent.Type.ITEM_TRANSFERRED, stocked.getSku(), -quantity,
+                Money.times(stocked.getCostCents(), -quantity), TransactionResult.OK);
+        return TransactionResult.OK;
+    }
+
+    /*
+     * REQUIRES: no other thread applies orders for the items of orders at the same time
+     * MODIFIES: this and the items of orders
+     * EFFECTS: applies orders in turn as tryStock() and trySell() would, recording each one's result in it,
+     *          but taking the change lock once for all of them and settling the asset once: what the sales
+     *          earn is kept as a credit that pays for the stocks that follow them, and is added to the asset
+     *          before any stock it cannot pay for withdraws the rest, and after the last order. Until then
+     *          the asset may read lower than the orders applied so far leave it, never higher.
+     *          Each order's result is recorded before its listeners are told, so if a listener throws, the
+     *          orders applied so far, its own included, keep their results, the credit is still settled,
+     *          and the rest are left without one.
+     */
+    void applyOrders(List<Order> orders) {
+        long credit = 0;        // earned by the sales applied and not yet added to asset or spent
+        long earned = 0;
+        long spent = 0;
+        long stamp = beginChange();
+        try {
+            for (Order order : orders) {
+                Item item = order.getItem();
+                int quantity = order.getQuantity();
+                if (order.isSale()) {
+                    Item stocked = lookup(item);
+                    if (stocked == null) {
+                        order.setResult(rejected(TransactionResult.NOT_STOCKED, order.getStarted()), 0);
+                        continue;
+                    }
+                    if (!stocked.priceIsSet()) {
+                        order.setResult(rejected(TransactionResult.PRICE_UNSET, order.getStarted()), 0);
+                        continue;
+                    }
+                    long amount = Money.times(stocked.getPriceCents(), quantity);
+                    if (!stocked.tryDecreaseQ(quantity)) {
+                        order.setResult(rejected(TransactionResult.INSUFFICIENT_QUANTITY, order.getStarted()), 0);
+                        continue;
+                    }
+                    credit += amount;
+                    earned += amount;
+                    sales.record(stocked.getSku(), quantity, amount);
+                    order.setResult(TransactionResult.OK, amount);
+                    METRICS.sold(quantity, System.nanoTime() - order.getStarted());
+                    fireSold(stocked, quantity);
+                } else {
+                    long cost = Money.times(item.getCostCents(), quantity);
+                    if (cost <= credit) {
+                        credit -= cost;
+                    } else {
+                        if (credit > 0) {
+                            asset.addAndGet(credit);
+                            credit = 0;
+                        }
+                        if (!withdraw(cost)) {
+                            order.setResult(rejected(TransactionResult.INSUFFICIENT_ASSET, order.getStarted()), 0);
+                            continue;
+                        }
+                    }
+                    spent += cost;
+                    Item stocked = addToStock(item, quantity);
+                    order.setResult(TransactionResult.OK, cost);
+                    METRICS.stocked(quantity, System.nanoTime() - order.getStarted());
+                    fireStocked(stocked, quantity);
+                }
+            }
+        } finally {
+            asset.addAndGet(credit);
+            revenue.add(earned);
+            expenditure.add(spent);
+            endChange(stamp);
+            for (Order order : orders) {
+                publishApplied(order);
+            }
+        }
+    }
+
+    // REQUIRES: no change to this store is in progress on this thread
+    // EFFECTS: publishes the event of order, if it has been applied: its stock or sale, or a sale turned down
+    private void publishApplied(Order order) {
+        TransactionResult result = order.getResult();
+        int sku = order.getItem().getSku();
+        if (result == TransactionResult.OK) {
+            publish(order.isSale() ? StoreEvent.Type.ITEM_SOLD : StoreEvent.Type.ITEM_STOCKED, sku,
+                    order.getQuantity(), order.getCents(), result);
+        } else if (result != null && order.isSale()) {
+            publish(StoreEvent.Type.SALE_REJECTED, sku, order.getQuantity(), 0, result);
+        }
+    }
+
+    // REQUIRES: quantity > 0
+    // MODIFIES: this
+    // EFFECTS: adds quantity of item, which may be stocked in another store, to this store's stock,
+    //          and tells every listener it was transferred in
+    private void receive(Item item, int quantity) {
+        Item stocked = lookup(item);
+        if (stocked == null) {
+            stocked = addToStock(Item.ofSku(item.getSku()), quantity);
+        } else {
+            stocked.increaseQ(quantity);
+        }
+        fireTransferred(stocked, quantity);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the book of this store's reservations, starting one if there is none yet
+    private ReservationBook reservations() {
+        ReservationBook book = reservations;
+        if (book == null) {
+            synchronized (this) {
+                book = reservations;
+                if (book == null) {
+                    book = ReservationBook.startTicking(this);
+                    reservations = book;
+                }
+            }
+        }
+        return book;
+    }
+
+    // EFFECTS: returns true if result is OK, false if it is another rejection;
+    //          throws InsufficientQuantityException if it is INSUFFICIENT_QUANTITY
+    private static boolean succeeded(TransactionResult result) throws InsufficientQuantityException {
+        if (result == TransactionResult.INSUFFICIENT_QUANTITY) {
+            throw new InsufficientQuantityException();
+        }
+        return result == TransactionResult.OK;
+    }
+
+    // REQUIRES: result is not OK; started is System.nanoTime() when the sale started; no change to this
+    //          store is in progress on this thread
+    // EFFECTS: records that a sale of quantity of item was turned down for result in the metrics and the
+    //          event stream, and returns result
+    private TransactionResult saleRejected(Item item, int quantity, TransactionResult result, long started) {
+        publish(StoreEvent.Type.SALE_REJECTED, item.getSku(), quantity, 0, result);
+        return rejected(result, started);
+    }
+
+    // REQUIRES: result is not OK; started is System.nanoTime() when the transaction started
+    // EFFECTS: records the rejection in the metrics and returns result
+    private static TransactionResult rejected(TransactionResult result, long started) {
+        METRICS.rejected(result.getRejection(), System.nanoTime() - started);
+        return result;
+    }
+
+    // REQUIRES: no change to this store is made by action or the thread calling this
+    // EFFECTS: runs action while no change to this store is in progress; changes made by other
+    //          threads wait until action has finished
+    public void runExclusively(Runnable action) {
+        long stamp = changeLock.writeLock();
+        try {
+            action.run();
+        } finally {
+            changeLock.unlockWrite(stamp);
+        }
+    }
+
+    // REQUIRES: item is stocked in this store
+    // MODIFIES: this and item
+    // EFFECTS: sets item's price to priceCents and tells every listener
+    void changePrice(Item item, long priceCents) {
+        long stamp = beginChange();
+        try {
+            item.assignPrice(priceCents);
+            firePriceChanged(item, priceCents);
+        } finally {
+            endChange(stamp);
+        }
+        publish(StoreEvent.Type.PRICE_CHANGED, item.getSku(), 0, priceCents, TransactionResult.OK);
+    }
+
+    // MODIFIES: the given items
+    // EFFECTS: deducts quantities[i] from stocked[i] for every i and returns -1; if some item has fewer
+    //          than asked for, puts back what was already deducted and returns the index of that item
+    private int takeAll(Item[] stocked, int[] quantities) {
+        for (int i = 0; i < stocked.length; i++) {
+            if (!stocked[i].tryDecreaseQ(quantities[i])) {
+                for (int j = 0; j < i; j++) {
+                    stocked[j].increaseQ(quantities[j]);
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // EFFECTS: returns a copy of this store with its own copy of every stocked item (reserved units count
+    //          as on hand), and no sales history or reservations;
+    //          the copy is consistent across items only if no change is made meanwhile, e.g. inside runExclusively()
+    public Store copy() {
+        Store copy = new Store(0, inventory instanceof ColumnarInventory);
+        copy.setAssetCents(getAssetCents());
+        copy.setRevenueCents(getRevenueCents());
+        copy.setExpenditureCents(getExpenditureCents());
+        for (Item item : getItemsStocked()) {
+            Item copied = Item.ofCents(item.getName(), item.getCostCents());
+            copied.assignPrice(item.getPriceCents());
+            copy.addItemToStore(copied, item.getQuantity());
+        }
+        copy.takeDirtyItems();
+        return copy;
+    }
+
+    // REQUIRES: changes to item are serialized, so that every change to it is reported from the state
+    //          the previous one left
+    // MODIFIES: this
+    // EFFECTS: records that item, which is stocked in this store, has changed from oldQuantity at oldPrice
+    //          to newQuantity at newPrice; updates the totals and the indexes on it
+    void itemChanged(Item item, int oldQuantity, long oldPrice, int newQuantity, long newPrice) {
+        long cost = item.getCostCents();
+        unitsOnHand.add(newQuantity - oldQuantity);
+        inventoryValue.add((long) (newQuantity - oldQuantity) * cost);
+        retailValue.add(newQuantity * newPrice - oldQuantity * oldPrice);
+        pricedCost.add(((newPrice != 0 ? newQuantity : 0) - (oldPrice != 0 ? oldQuantity : 0)) * cost);
+        dirty.add(item);
+        for (SecondaryIndex index : indexes) {
+            if (index != null) {
+                index.update(item);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts keeping a sorted index of the items in stock on field, so that findInRange(),
+    //          findLowest() and findHighest() on it take logarithmic time rather than scanning every item
+    public void enableIndex(IndexedField field) {
+        runExclusively(() -> {
+            if (indexes[field.ordinal()] != null) {
+                return;
+            }
+            SecondaryIndex index = new SecondaryIndex(field);
+            SecondaryIndex[] updated = indexes.clone();
+            updated[field.ordinal()] = index;
+            indexes = updated;
+            for (Item item : getItemsStocked()) {
+                index.update(item);
+            }
+        });
+    }
+
+    // EFFECTS: returns true if this store keeps an index on field
+    public boolean isIndexed(IndexedField field) {
+        return indexes[field.ordinal()] != null;
+    }
+
+    // EFFECTS: returns the items in stock whose field is between min and max inclusive, ordered by field
+    //          (then by SKU id); scans every item unless field is indexed
+    public List<Item> findInRange(IndexedField field, long min, long max) {
+        SecondaryIndex index = indexes[field.ordinal()];
+        if (index != null) {
+            return itemsOf(index.range(min, max));
+        }
+        List<Item> found = new ArrayList<>();
+        for (Item item : getItemsStocked()) {
+            if (field.appliesTo(item) && field.valueOf(item) >= min && field.valueOf(item) <= max) {
+                found.add(item);
+            }
+        }
+        return sortedBy(field, found);
+    }
+
+    // EFFECTS: returns the k items in stock with the lowest field, lowest first; scans every item unless
+    //          field is indexed
+    public List<Item> findLowest(IndexedField field, int k) {
+        SecondaryIndex index = indexes[field.ordinal()];
+        if (index != null) {
+            return itemsOf(index.lowest(k));
+        }
+        List<Item> sorted = findInRange(field, Long.MIN_VALUE, Long.MAX_VALUE);
+        return sorted.subList(0, Math.min(k, sorted.size()));
+    }
+
+    // EFFECTS: returns the k items in stock with the highest field, highest first; scans every item unless
+    //          field is indexed
+    public List<Item> findHighest(IndexedField field, int k) {
+        SecondaryIndex index = indexes[field.ordinal()];
+        if (index != null) {
+            return itemsOf(index.highest(k));
+        }
+        List<Item> sorted = new ArrayList<>(findInRange(field, Long.MIN_VALUE, Long.MAX_VALUE));
+        Collections.reverse(sorted);
+        return sorted.subList(0, Math.min(k, sorted.size()));
+    }
+
+    // EFFECTS: returns the units of item sold over window
+    public long getUnitsSold(Item item, SalesWindow window) {
+        return sales.getUnits(item.getSku(), window);
+    }
+
+    // EFFECTS: returns the revenue (cents) from sales of item over window
+    public long getSalesCents(Item item, SalesWindow window) {
+        return sales.getRevenueCents(item.getSku(), window);
+    }
+
+    // EFFECTS: returns the rate item sold at over window, in units per hour
+    public double getSalesRatePerHour(Item item, SalesWindow window) {
+        return getUnitsSold(item, window) * 3_600_000.0 / window.getMillis();
+    }
+
+    // EFFECTS: returns the n items in stock that sold the most units over window, most first (then by SKU id);
+    //          items that sold nothing over window are left out
+    public List<Item> getTopSellers(SalesWindow window, int n) {
+        return itemsOf(sales.topSellers(window, n));
+    }
+
+    // EFFECTS: returns the stocked items with given SKU ids, in the same order
+    private List<Item> itemsOf(List<Integer> skus) {
+        List<Item> items = new ArrayList<>(skus.size());
+        for (int sku : skus) {
+            items.add(lookup(sku));
+        }
+        return items;
+    }
+
+    // MODIFIES: items
+    // EFFECTS: sorts items by field, then by SKU id, and returns them
+    private static List<Item> sortedBy(IndexedField field, List<Item> items) {
+        items.sort(Comparator.comparingLong((Item item) -> field.valueOf(item)).thenComparingInt(Item::getSku));
+        return items;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns every stocked item added or changed since this was last called, and forgets them
+    public List<Item> takeDirtyItems() {
+        List<Item> taken = new ArrayList<>();
+        for (Iterator<Item> it = dirty.iterator(); it.hasNext(); ) {
+            taken.add(it.next());
+            it.remove();
+        }
+        return taken;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the stream this store publishes its events to, starting one of
+    //          EventStream.DEFAULT_CAPACITY events if there is none yet
+    public EventStream getEvents() {
+        EventStream stream = events;
+        if (stream == null) {
+            synchronized (this) {
+                stream = events;
+                if (stream == null) {
+                    stream = new EventStream(EventStream.DEFAULT_CAPACITY);
+                    events = stream;
+                }
+            }
+        }
+        return stream;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: listener will be told about every change made to this store from now on
+    public void addListener(StoreListener listener) {
+        runExclusively(() -> {
+            StoreListener[] updated = new StoreListener[listeners.length + 1];
+            System.arraycopy(listeners, 0, updated, 0, listeners.length);
+            updated[listeners.length] = listener;
+            setListeners(updated);
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: listener will no longer be told about changes to this store
+    public void removeListener(StoreListener listener) {
+        runExclusively(() -> {
+            List<StoreListener> remaining = new ArrayList<>();
+            for (StoreListener l : listeners) {
+                if (l != listener) {
+                    remaining.add(l);
+                }
+            }
+            setListeners(remaining.toArray(new StoreListener[0]));
+        });
+    }
+
+    // REQUIRES: no change is in progress (the change lock is held exclusively)
+    // MODIFIES: this
+    // EFFECTS: replaces the listeners with updated
+    private void setListeners(StoreListener[] updated) {
+        boolean anyOrdered = false;
+        for (StoreListener listener : updated) {
+            anyOrdered |= listener.isOrdered();
+        }
+        listeners = updated;
+        ordered = anyOrdered;
+    }
+
+    // EFFECTS: starts a change to this store, holding the change lock shared and, while an ordered listener
+    //          listens, the order lock, and returns the stamp to end it with
+    private long beginChange() {
+        long stamp = changeLock.readLock();
+        if (ordered) {
+            orderLock.lock();
+        }
+        return stamp;
+    }
+
+    // REQUIRES: stamp was returned by beginChange() on this thread
+    // EFFECTS: ends the change begun with stamp
+    private void endChange(long stamp) {
+        if (orderLock.isHeldByCurrentThread()) {
+            orderLock.unlock();
+        }
+        changeLock.unlockRead(stamp);
+    }
+
+    // EFFECTS: tells every listener that quantity of item has been stocked
+    private void fireStocked(Item item, int quantity) {
+        for (StoreListener listener : listeners) {
+            listener.itemStocked(item, quantity);
+        }
+    }
+
+    // EFFECTS: tells every listener that quantity of item has been sold
+    private void fireSold(Item item, int quantity) {
+        for (StoreListener listener : listeners) {
+            listener.itemSold(item, quantity);
+        }
+    }
+
+    // EFFECTS: tells every listener that quantity of item has been transferred in, or -quantity out if quantity < 0
+    private void fireTransferred(Item item, int quantity) {
+        for (StoreListener listener : listeners) {
+            listener.itemTransferred(item, quantity);
+        }
+    }
+
+    // EFFECTS: tells every listener that item's price has been set to priceCents
+    private void firePriceChanged(Item item, long priceCents) {
+        for (StoreListener listener : listeners) {
+            listener.priceChanged(item, priceCents);
+        }
+    }
+
+    // REQUIRES: no change to this store is in progress on this thread
+    // EFFECTS: publishes the event given by type, sku, quantity, cents and result to the event stream, if
+    //          there is one. Publishing waits while a subscriber lags a whole stream behind, so it is done
+    //          only once a change has ended, never holding up runExclusively()
+    private void publish(StoreEvent.Type type, int sku, int quantity, long cents, TransactionResult result) {
+        EventStream stream = events;
+        if (stream != null) {
+            stream.publish(type, sku, quantity, cents, result);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if amount <= asset, atomically deducts amount from asset and returns true;
+    //          otherwise leaves asset unchanged and returns false
+    private boolean withdraw(long amount) {
+        while (true) {
+            long current = asset.get();
+            if (amount > current) {
+                return false;
+            }
+            if (asset.compareAndSet(current, current - amount)) {
+                return true;
+            }
+        }
     }
 
 // Getters:
@@ -78,68 +951,182 @@ public class Store implements Writable {
     // REQUIRES: item is contained in itemsStocked
     // EFFECTS: returns the index of given item in itemsStocked
     public int getIndexOf(Item item) {
-        return itemsStocked.indexOf(item);
+        return inventory.indexOf(item.getSku());
+    }
+
+    // EFFECTS: returns the stocked item equal to given item, or null if it is not in stock
+    public Item lookup(Item item) {
+        return inventory.lookup(item.getSku());
+    }
+
+    // EFFECTS: returns the stocked item with given SKU id, or null if it is not in stock
+    public Item lookup(int sku) {
+        return inventory.lookup(sku);
+    }
+
+    // EFFECTS: returns the number of different items in stock
+    public int getItemCount() {
+        return inventory.size();
+    }
+
+    // EFFECTS: returns true if an item equal to given item is in stock
+    public boolean contains(Item item) {
+        return inventory.indexOf(item.getSku()) >= 0;
+    }
+
+    // EFFECTS: returns the number of units of every item in stock
+    public long getUnitsOnHand() {
+        return unitsOnHand.sum();
+    }
+
+    // EFFECTS: returns the total cost (cents) of every item in stock, i.e. the sum of quantity times cost
+    public long getInventoryValueCents() {
+        return inventoryValue.sum();
+    }
+
+    // EFFECTS: returns the total price (cents) of every item in stock, i.e. the sum of quantity times price
+    public long getRetailValueCents() {
+        return retailValue.sum();
+    }
+
+    // EFFECTS: returns the gross profit (cents) selling every priced item in stock would make,
+    //          i.e. the sum of quantity times (price - cost) over the items whose price is set
+    public long getGrossProfitCents() {
+        return retailValue.sum() - pricedCost.sum();
+    }
+
+    // EFFECTS: returns the items in stock with no more than threshold left, ordered by quantity (then by SKU id)
+    public List<Item> getLowStockItems(int threshold) {
+        if (isIndexed(IndexedField.QUANTITY)) {
+            return findInRange(IndexedField.QUANTITY, Long.MIN_VALUE, threshold);
+        }
+        return sortedBy(IndexedField.QUANTITY, inventory.lowStock(threshold));
     }
 
     // EFFECTS: returns store's current asset
     public double getAsset() {
-        return asset;
+        return Money.toDollars(getAssetCents());
+    }
+
+    // EFFECTS: returns store's current asset in cents
+    public long getAssetCents() {
+        return asset.get();
     }
 
     // EFFECTS: returns store's total expenditure
     public double getExpenditure() {
-        return expenditure;
+        return Money.toDollars(getExpenditureCents());
+    }
+
+    // EFFECTS: returns store's total expenditure in cents
+    public long getExpenditureCents() {
+        return expenditure.sum();
     }
 
     // EFFECTS: returns store's total revenue
     public double getRevenue() {
-        return revenue;
+        return Money.toDollars(getRevenueCents());
+    }
+
+    // EFFECTS: returns store's total revenue in cents
+    public long getRevenueCents() {
+        return revenue.sum();
     }
 
-    // EFFECTS: returns list of items in stock
+    // EFFECTS: returns read-only copy of items in stock, in the order they were first stocked
     public List<Item> getItemsStocked() {
-        return itemsStocked;
+        return Collections.unmodifiableList(inventory.items());
     }
 
 
     @Override
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("asset", asset);
-        json.put("revenue", revenue);
-        json.put("expenditure", expenditure);
+        json.put("asset", getAsset());
+        json.put("revenue", getRevenue());
+        json.put("expenditure", getExpenditure());
         json.put("items", itemsToJson());
         return json;
     }
 
+    @Override
+    public void writeJson(JsonStreamWriter writer) throws IOException {
+        writer.beginObject()
+                .name("asset").valueCents(getAssetCents())
+                .name("revenue").valueCents(getRevenueCents())
+                .name("expenditure").valueCents(getExpenditureCents())
+                .name("items").beginArray();
+        for (Item item : getItemsStocked()) {
+            item.writeJson(writer);
+        }
+        writer.endArray().endObject();
+    }
+
     // EFFECTS: returns items in this store as a JSON array
     private JSONArray itemsToJson() {
         JSONArray jsonArray = new JSONArray();
 
-        for (Item item : itemsStocked) {
+        for (Item item : getItemsStocked()) {
             jsonArray.put(item.toJson());
         }
         return jsonArray;
     }
 
+    // REQUIRES: quantity >= 0
+    // MODIFIES: this and item
+    // EFFECTS: if an item equal to given item is already in stock, adds quantity to the stocked item;
+    //          otherwise adds quantity to item and appends it to the items in stock.
+    //          Unlike stock(), no money changes hands and listeners are not told; this is for loading stores.
     public void addItemToStore(Item item, int quantity) {
-        if (itemsStocked.contains(item)) {
-            for (Item existingItem : itemsStocked) {
-                if (item == existingItem) {
-                    existingItem.increaseQ(quantity);
+        addToStock(item, quantity);
+    }
+
+    // REQUIRES: quantity >= 0
+    // MODIFIES: this and item
+    // EFFECTS: adds quantity of item to stock as addItemToStore does, and returns the stocked instance
+    private Item addToStock(Item item, int quantity) {
+        Item stocked = lookup(item);
+        if (stocked == null) {
+            synchronized (inventory) {
+                stocked = lookup(item);
+                if (stocked == null) {
+                    int initialQuantity = item.getQuantity() + quantity;
+                    long initialPrice = item.getPriceCents();
+                    stocked = inventory.add(item, quantity);
+                    itemChanged(stocked, 0, 0, initialQuantity, initialPrice);
+                    return stocked;
                 }
             }
-        } else {
-            item.increaseQ(quantity);
-            itemsStocked.add(item);
         }
+        stocked.increaseQ(quantity);
+        return stocked;
     }
 
     public void setRevenue(double rev) {
-        revenue = rev;
+        setRevenueCents(Money.fromDollars(rev));
     }
 
     public void setExpenditure(double exp) {
-        expenditure = exp;
+        setExpenditureCents(Money.fromDollars(exp));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets store's asset to cents
+    public void setAssetCents(long cents) {
+        asset.set(cents);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets store's total revenue to cents
+    public void setRevenueCents(long cents) {
+        revenue.reset();
+        revenue.add(cents);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets store's total expenditure to cents
+    public void setExpenditureCents(long cents) {
+        expenditure.reset();
+        expenditure.add(cents);
     }
 }
@@ -0,0 +1,132 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+// Represents a chain of stores (its branches, numbered from 0 in the order they are opened), each with
+// its own stock, asset, revenue and expenditure.
+//
+// Branches are sharded across a fixed set of worker threads: branch b belongs to worker b % workers,
+// and work submitted for a branch runs on its worker, so the branches of one shard never contend with
+// each other's threads. Every branch keeps its items in a columnar inventory, and every item is of a
+// product registered in the shared SkuRegistry, whose names and costs are immutable and held once:
+// a branch costs a few primitive columns per product it stocks, never its own copy of the catalog.
+//
+// Chain-wide totals are summed from each branch's totals, which are read without locking, so they
+// never hold up a branch; while changes are in progress they may be a moment out of date.
+public class StoreChain {
+    private final ExecutorService[] workers;   // the worker of each shard
+    private volatile Store[] stores;           // the branches by number, replaced when one is opened
+
+    // REQUIRES: workerCount > 0
+    // EFFECTS: constructs chain of no branches, sharded across workerCount worker threads
+    public StoreChain(int workerCount) {
+        workers = new ExecutorService[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            String name = "store-chain-worker-" + i;
+            workers[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        stores = new Store[0];
+    }
+
+    // REQUIRES: initialAsset > 0.0
+    // MODIFIES: this
+    // EFFECTS: opens a new branch with given asset and an empty stock, and returns its number
+    public synchronized int openStore(double initialAsset) {
+        Store[] grown = Arrays.copyOf(stores, stores.length + 1);
+        grown[stores.length] = Store.withColumnarInventory(initialAsset);
+        stores = grown;
+        return stores.length - 1;
+    }
+
+    // REQUIRES: 0 <= branch < getStoreCount()
+    // EFFECTS: returns the store of given branch
+    public Store getStore(int branch) {
+        return stores[branch];
+    }
+
+    // EFFECTS: returns the number of branches
+    public int getStoreCount() {
+        return stores.length;
+    }
+
+    // EFFECTS: returns the number of worker threads the branches are sharded across
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    // REQUIRES: 0 <= branch < getStoreCount()
+    // EFFECTS: returns the worker thread number given branch belongs to
+    public int shardOf(int branch) {
+        return branch % workers.length;
+    }
+
+    // REQUIRES: 0 <= branch < getStoreCount()
+    // EFFECTS: runs action on the store of given branch on the worker of its shard, and returns a future
+    //          completed with its result, or exceptionally with what it threw
+    public <T> CompletableFuture<T> submit(int branch, Function<Store, T> action) {
+        Store store = getStore(branch);
+        return CompletableFuture.supplyAsync(() -> action.apply(store), workers[shardOf(branch)]);
+    }
+
+    /*
+     * REQUIRES: quantity > 0, from and to are different branches
+     * MODIFIES: the stores of from and to
+     * EFFECTS: moves quantity of item from branch from to branch to at cost, as Store.transfer() does,
+     *          and returns OK or why not, leaving both branches unchanged
+     */
+    public TransactionResult transfer(int from, int to, Item item, int quantity) {
+        return getStore(from).transfer(getStore(to), item, quantity);
+    }
+
+    // EFFECTS: returns the asset (cents) of every branch together
+    public long getAssetCents() {
+        long total = 0;
+        for (Store store : stores) {
+            total += store.getAssetCents();
+        }
+        return total;
+    }
+
+    // EFFECTS: returns the revenue (cents) of every branch together
+    public long getRevenueCents() {
+        long total = 0;
+        for (Store store : stores) {
+            total += store.getRevenueCents();
+        }
+        return total;
+    }
+
+    // EFFECTS: returns the expenditure (cents) of every branch together
+    public long getExpenditureCents() {
+        long total = 0;
+        for (Store store : stores) {
+            total += store.getExpenditureCents();
+        }
+        return total;
+    }
+
+    // EFFECTS: returns the units on hand of every branch together
+    public long getUnitsOnHand() {
+        long total = 0;
+        for (Store store : stores) {
+            total += store.getUnitsOnHand();
+        }
+        return total;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the worker threads once the work already submitted is done; no more can be submitted
+    public void shutdown() {
+        for (ExecutorService worker : workers) {
+            worker.shutdown();
+        }
+    }
+}
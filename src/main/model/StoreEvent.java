@@ -0,0 +1,64 @@
+package model;
+
+// A change made to a store, or a sale it turned down, as delivered to an EventSubscriber (see EventStream).
+// Events are entries of the stream's ring buffer and are reused once every subscriber has seen them:
+// a subscriber must copy out what it needs before it returns from onEvent(), and never keep the event.
+public final class StoreEvent {
+
+    // The kinds of event
+    public enum Type {
+        ITEM_STOCKED,       // quantity units of the item were stocked, costing cents
+        ITEM_SOLD,          // quantity units of the item were sold, earning cents
+        PRICE_CHANGED,      // the item's price was set to cents
+        SALE_REJECTED,      // a sale of quantity units of the item was turned down for result
+        ITEM_TRANSFERRED    // quantity units of the item were transferred in (out if negative) at cents
+    }
+
+    private Type type;
+    private int sku;
+    private int quantity;
+    private long cents;
+    private TransactionResult result;
+
+    // MODIFIES: this
+    // EFFECTS: makes this event describe given change
+    void set(Type type, int sku, int quantity, long cents, TransactionResult result) {
+        this.type = type;
+        this.sku = sku;
+        this.quantity = quantity;
+        this.cents = cents;
+        this.result = result;
+    }
+
+    // EFFECTS: returns the kind of this event
+    public Type getType() {
+        return type;
+    }
+
+    // EFFECTS: returns the SKU id of the item this event is about
+    public int getSku() {
+        return sku;
+    }
+
+    // EFFECTS: returns the units stocked, sold, turned down or transferred, or 0 for a price change
+    public int getQuantity() {
+        return quantity;
+    }
+
+    // EFFECTS: returns the cost of a stock or transfer, the revenue of a sale, or the new price (cents);
+    //          0 for a rejected sale
+    public long getCents() {
+        return cents;
+    }
+
+    // EFFECTS: returns why a sale was turned down, or OK for any other event
+    public TransactionResult getResult() {
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return type + " sku=" + sku + " quantity=" + quantity + " cents=" + cents
+                + (type == Type.SALE_REJECTED ? " result=" + result : "");
+    }
+}
@@ -0,0 +1,24 @@
+package model;
+
+// Receives every change a store makes to its stock, e.g. to journal it or refresh a view.
+// Listeners are called on the thread that made the change, after it has been applied.
+public interface StoreListener {
+    // EFFECTS: returns true if this listener must be told of changes in an order they can be made again in,
+    //          one after another; the store then makes its changes one at a time while this listens
+    default boolean isOrdered() {
+        return false;
+    }
+
+    // EFFECTS: called after quantity of item has been stocked
+    void itemStocked(Item item, int quantity);
+
+    // EFFECTS: called after quantity of item has been sold
+    void itemSold(Item item, int quantity);
+
+    // EFFECTS: called after the price of a stocked item has been set to priceCents
+    void priceChanged(Item item, long priceCents);
+
+    // EFFECTS: called after quantity of item has been transferred in from another store, at cost,
+    //          or after -quantity of it has been transferred out to another store if quantity < 0
+    void itemTransferred(Item item, int quantity);
+}
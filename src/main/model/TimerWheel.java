@@ -0,0 +1,173 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A hierarchical timer wheel: schedules values to expire at given times, so that scheduling and
+// cancelling a timer take constant time however many are pending, and expiring one costs a small
+// constant amortized over its life.
+//
+// Time is counted in ticks of tickMillis since the wheel was created. The wheel has LEVELS rings of
+// SLOTS slots; level 0 holds the timers due within the next SLOTS ticks, one slot per tick, and each
+// higher level holds later timers with slots SLOTS times as wide. Whenever the lower level has gone all
+// the way round, the next slot of the level above is emptied into the levels below it (cascaded), so
+// each timer moves down at most LEVELS - 1 times before it expires. Timers due further ahead than the
+// wheel spans wait in its last level and are put back until they are due. Each slot is a doubly linked
+// ring of timers headed by a sentinel, so a timer is unlinked without searching.
+//
+// A wheel is not thread-safe: its owner serializes every call.
+class TimerWheel<T> {
+    static final int LEVELS = 4;
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    private static final long SPAN = 1L << (LEVELS * SLOT_BITS);   // the ticks the wheel can tell apart
+
+    // A scheduled value, linked into the slot it waits in
+    static final class Timer<T> {
+        private final T value;          // the value that expires, or null for a slot's sentinel
+        private final long deadline;    // the tick the value expires at
+        private Timer<T> prev;          // the previous timer in its slot
+        private Timer<T> next;          // the next timer in its slot, or null if not scheduled
+
+        // EFFECTS: constructs timer for value expiring at given tick
+        private Timer(T value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        // EFFECTS: returns the value this timer was scheduled for
+        T getValue() {
+            return value;
+        }
+    }
+
+    private final long tickMillis;          // the length of a tick (ms)
+    private final long startMillis;         // the time (ms) tick 0 started
+    private final Timer<T>[][] slots;       // the sentinel of each slot, by level
+    private long now;                       // the last tick expired
+    private int size;                       // the number of timers scheduled
+
+    // REQUIRES: tickMillis > 0
+    // EFFECTS: constructs empty wheel with ticks of tickMillis, starting at startMillis
+    TimerWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        slots = newSlots();
+        for (Timer<T>[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timer<T> sentinel = new Timer<>(null, 0);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                level[i] = sentinel;
+            }
+        }
+    }
+
+    // EFFECTS: returns LEVELS arrays of SLOTS empty slots
+    @SuppressWarnings({"unchecked", "rawtypes"})    // arrays of a generic type can only be made raw
+    private static <T> Timer<T>[][] newSlots() {
+        return new Timer[LEVELS][SLOTS];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: schedules value to expire at deadlineMillis, or on the next tick if that has passed,
+    //          and returns its timer
+    Timer<T> schedule(T value, long deadlineMillis) {
+        long ticks = Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis);
+        Timer<T> timer = new Timer<>(value, Math.max(ticks, now + 1));
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: unschedules timer and returns true, or returns false if it has already expired or been cancelled
+    boolean cancel(Timer<T> timer) {
+        if (timer.next == null) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the wheel on to nowMillis, and returns the values of the timers that expired on the way,
+    //          earliest first
+    List<T> advance(long nowMillis) {
+        long target = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        List<T> expired = new ArrayList<>();
+        while (now < target) {
+            if (size == 0) {
+                now = target;
+                break;
+            }
+            now++;
+            cascade();
+            Timer<T> sentinel = slots[0][(int) (now & (SLOTS - 1))];
+            for (Timer<T> timer = sentinel.next; timer != sentinel; ) {
+                Timer<T> next = timer.next;
+                unlink(timer);
+                if (timer.deadline <= now) {
+                    size--;
+                    expired.add(timer.value);
+                } else {
+                    place(timer);
+                }
+                timer = next;
+            }
+        }
+        return expired;
+    }
+
+    // EFFECTS: returns the number of timers scheduled
+    int size() {
+        return size;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: empties into the levels below the slot of every level whose lower levels have just gone round,
+    //          highest level first
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((now & ((1L << (level * SLOT_BITS)) - 1)) == 0) {
+                Timer<T> sentinel = slots[level][(int) ((now >>> (level * SLOT_BITS)) & (SLOTS - 1))];
+                for (Timer<T> timer = sentinel.next; timer != sentinel; ) {
+                    Timer<T> next = timer.next;
+                    unlink(timer);
+                    place(timer);
+                    timer = next;
+                }
+            }
+        }
+    }
+
+    // REQUIRES: timer.deadline >= now
+    // MODIFIES: this
+    // EFFECTS: links timer into the slot of the lowest level whose span reaches its deadline; one due
+    //          beyond the span of the wheel goes in the last slot of the last level it reaches
+    private void place(Timer<T> timer) {
+        long tick = timer.deadline;
+        if (tick - now >= SPAN) {
+            tick = now + SPAN - 1;
+        }
+        int level = 0;
+        while (tick - now >= 1L << ((level + 1) * SLOT_BITS)) {
+            level++;
+        }
+        Timer<T> sentinel = slots[level][(int) ((tick >>> (level * SLOT_BITS)) & (SLOTS - 1))];
+        timer.prev = sentinel.prev;
+        timer.next = sentinel;
+        sentinel.prev.next = timer;
+        sentinel.prev = timer;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: unlinks timer from its slot
+    private void unlink(Timer<T> timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+}
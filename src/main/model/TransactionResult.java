@@ -0,0 +1,25 @@
+package model;
+
+import metrics.Rejection;
+
+// The outcome of a stock or a sale (see Store.tryStock() and Store.trySell()): OK, or the reason it was
+// turned down, in which case the store is left unchanged
+public enum TransactionResult {
+    OK(null),
+    NOT_STOCKED(Rejection.NOT_STOCKED),                     // the item sold is not in stock
+    PRICE_UNSET(Rejection.PRICE_UNSET),                     // the price of the item sold is not set
+    INSUFFICIENT_QUANTITY(Rejection.INSUFFICIENT_QUANTITY), // fewer of the item sold are in stock than asked for
+    INSUFFICIENT_ASSET(Rejection.INSUFFICIENT_ASSET);       // the stock costs more than the store's asset
+
+    private final Rejection rejection;      // the rejection counted in the metrics, or null if OK
+
+    // EFFECTS: constructs result counted as given rejection
+    TransactionResult(Rejection rejection) {
+        this.rejection = rejection;
+    }
+
+    // EFFECTS: returns the rejection this result is counted as in the metrics, or null if it is OK
+    Rejection getRejection() {
+        return rejection;
+    }
+}
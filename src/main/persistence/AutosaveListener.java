@@ -0,0 +1,16 @@
+package persistence;
+
+import java.io.IOException;
+
+// Receives the progress of the saves an AutosaveService makes.
+// Listeners are called on the autosave thread, not on the Swing event dispatch thread.
+public interface AutosaveListener {
+    // EFFECTS: called when a save starts
+    void saveStarted();
+
+    // EFFECTS: called when a save has finished, at timeMillis (as System.currentTimeMillis())
+    void saveFinished(long timeMillis);
+
+    // EFFECTS: called when a save has failed with e
+    void saveFailed(IOException e);
+}
@@ -0,0 +1,165 @@
+package persistence;
+
+import model.Item;
+import model.Store;
+import model.StoreListener;
+
+import java.io.IOException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Represents a service that saves a store in the background, by checkpointing the TransactionJournal
+// that keeps it, every given interval and after every given number of transactions.
+// Saves run one at a time on a single worker thread; the store can be changed while one is running,
+// since a checkpoint only holds up changes while it copies the store.
+public class AutosaveService implements StoreListener {
+    private final TransactionJournal journal;
+    private final long intervalMillis;
+    private final int transactionsPerSave;
+    private final ScheduledExecutorService executor;
+    private final AtomicInteger transactions;          // transactions made since the last save started
+    private final CopyOnWriteArrayList<AutosaveListener> listeners;
+    private Store store;                               // the store being saved, or null if stopped
+    private ScheduledFuture<?> periodicSave;
+    private Future<?> queuedSave;                      // the save waiting to start, or null
+    private volatile long lastSaved;                   // when the last save finished, or 0 if none has
+
+    // REQUIRES: intervalMillis > 0; transactionsPerSave >= 0
+    // EFFECTS: constructs service checkpointing journal every intervalMillis if anything has changed,
+    //          and after every transactionsPerSave transactions (never, if transactionsPerSave is 0)
+    public AutosaveService(TransactionJournal journal, long intervalMillis, int transactionsPerSave) {
+        this.journal = journal;
+        this.intervalMillis = intervalMillis;
+        this.transactionsPerSave = transactionsPerSave;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactions = new AtomicInteger();
+        listeners = new CopyOnWriteArrayList<>();
+    }
+
+    // REQUIRES: s is the store journal has recovered
+    // MODIFIES: this, s
+    // EFFECTS: starts saving s in the background
+    public synchronized void start(Store s) {
+        stop();
+        store = s;
+        transactions.set(0);
+        s.addListener(this);
+        periodicSave = executor.scheduleWithFixedDelay(this::saveIfChanged, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops saving the store in the background; a save already running is finished
+    public synchronized void stop() {
+        if (store == null) {
+            return;
+        }
+        store.removeListener(this);
+        periodicSave.cancel(false);
+        if (queuedSave != null) {
+            queuedSave.cancel(false);
+            queuedSave = null;
+        }
+        store = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops saving and shuts the worker thread down, waiting for a running save to finish
+    public void shutdown() {
+        stop();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues a save unless one is already waiting to start, and returns the waiting save
+    public synchronized Future<?> saveNow() {
+        if (queuedSave == null) {
+            queuedSave = executor.submit(this::save);
+        }
+        return queuedSave;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: listener will be told about every save from now on
+    public void addListener(AutosaveListener listener) {
+        listeners.add(listener);
+    }
+
+    // EFFECTS: returns when the last save finished (as System.currentTimeMillis()), or 0 if none has
+    public long getLastSaved() {
+        return lastSaved;
+    }
+
+    @Override
+    public void itemStocked(Item item, int quantity) {
+        transactionMade();
+    }
+
+    @Override
+    public void itemSold(Item item, int quantity) {
+        transactionMade();
+    }
+
+    @Override
+    public void priceChanged(Item item, long priceCents) {
+        transactionMade();
+    }
+
+    @Override
+    public void itemTransferred(Item item, int quantity) {
+        transactionMade();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: counts a transaction, queueing a save if enough have been made since the last one
+    private void transactionMade() {
+        if (transactions.incrementAndGet() == transactionsPerSave) {
+            saveNow();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: saves the store if any transaction has been made since the last save
+    private void saveIfChanged() {
+        if (transactions.get() > 0) {
+            save();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: checkpoints the journal, telling every listener how it went
+    private void save() {
+        synchronized (this) {
+            queuedSave = null;
+        }
+        transactions.set(0);
+        for (AutosaveListener listener : listeners) {
+            listener.saveStarted();
+        }
+        try {
+            journal.checkpoint();
+            lastSaved = System.currentTimeMillis();
+            for (AutosaveListener listener : listeners) {
+                listener.saveFinished(lastSaved);
+            }
+        } catch (IOException e) {
+            for (AutosaveListener listener : listeners) {
+                listener.saveFailed(e);
+            }
+        }
+    }
+}
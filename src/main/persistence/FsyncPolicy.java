@@ -0,0 +1,8 @@
+package persistence;
+
+// How often a TransactionJournal forces what it has written out to the disk
+public enum FsyncPolicy {
+    EVERY_COMMIT,   // after every group commit: nothing acknowledged by sync() is lost on power failure
+    EVERY_SECOND,   // at most once a second: up to a second of transactions may be lost on power failure
+    NEVER           // left to the operating system: survives a crash of the program, not of the machine
+}
@@ -6,7 +6,9 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.stream.Stream;
 
+import metrics.MetricsRegistry;
 import model.Item;
+import model.Money;
 import model.Store;
 import org.json.*;
 
@@ -21,12 +23,16 @@ public class JsonReader {
         this.source = source;
     }
 
-    // EFFECTS: reads workroom from file and returns it;
+    // EFFECTS: reads workroom from file and returns it, recording the read in the program's PersistenceMetrics;
     // throws IOException if an error occurs reading data from file
     public Store read() throws IOException {
+        long started = System.nanoTime();
+        long bytes = Files.size(Paths.get(source));
         String jsonData = readFile(source);
         JSONObject jsonObject = new JSONObject(jsonData);
-        return parseStore(jsonObject);
+        Store s = parseStore(jsonObject);
+        MetricsRegistry.getDefault().getPersistenceMetrics().read(bytes, s.getItemCount(), System.nanoTime() - started);
+        return s;
     }
 
     // EFFECTS: reads source file as string and returns it
@@ -42,16 +48,19 @@ public class JsonReader {
 
     // EFFECTS: parses store from JSON object and returns it
     private Store parseStore(JSONObject jsonObject) {
-        double asset = jsonObject.getDouble("asset");
-        double revenue = jsonObject.getDouble("revenue");
-        double expenditure = jsonObject.getDouble("expenditure");
-        Store s = new Store(asset);
-        s.setRevenue(revenue);
-        s.setExpenditure(expenditure);
+        Store s = new Store(0);
+        s.setAssetCents(getCents(jsonObject, "asset"));
+        s.setRevenueCents(getCents(jsonObject, "revenue"));
+        s.setExpenditureCents(getCents(jsonObject, "expenditure"));
         addItems(s, jsonObject);
         return s;
     }
 
+    // EFFECTS: returns the dollar amount stored under key, converted exactly to cents
+    private long getCents(JSONObject jsonObject, String key) {
+        return Money.fromDollars(jsonObject.getBigDecimal(key));
+    }
+
     // MODIFIES: s
     // EFFECTS: parses items from JSON object and adds them to store
     private void addItems(Store s, JSONObject jsonObject) {
@@ -66,12 +75,12 @@ public class JsonReader {
     // EFFECTS: parses item from JSON object and adds it to store
     private void addItem(Store s, JSONObject jsonObject) {
         String name = jsonObject.getString("name");
-        double cost = jsonObject.getDouble("cost");
-        double price = jsonObject.getDouble("price");
+        long cost = getCents(jsonObject, "cost");
+        long price = getCents(jsonObject, "price");
         int quantity = jsonObject.getInt("quantity");
-        Item item = new Item(name, cost);
-        if (price != 0.0) {
-            item.setPrice(price);
+        Item item = Item.ofCents(name, cost);
+        if (price != 0) {
+            item.setPriceCents(price);
         }
         s.addItemToStore(item, quantity);
     }
@@ -0,0 +1,142 @@
+package persistence;
+
+import metrics.MetricsRegistry;
+import model.Item;
+import model.Store;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Represents a reader that reads store from JSON data stored in file, one token at a time.
+// Unlike JsonReader it never holds the file's text or a JSON tree in memory: each item is
+// built and added to the store as soon as it has been read, so memory use is close to the
+// size of the resulting store however large the file is.
+public class JsonStreamReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final String source;
+
+    // EFFECTS: constructs reader to read from source file
+    public JsonStreamReader(String source) {
+        this.source = source;
+    }
+
+    // EFFECTS: reads store from file and returns it, recording the read in the program's PersistenceMetrics;
+    // throws IOException if an error occurs reading data from file, and
+    // JSONException if the file is not a well-formed store
+    public Store read() throws IOException {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ);
+             Reader in = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            Store s = parseStore(new JsonTokenizer(in));
+            MetricsRegistry.getDefault().getPersistenceMetrics().read(channel.size(), s.getItemCount(),
+                    System.nanoTime() - started);
+            return s;
+        }
+    }
+
+    // EFFECTS: parses store from the JSON object at the tokenizer's position and returns it
+    private Store parseStore(JsonTokenizer tokens) throws IOException {
+        Store s = new Store(0);
+        tokens.expect('{');
+        if (!tokens.consume('}')) {
+            do {
+                parseStoreField(s, tokens.readString(), tokens);
+            } while (tokens.consume(','));
+            tokens.expect('}');
+        }
+        return s;
+    }
+
+    // MODIFIES: s
+    // EFFECTS: parses the value of the store field with given key into s
+    private void parseStoreField(Store s, String key, JsonTokenizer tokens) throws IOException {
+        tokens.expect(':');
+        switch (key) {
+            case "asset":
+                s.setAssetCents(tokens.readCents());
+                break;
+            case "revenue":
+                s.setRevenueCents(tokens.readCents());
+                break;
+            case "expenditure":
+                s.setExpenditureCents(tokens.readCents());
+                break;
+            case "items":
+                addItems(s, tokens);
+                break;
+            default:
+                tokens.skipValue();
+        }
+    }
+
+    // MODIFIES: s
+    // EFFECTS: parses items from the JSON array at the tokenizer's position and adds them to store
+    private void addItems(Store s, JsonTokenizer tokens) throws IOException {
+        tokens.expect('[');
+        if (!tokens.consume(']')) {
+            do {
+                addItem(s, tokens);
+            } while (tokens.consume(','));
+            tokens.expect(']');
+        }
+    }
+
+    // MODIFIES: s
+    // EFFECTS: parses item from the JSON object at the tokenizer's position and adds it to store
+    private void addItem(Store s, JsonTokenizer tokens) throws IOException {
+        ItemFields fields = new ItemFields();
+        tokens.expect('{');
+        if (!tokens.consume('}')) {
+            do {
+                String key = tokens.readString();
+                tokens.expect(':');
+                fields.parse(key, tokens);
+            } while (tokens.consume(','));
+            tokens.expect('}');
+        }
+        s.addItemToStore(fields.toItem(tokens), fields.quantity);
+    }
+
+    // The fields of one item, which may appear in the file in any order
+    private static class ItemFields {
+        private String name;
+        private long cost = -1;
+        private long price;
+        private int quantity;
+
+        // MODIFIES: this
+        // EFFECTS: parses the value of the item field with given key
+        void parse(String key, JsonTokenizer tokens) throws IOException {
+            if (key.equals("name")) {
+                name = tokens.readString();
+            } else if (key.equals("cost")) {
+                cost = tokens.readCents();
+            } else if (key.equals("price")) {
+                price = tokens.readCents();
+            } else if (key.equals("quantity")) {
+                quantity = tokens.readInt();
+            } else {
+                tokens.skipValue();
+            }
+        }
+
+        // EFFECTS: returns the item these fields describe; throws JSONException if name or cost is missing
+        Item toItem(JsonTokenizer tokens) {
+            if (name == null || cost < 0) {
+                throw tokens.error("Item without name or cost");
+            }
+            Item item = Item.ofCents(name, cost);
+            if (price != 0) {
+                item.setPriceCents(price);
+            }
+            return item;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package persistence;
+
+import metrics.MetricsRegistry;
+import model.Store;
+
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Represents a writer that streams the JSON representation of a store to file.
+// Unlike JsonWriter no JSON tree or whole-document string is built: the store and its items
+// emit their fields straight into a buffered channel writer. Output is either indented like
+// JsonWriter's or compact, with no whitespace at all.
+public class JsonStreamWriter {
+    private static final int TAB = 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final String destination;
+    private final boolean compact;
+    private Writer writer;
+    private int depth;                 // the number of objects and arrays currently open
+    private boolean first;             // true if nothing has been written yet in the innermost container
+    private boolean afterName;         // true if a field name has just been written
+    private long writeNanos = -1;      // the time taken to write the store, or -1 if none has been written
+    private long itemsWritten;         // the number of items in the store written
+
+    // EFFECTS: constructs writer to write indented JSON to destination file
+    public JsonStreamWriter(String destination) {
+        this(destination, false);
+    }
+
+    // EFFECTS: constructs writer to write to destination file, without any whitespace if compact
+    public JsonStreamWriter(String destination, boolean compact) {
+        this.destination = destination;
+        this.compact = compact;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens writer; throws FileNotFoundException if destination file cannot
+    // be opened for writing
+    public void open() throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(Paths.get(destination), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        } catch (InvalidPathException e) {
+            throw new FileNotFoundException(e.getMessage());
+        }
+        writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+        depth = 0;
+        first = true;
+        afterName = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes JSON representation of store to file
+    public void write(Store s) throws IOException {
+        long started = System.nanoTime();
+        s.writeJson(this);
+        writeNanos = System.nanoTime() - started;
+        itemsWritten = s.getItemCount();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: flushes and closes writer; if a store has been written, records the write, with the size
+    //          of the file, in the program's PersistenceMetrics
+    public void close() throws IOException {
+        long started = System.nanoTime();
+        writer.close();
+        if (writeNanos >= 0) {
+            MetricsRegistry.getDefault().getPersistenceMetrics().written(Files.size(Paths.get(destination)),
+                    itemsWritten, writeNanos + System.nanoTime() - started);
+            writeNanos = -1;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a JSON object
+    public JsonStreamWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: ends the innermost JSON object
+    public JsonStreamWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a JSON array
+    public JsonStreamWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: ends the innermost JSON array
+    public JsonStreamWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    // REQUIRES: the innermost open container is an object
+    // MODIFIES: this
+    // EFFECTS: writes the name of the next field
+    public JsonStreamWriter name(String name) throws IOException {
+        beforeValue();
+        writeString(name);
+        writer.write(compact ? ":" : ": ");
+        afterName = true;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a string value
+    public JsonStreamWriter value(String value) throws IOException {
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes an integer value
+    public JsonStreamWriter value(long value) throws IOException {
+        beforeValue();
+        writer.write(Long.toString(value));
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes an amount of cents as a number of dollars, without trailing zeros (e.g. 770 as 7.7)
+    public JsonStreamWriter valueCents(long cents) throws IOException {
+        beforeValue();
+        if (cents < 0) {
+            writer.write('-');
+        }
+        long abs = Math.abs(cents);
+        writer.write(Long.toString(abs / 100));
+        int fraction = (int) (abs % 100);
+        if (fraction != 0) {
+            writer.write('.');
+            writer.write('0' + fraction / 10);
+            if (fraction % 10 != 0) {
+                writer.write('0' + fraction % 10);
+            }
+        }
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes c to start a container
+    private JsonStreamWriter open(char c) throws IOException {
+        beforeValue();
+        writer.write(c);
+        depth++;
+        first = true;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes c to end the innermost container
+    private JsonStreamWriter close(char c) throws IOException {
+        depth--;
+        if (!first) {
+            newLine();
+        }
+        writer.write(c);
+        first = false;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the separator and indentation needed before the next name or value
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (!first) {
+                writer.write(',');
+            }
+            newLine();
+        }
+        first = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a new indented line, unless output is compact
+    private void newLine() throws IOException {
+        if (compact) {
+            return;
+        }
+        writer.write('\n');
+        for (int i = 0; i < depth * TAB; i++) {
+            writer.write(' ');
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes s as a quoted JSON string, escaping characters as needed
+    private void writeString(String s) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+}
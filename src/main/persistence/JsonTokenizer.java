@@ -0,0 +1,253 @@
+package persistence;
+
+import model.Money;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Pulls JSON tokens one at a time from a character stream, so a document can be read
+// without holding its text or a DOM in memory. Only the parts of JSON used by store files
+// are given typed readers; anything else can be skipped with skipValue().
+class JsonTokenizer {
+    private static final int EOF = -1;
+    private static final int MAX_PLAIN_DIGITS = 16;    // the most digits of whole dollars read without overflow
+
+    private final Reader in;
+    private final StringBuilder text;     // reused buffer for the current string or number token
+    private int next;                     // the next unread character, or EOF
+    private long position;                // the offset of next in the stream, for error messages
+
+    // EFFECTS: constructs tokenizer reading from in, which should be buffered
+    JsonTokenizer(Reader in) throws IOException {
+        this.in = in;
+        this.text = new StringBuilder();
+        this.next = in.read();
+        this.position = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: skips whitespace and returns the next character without consuming it, or EOF
+    int peek() throws IOException {
+        while (next == ' ' || next == '\n' || next == '\r' || next == '\t') {
+            advance();
+        }
+        return next;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next non-whitespace character; throws JSONException if it is not c
+    void expect(char c) throws IOException {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        advance();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if the next non-whitespace character is c, consumes it and returns true; otherwise returns false
+    boolean consume(char c) throws IOException {
+        if (peek() == c) {
+            advance();
+            return true;
+        }
+        return false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a JSON string and returns its unescaped value
+    String readString() throws IOException {
+        expect('"');
+        text.setLength(0);
+        while (next != '"') {
+            if (next == EOF) {
+                throw error("Unterminated string");
+            }
+            if (next == '\\') {
+                advance();
+                text.append(readEscape());
+            } else {
+                text.append((char) next);
+                advance();
+            }
+        }
+        advance();
+        return text.toString();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a JSON number of dollars and returns it in cents
+    long readCents() throws IOException {
+        readNumberText();
+        long cents = parsePlainCents();
+        if (cents >= 0) {
+            return cents;
+        }
+        try {
+            return Money.parse(text.toString());
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw error("Expected an amount of money but found " + text);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a JSON number and returns it as an int; throws JSONException if it is not one
+    int readInt() throws IOException {
+        readNumberText();
+        try {
+            return Integer.parseInt(text, 0, text.length(), 10);
+        } catch (NumberFormatException e) {
+            throw error("Expected an integer but found " + text);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads and discards the next JSON value of any type
+    void skipValue() throws IOException {
+        int c = peek();
+        if (c == '"') {
+            readString();
+        } else if (c == '{' || c == '[') {
+            skipContainer();
+        } else if (c == '-' || (c >= '0' && c <= '9')) {
+            readNumberText();
+        } else {
+            skipLiteral();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: skips an object or array, including everything nested inside it
+    private void skipContainer() throws IOException {
+        int depth = 0;
+        do {
+            int c = peek();
+            if (c == '"') {
+                readString();
+                continue;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            } else if (c == EOF) {
+                throw error("Unterminated container");
+            }
+            advance();
+        } while (depth > 0);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: skips true, false or null
+    private void skipLiteral() throws IOException {
+        int length = 0;
+        while (next >= 'a' && next <= 'z') {
+            advance();
+            length++;
+        }
+        if (length == 0) {
+            throw error("Unexpected character");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the characters of a number token into text
+    private void readNumberText() throws IOException {
+        peek();
+        text.setLength(0);
+        while (next == '-' || next == '+' || next == '.' || next == 'e' || next == 'E'
+                || (next >= '0' && next <= '9')) {
+            text.append((char) next);
+            advance();
+        }
+        if (text.length() == 0) {
+            throw error("Expected a number");
+        }
+    }
+
+    // EFFECTS: returns the number in text as cents, rounding half-up past two decimals, or -1 if text is
+    //          negative, has an exponent or has more than MAX_PLAIN_DIGITS digits before its decimal point
+    private long parsePlainCents() {
+        int length = text.length();
+        if (length > 17 || text.charAt(0) == '-') {
+            return -1;
+        }
+        long units = 0;
+        int decimals = -1;
+        boolean roundUp = false;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c < '0' || c > '9') {
+                return -1;
+            } else if (decimals < 0 && i >= MAX_PLAIN_DIGITS) {
+                return -1;
+            } else if (decimals < 2) {
+                units = units * 10 + (c - '0');
+                decimals = decimals < 0 ? -1 : decimals + 1;
+            } else if (decimals == 2) {
+                roundUp = c >= '5';
+                decimals++;
+            }
+        }
+        int scale = decimals < 0 ? 0 : Math.min(decimals, 2);
+        for (; scale < 2; scale++) {
+            units *= 10;
+        }
+        return roundUp ? units + 1 : units;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the rest of an escape sequence after its backslash and returns the character it stands for
+    private char readEscape() throws IOException {
+        int c = next;
+        advance();
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                return readUnicodeEscape();
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            default:
+                throw error("Illegal escape");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the four hex digits of a \\u escape and returns the character they encode
+    private char readUnicodeEscape() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(next, 16);
+            if (digit < 0) {
+                throw error("Illegal unicode escape");
+            }
+            value = value * 16 + digit;
+            advance();
+        }
+        return (char) value;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves on to the next character of the stream
+    private void advance() throws IOException {
+        next = in.read();
+        position++;
+    }
+
+    // EFFECTS: returns an exception describing a syntax error at the current position
+    JSONException error(String message) {
+        return new JSONException(message + " at character " + position);
+    }
+}
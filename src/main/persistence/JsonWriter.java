@@ -1,5 +1,6 @@
 package persistence;
 
+import metrics.MetricsRegistry;
 import model.Store;
 import org.json.JSONObject;
 
@@ -12,6 +13,8 @@ public class JsonWriter {
     private static final int TAB = 4;
     private PrintWriter writer;
     private final String destination;
+    private long writeNanos;        // the time taken by write(), or -1 if nothing has been written since opening
+    private long itemsWritten;      // the number of items written
 
     // EFFECTS: constructs writer to write to destination file
     public JsonWriter(String destination) {
@@ -23,19 +26,30 @@ public class JsonWriter {
     // be opened for writing
     public void open() throws FileNotFoundException {
         writer = new PrintWriter(new File(destination));
+        writeNanos = -1;
     }
 
     // MODIFIES: this
     // EFFECTS: writes JSON representation of workroom to file
     public void write(Store s) {
+        long started = System.nanoTime();
         JSONObject json = s.toJson();
         saveToFile(json.toString(TAB));
+        writeNanos = System.nanoTime() - started;
+        itemsWritten = s.getItemCount();
     }
 
     // MODIFIES: this
-    // EFFECTS: closes writer
+    // EFFECTS: closes writer; if a store has been written, records the write, with the size of the file,
+    //          in the program's PersistenceMetrics
     public void close() {
+        long started = System.nanoTime();
         writer.close();
+        if (writeNanos >= 0) {
+            MetricsRegistry.getDefault().getPersistenceMetrics().written(new File(destination).length(),
+                    itemsWritten, writeNanos + System.nanoTime() - started);
+            writeNanos = -1;
+        }
     }
 
     // MODIFIES: this
@@ -0,0 +1,243 @@
+package persistence;
+
+import metrics.MetricsRegistry;
+import model.Item;
+import model.Store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+
+// Represents a store file that is updated in place, so that saving a store rewrites only the items
+// that changed since it was last saved or read, and the header with the store's totals:
+//
+//   header        MAGIC, VERSION, asset, revenue, expenditure (cents), item count, capacity, names end
+//   item records  capacity fixed-width slots, the first item count in use: cost, price (cents),
+//                 quantity, name length, name offset
+//   names         each item's name in UTF-8, appended when the item is first saved
+//
+// Item records are numbered as in Store.getIndexOf(), which never changes once an item is stocked.
+// When the store outgrows the record slots the whole file is rewritten with twice the capacity.
+// All numbers are big-endian. A save is not atomic: a crash while saving may leave some of the
+// changed items written and others not.
+public class PagedStoreFile {
+    static final int MAGIC = 0x53545250;    // "STRP"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 4 + 8;
+    static final int RECORD_SIZE = 8 + 8 + 4 + 4 + 8;
+    static final int MIN_CAPACITY = 64;
+
+    private final Path file;
+    private Store store;                // the store the file holds, or null if it must be rewritten
+    private int itemCount;              // the number of item records in use
+    private int capacity;               // the number of item record slots
+    private long namesEnd;              // the offset just past the last name
+    private int recordsWritten;         // the number of item records written by the last save
+    private long bytesWritten;          // the number of bytes written by the last save
+
+    // EFFECTS: constructs store file kept in file
+    public PagedStoreFile(String file) {
+        this.file = Paths.get(file);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads store from file and returns it, recording the read in the program's PersistenceMetrics;
+    //          a later save() of that store writes only what changed since. Throws IOException if the file
+    //          cannot be read or is not a valid store file
+    public Store read() throws IOException {
+        long started = System.nanoTime();
+        store = null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a paged store file: " + file);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Store s = parseStore(buffer);
+            s.takeDirtyItems();
+            store = s;
+            MetricsRegistry.getDefault().getPersistenceMetrics().read(channel.size(), s.getItemCount(),
+                    System.nanoTime() - started);
+            return s;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Truncated or corrupt paged store file: " + file, e);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the items of s that changed since s was last saved or read to file, with
+    //          the store's totals; if s is not the store in the file, or has outgrown it, writes all of it.
+    //          Changes to s wait until this is done. Records the bytes and item records written in the
+    //          program's PersistenceMetrics. Throws IOException if the file cannot be written
+    public void save(Store s) throws IOException {
+        long started = System.nanoTime();
+        try {
+            s.runExclusively(() -> {
+                try {
+                    write(s);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        MetricsRegistry.getDefault().getPersistenceMetrics().written(bytesWritten, recordsWritten,
+                System.nanoTime() - started);
+    }
+
+    // EFFECTS: returns the number of item records written by the last save
+    public int getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    // REQUIRES: no change to s is in progress
+    // MODIFIES: this
+    // EFFECTS: writes the changed items of s, or all of s, to file
+    private void write(Store s) throws IOException {
+        List<Item> changed = s.takeDirtyItems();
+        boolean rewrite = s != store || s.getItemCount() > capacity;
+        bytesWritten = 0;
+        store = null;
+        if (rewrite) {
+            writeAll(s);
+        } else {
+            writeChanged(s, changed);
+        }
+        store = s;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replaces file with a new one holding every item of s
+    private void writeAll(Store s) throws IOException {
+        List<Item> items = s.getItemsStocked();
+        itemCount = 0;
+        capacity = Math.max(MIN_CAPACITY, 2 * items.size());
+        namesEnd = namesStart();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            for (Item item : items) {
+                writeNewRecord(channel, record, item, itemCount);
+            }
+            writeHeader(channel, s);
+            channel.force(false);
+        }
+        recordsWritten = items.size();
+    }
+
+    // REQUIRES: file holds s as it was when changed were last marked dirty, and s fits in its capacity
+    // MODIFIES: this
+    // EFFECTS: rewrites the records of the changed items of s in place, appending those new to file
+    private void writeChanged(Store s, List<Item> changed) throws IOException {
+        changed.sort(Comparator.comparingInt(s::getIndexOf));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            for (Item item : changed) {
+                int position = s.getIndexOf(item);
+                if (position < itemCount) {
+                    record.clear();
+                    record.putLong(item.getCostCents()).putLong(item.getPriceCents()).putInt(item.getQuantity());
+                    writeFully(channel, record.flip(), recordOffset(position));
+                } else {
+                    writeNewRecord(channel, record, item, position);
+                }
+            }
+            writeHeader(channel, s);
+            channel.force(false);
+        }
+        recordsWritten = changed.size();
+    }
+
+    // REQUIRES: position is itemCount
+    // MODIFIES: this, record
+    // EFFECTS: appends item's name to the names and writes its record at given position
+    private void writeNewRecord(FileChannel channel, ByteBuffer record, Item item, int position)
+            throws IOException {
+        byte[] name = item.getName().getBytes(StandardCharsets.UTF_8);
+        writeFully(channel, ByteBuffer.wrap(name), namesEnd);
+        record.clear();
+        record.putLong(item.getCostCents()).putLong(item.getPriceCents()).putInt(item.getQuantity());
+        record.putInt(name.length).putLong(namesEnd - namesStart());
+        writeFully(channel, record.flip(), recordOffset(position));
+        namesEnd += name.length;
+        itemCount = position + 1;
+    }
+
+    // EFFECTS: writes the file header with the totals of s
+    private void writeHeader(FileChannel channel, Store s) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION);
+        header.putLong(s.getAssetCents()).putLong(s.getRevenueCents()).putLong(s.getExpenditureCents());
+        header.putInt(itemCount).putInt(capacity).putLong(namesEnd);
+        writeFully(channel, header.flip(), 0);
+    }
+
+    // EFFECTS: parses store from the file in buffer and returns it, remembering the file's layout
+    private Store parseStore(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a paged store file: " + file);
+        }
+        Store s = new Store(0);
+        s.setAssetCents(buffer.getLong());
+        s.setRevenueCents(buffer.getLong());
+        s.setExpenditureCents(buffer.getLong());
+        itemCount = buffer.getInt();
+        capacity = buffer.getInt();
+        namesEnd = buffer.getLong();
+        if (itemCount < 0 || capacity < itemCount || namesEnd < namesStart() || namesEnd > buffer.limit()) {
+            throw new IOException("Truncated or corrupt paged store file: " + file);
+        }
+        for (int i = 0; i < itemCount; i++) {
+            addItem(s, buffer);
+        }
+        return s;
+    }
+
+    // MODIFIES: s, buffer
+    // EFFECTS: parses the item record at buffer's position and adds the item to store; throws IOException
+    //          if its name does not lie within the names written
+    private void addItem(Store s, ByteBuffer buffer) throws IOException {
+        long cost = buffer.getLong();
+        long price = buffer.getLong();
+        int quantity = buffer.getInt();
+        int length = buffer.getInt();
+        long offset = buffer.getLong();
+        if (length < 0 || offset < 0 || offset > namesEnd - namesStart() - length) {
+            throw new IOException("Truncated or corrupt paged store file: " + file);
+        }
+        byte[] name = new byte[length];
+        buffer.duplicate().position((int) (namesStart() + offset)).get(name);
+        Item item = Item.ofCents(new String(name, StandardCharsets.UTF_8), cost);
+        if (price != 0) {
+            item.setPriceCents(price);
+        }
+        s.addItemToStore(item, quantity);
+    }
+
+    // EFFECTS: returns the offset of the record at given position
+    private static long recordOffset(int position) {
+        return HEADER_SIZE + (long) RECORD_SIZE * position;
+    }
+
+    // EFFECTS: returns the offset of the first name
+    private long namesStart() {
+        return recordOffset(capacity);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes all of buffer to channel at given offset, counting it in the bytes written
+    private void writeFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        bytesWritten += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+}
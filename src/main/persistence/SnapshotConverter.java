@@ -0,0 +1,41 @@
+package persistence;
+
+import java.io.IOException;
+
+// Converts store files between the JSON format and the binary snapshot format.
+// Run from the command line as:  SnapshotConverter (--to-snapshot | --to-json) <source> <destination>
+public class SnapshotConverter {
+
+    private SnapshotConverter() {
+    }
+
+    // EFFECTS: reads the JSON store file at source and writes it as a snapshot to destination;
+    // throws IOException if either file cannot be read or written
+    public static void jsonToSnapshot(String source, String destination) throws IOException {
+        new SnapshotWriter(destination).write(new JsonStreamReader(source).read());
+    }
+
+    // EFFECTS: reads the snapshot at source and writes it as an indented JSON store file to destination;
+    // throws IOException if either file cannot be read or written
+    public static void snapshotToJson(String source, String destination) throws IOException {
+        JsonStreamWriter writer = new JsonStreamWriter(destination);
+        writer.open();
+        try {
+            writer.write(new SnapshotReader(source).read());
+        } finally {
+            writer.close();
+        }
+    }
+
+    // EFFECTS: converts the file named in args in the direction given by its first argument
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("--to-snapshot")) {
+            jsonToSnapshot(args[1], args[2]);
+        } else if (args.length == 3 && args[0].equals("--to-json")) {
+            snapshotToJson(args[1], args[2]);
+        } else {
+            System.err.println("Usage: SnapshotConverter (--to-snapshot | --to-json) <source> <destination>");
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package persistence;
+
+import metrics.MetricsRegistry;
+import model.Item;
+import model.Store;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Represents a reader that reads a store from a binary snapshot file written by SnapshotWriter.
+// The file is memory-mapped and scanned record by record; nothing but the item names is decoded.
+public class SnapshotReader {
+    private final String source;
+
+    // EFFECTS: constructs reader to read from source file
+    public SnapshotReader(String source) {
+        this.source = source;
+    }
+
+    // EFFECTS: reads store from file and returns it, recording the read in the program's PersistenceMetrics;
+    // throws IOException if an error occurs reading data from file or it is not a valid snapshot
+    public Store read() throws IOException {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+            if (channel.size() < SnapshotWriter.HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a store snapshot: " + source);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Store s = parseStore(buffer);
+            MetricsRegistry.getDefault().getPersistenceMetrics().read(channel.size(), s.getItemCount(),
+                    System.nanoTime() - started);
+            return s;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Truncated or corrupt store snapshot: " + source, e);
+        }
+    }
+
+    // EFFECTS: parses store from the snapshot in buffer and returns it
+    private Store parseStore(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != SnapshotWriter.MAGIC || buffer.getInt() != SnapshotWriter.VERSION) {
+            throw new IOException("Not a store snapshot: " + source);
+        }
+        Store s = new Store(0);
+        s.setAssetCents(buffer.getLong());
+        s.setRevenueCents(buffer.getLong());
+        s.setExpenditureCents(buffer.getLong());
+        int itemCount = buffer.getInt();
+        int tableSize = buffer.getInt();
+        long tableStart = SnapshotWriter.HEADER_SIZE + (long) SnapshotWriter.RECORD_SIZE * itemCount;
+        if (itemCount < 0 || tableSize < 0 || tableStart + tableSize != buffer.limit()) {
+            throw new IOException("Truncated or corrupt store snapshot: " + source);
+        }
+        for (int i = 0; i < itemCount; i++) {
+            addItem(s, buffer, (int) tableStart);
+        }
+        return s;
+    }
+
+    // MODIFIES: s, buffer
+    // EFFECTS: parses the item record at buffer's position and adds the item to store;
+    //          throws IOException if its name is corrupt
+    private void addItem(Store s, ByteBuffer buffer, int tableStart) throws IOException {
+        int nameOffset = buffer.getInt();
+        long cost = buffer.getLong();
+        long price = buffer.getLong();
+        int quantity = buffer.getInt();
+        Item item = Item.ofCents(readName(buffer, tableStart + nameOffset), cost);
+        if (price != 0) {
+            item.setPriceCents(price);
+        }
+        s.addItemToStore(item, quantity);
+    }
+
+    // EFFECTS: returns the name stored in the string table at given position;
+    //          throws IOException if its length runs past the end of the buffer
+    private String readName(ByteBuffer buffer, int position) throws IOException {
+        int length = buffer.getInt(position);
+        if (length < 0 || length > buffer.limit() - position - 4) {
+            throw new IOException("Truncated or corrupt store snapshot: " + source);
+        }
+        byte[] bytes = new byte[length];
+        buffer.duplicate().position(position + 4).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,92 @@
+package persistence;
+
+import metrics.MetricsRegistry;
+import model.Item;
+import model.Store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Represents a writer that writes a store to file in the binary snapshot format:
+//
+//   header        MAGIC, VERSION, asset, revenue, expenditure (cents), item count, string table size
+//   item records  one fixed-width record per item: name offset, cost, price (cents), quantity
+//   string table  each item name as its UTF-8 length followed by its bytes
+//
+// All numbers are big-endian. The file is written through a memory-mapped FileChannel.
+public class SnapshotWriter {
+    static final int MAGIC = 0x53545253;    // "STRS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 4;
+    static final int RECORD_SIZE = 4 + 8 + 8 + 4;
+
+    private final String destination;
+
+    // EFFECTS: constructs writer to write to destination file
+    public SnapshotWriter(String destination) {
+        this.destination = destination;
+    }
+
+    // EFFECTS: writes snapshot of store to file, replacing anything already there, and records the write in
+    // the program's PersistenceMetrics; throws IOException if the file cannot be written or the snapshot
+    // would exceed 2GB
+    public void write(Store s) throws IOException {
+        long started = System.nanoTime();
+        List<Item> items = s.getItemsStocked();
+        byte[][] names = new byte[items.size()][];
+        long tableSize = 0;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = items.get(i).getName().getBytes(StandardCharsets.UTF_8);
+            tableSize += 4 + names[i].length;
+        }
+        long fileSize = HEADER_SIZE + (long) RECORD_SIZE * names.length + tableSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + names.length + " items is too large to map");
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(destination), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            writeHeader(buffer, s, names.length, (int) tableSize);
+            writeItems(buffer, items, names);
+            buffer.force();
+        }
+        MetricsRegistry.getDefault().getPersistenceMetrics().written(fileSize, names.length,
+                System.nanoTime() - started);
+    }
+
+    // MODIFIES: buffer
+    // EFFECTS: writes the snapshot header for store s
+    private void writeHeader(MappedByteBuffer buffer, Store s, int itemCount, int tableSize) {
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(s.getAssetCents());
+        buffer.putLong(s.getRevenueCents());
+        buffer.putLong(s.getExpenditureCents());
+        buffer.putInt(itemCount);
+        buffer.putInt(tableSize);
+    }
+
+    // MODIFIES: buffer
+    // EFFECTS: writes a record for each item, followed by the string table of their names
+    private void writeItems(MappedByteBuffer buffer, List<Item> items, byte[][] names) {
+        ByteBuffer table = buffer.duplicate();
+        table.position(HEADER_SIZE + RECORD_SIZE * names.length);
+        int nameOffset = 0;
+        for (int i = 0; i < names.length; i++) {
+            Item item = items.get(i);
+            buffer.putInt(nameOffset);
+            buffer.putLong(item.getCostCents());
+            buffer.putLong(item.getPriceCents());
+            buffer.putInt(item.getQuantity());
+            table.putInt(names[i].length);
+            table.put(names[i]);
+            nameOffset += 4 + names[i].length;
+        }
+    }
+}
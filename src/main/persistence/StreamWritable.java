@@ -0,0 +1,9 @@
+package persistence;
+
+import java.io.IOException;
+
+public interface StreamWritable {
+    // MODIFIES: writer
+    // EFFECTS: writes this as a JSON value straight to writer
+    void writeJson(JsonStreamWriter writer) throws IOException;
+}
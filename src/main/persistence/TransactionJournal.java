@@ -0,0 +1,490 @@
+package persistence;
+
+import metrics.MetricsRegistry;
+import model.Item;
+import model.Store;
+import model.StoreListener;
+import model.TransactionResult;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+// Represents an append-only journal of every stock, sale, price change and transfer made to a store,
+// together with the JSON snapshot it follows. The store is recovered by loading the snapshot
+// and replaying the journal; a checkpoint writes a new snapshot and empties the journal.
+// A checkpoint holds up changes to the store only while it copies it; the copy is written out
+// while the store carries on, and the changes made meanwhile move on to the new journal.
+//
+// Changes are encoded into an in-memory batch by the thread that makes them, and a background
+// thread writes each batch with a single write (group commit), forcing it to disk as the
+// FsyncPolicy says. The journal starts with the checksum of the snapshot it follows, so a
+// journal left over from before a checkpoint that crashed half-way is recognized and ignored;
+// the new journal is written beside the old one and takes its place only after the new snapshot.
+// The journal is an ordered listener, so the store tells it of changes one at a time, in an order that
+// can be replayed; a record the store turns down on replay means the journal is corrupt.
+public class TransactionJournal implements StoreListener {
+    private static final int MAGIC = 0x5354524A;      // "STRJ"
+    private static final int HEADER_SIZE = 4 + 8;
+    private static final byte STOCK = 'S';
+    private static final byte SELL = 'X';
+    private static final byte PRICE = 'P';
+    private static final byte TRANSFER = 'T';
+    private static final int MAX_NAME_LENGTH = 1 << 16;
+
+    private final Path journalFile;
+    private final Path snapshotFile;
+    private final Path nextJournalFile;                // the journal to follow a checkpoint being taken
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.EVERY_COMMIT;
+    private long commitIntervalMillis = 5;
+    private long checkpointBytes = 64L << 20;
+
+    private final Object pendingLock = new Object();  // guards pending, pendingData and encodedNames
+    private ByteArrayOutputStream pending;             // changes not yet handed to the file
+    private DataOutputStream pendingData;
+    private byte[][] encodedNames = new byte[0][];     // the UTF-8 name of each SKU id journalled, or null
+    private final BitSet pricesJournalled = new BitSet(); // the SKU ids whose price has been journalled
+    private final Object fileLock = new Object();      // guards channel and lastForce
+    private FileChannel channel;
+    private long lastForce;
+    private Store store;
+    private Thread committer;
+    private volatile boolean running;
+    private final Object checkpointLock = new Object(); // held while a checkpoint is taken or the journal closed
+    private Store checkpointCopy;                      // the copy of the store being checkpointed
+    private long checkpointEnd;                        // the journal offset at which it was copied
+
+    // EFFECTS: constructs journal kept in journalFile, following the JSON snapshot in snapshotFile
+    public TransactionJournal(String journalFile, String snapshotFile) {
+        this.journalFile = Paths.get(journalFile);
+        this.snapshotFile = Paths.get(snapshotFile);
+        this.nextJournalFile = Paths.get(journalFile + ".next");
+        newBatch();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets how often written changes are forced to disk
+    public void setFsyncPolicy(FsyncPolicy policy) {
+        fsyncPolicy = policy;
+    }
+
+    // REQUIRES: millis > 0
+    // MODIFIES: this
+    // EFFECTS: sets how long changes are gathered into a batch before it is written
+    public void setCommitInterval(long millis) {
+        commitIntervalMillis = millis;
+    }
+
+    // REQUIRES: bytes > 0
+    // MODIFIES: this
+    // EFFECTS: sets the journal size after which a checkpoint is taken automatically
+    public void setCheckpointSize(long bytes) {
+        checkpointBytes = bytes;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: loads the snapshot (or uses initial if there is none yet), replays the journal on it,
+    //          starts journalling every change made to it from now on, and returns it;
+    //          throws IOException if snapshot or journal cannot be read or the journal cannot be opened
+    public Store recover(Store initial) throws IOException {
+        close();
+        Store s = Files.exists(snapshotFile) ? new JsonStreamReader(snapshotFile.toString()).read() : initial;
+        long snapshotChecksum = checksum(snapshotFile);
+        adoptNextJournal(snapshotChecksum);
+        long end = replay(s, snapshotChecksum);
+        channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (end < HEADER_SIZE) {
+            channel.truncate(0);
+            writeHeader(channel, snapshotChecksum);
+        } else {
+            channel.truncate(end);
+            channel.position(end);
+        }
+        attach(s);
+        return s;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a snapshot of the store and empties the journal of the changes it holds; changes
+    //          to the store wait only while it is copied. Throws IOException if the snapshot or the journal
+    //          cannot be written
+    public void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            if (channel == null) {
+                throw new IOException("Journal is not open: " + journalFile);
+            }
+            writeCheckpoint();
+        }
+    }
+
+    // EFFECTS: writes every change made so far to the journal and forces it to disk
+    public void sync() throws IOException {
+        synchronized (fileLock) {
+            commit();
+            channel.force(false);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes every change made so far, stops journalling and closes the journal file
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        store.removeListener(this);
+        synchronized (pendingLock) {
+            running = false;
+            pendingLock.notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (checkpointLock) {
+            sync();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // EFFECTS: returns the current size of the journal file in bytes
+    public long size() throws IOException {
+        synchronized (fileLock) {
+            return channel.size();
+        }
+    }
+
+    @Override
+    public boolean isOrdered() {
+        return true;
+    }
+
+    @Override
+    public void itemStocked(Item item, int quantity) {
+        synchronized (pendingLock) {
+            append(STOCK, item, quantity);
+            if (item.priceIsSet() && !pricesJournalled.get(item.getSku())) {
+                append(PRICE, item, item.getPriceCents());    // the item may have been priced before it was stocked
+                pricesJournalled.set(item.getSku());
+            }
+        }
+    }
+
+    @Override
+    public void itemSold(Item item, int quantity) {
+        append(SELL, item, quantity);
+    }
+
+    @Override
+    public void priceChanged(Item item, long priceCents) {
+        synchronized (pendingLock) {
+            append(PRICE, item, priceCents);
+            pricesJournalled.set(item.getSku());
+        }
+    }
+
+    @Override
+    public void itemTransferred(Item item, int quantity) {
+        append(TRANSFER, item, quantity);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a record of type for item and value to the current batch
+    private void append(byte type, Item item, long value) {
+        synchronized (pendingLock) {
+            byte[] name = encodedName(item);
+            try {
+                pendingData.writeByte(type);
+                pendingData.writeInt(name.length);
+                pendingData.write(name);
+                pendingData.writeLong(item.getCostCents());
+                pendingData.writeLong(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // REQUIRES: pendingLock is held
+    // MODIFIES: this
+    // EFFECTS: returns item's name in UTF-8, encoding it only the first time its SKU id is journalled
+    private byte[] encodedName(Item item) {
+        int sku = item.getSku();
+        if (sku >= encodedNames.length) {
+            encodedNames = Arrays.copyOf(encodedNames, Math.max(sku + 1, 2 * encodedNames.length));
+        }
+        if (encodedNames[sku] == null) {
+            encodedNames[sku] = item.getName().getBytes(StandardCharsets.UTF_8);
+        }
+        return encodedNames[sku];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts journalling changes to s, with a background thread committing batches
+    private void attach(Store s) {
+        store = s;
+        running = true;
+        committer = new Thread(this::commitLoop, "journal-committer");
+        committer.setDaemon(true);
+        committer.start();
+        s.addListener(this);
+    }
+
+    // EFFECTS: writes a batch every commit interval until closed, checkpointing when the journal grows too big
+    private void commitLoop() {
+        while (running) {
+            try {
+                synchronized (pendingLock) {
+                    if (running) {
+                        pendingLock.wait(commitIntervalMillis);
+                    }
+                }
+                synchronized (fileLock) {
+                    commit();
+                }
+                if (size() > checkpointBytes) {
+                    checkpoint();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Unable to write journal " + journalFile + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // REQUIRES: fileLock is held
+    // MODIFIES: this
+    // EFFECTS: writes the current batch to the journal file, forcing it to disk as the policy says, and
+    //          records the commit in the program's PersistenceMetrics
+    private void commit() throws IOException {
+        long started = System.nanoTime();
+        ByteArrayOutputStream batch;
+        synchronized (pendingLock) {
+            if (pending.size() == 0) {
+                return;
+            }
+            batch = pending;
+            newBatch();
+        }
+        batch.writeTo(Channels.newOutputStream(channel));
+        long now = System.currentTimeMillis();
+        boolean forced = fsyncPolicy == FsyncPolicy.EVERY_COMMIT
+                || (fsyncPolicy == FsyncPolicy.EVERY_SECOND && now - lastForce >= 1000);
+        if (forced) {
+            channel.force(false);
+            lastForce = now;
+        }
+        MetricsRegistry.getDefault().getPersistenceMetrics().committed(batch.size(), forced,
+                System.nanoTime() - started);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a snapshot of the store and replaces the journal with one following it
+    private void writeCheckpoint() throws IOException {
+        try {
+            store.runExclusively(() -> {
+                try {
+                    copyStore();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Path temp = Paths.get(snapshotFile + ".tmp");
+        JsonStreamWriter writer = new JsonStreamWriter(temp.toString());
+        writer.open();
+        try {
+            writer.write(checkpointCopy);
+        } finally {
+            writer.close();
+            checkpointCopy = null;
+        }
+        long snapshotChecksum = checksum(temp);
+        synchronized (fileLock) {
+            commit();
+            writeNextJournal(snapshotChecksum);
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel.close();
+            Files.move(nextJournalFile, journalFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+    }
+
+    // REQUIRES: no change to the store is in progress
+    // MODIFIES: this
+    // EFFECTS: copies the store to be checkpointed and writes out the changes it holds to the journal,
+    //          remembering where they end
+    private void copyStore() throws IOException {
+        checkpointCopy = store.copy();
+        synchronized (fileLock) {
+            commit();
+            checkpointEnd = channel.size();
+        }
+    }
+
+    // REQUIRES: fileLock is held
+    // EFFECTS: writes the next journal: a header for the snapshot with given checksum, followed by
+    //          the changes made after the store was copied
+    private void writeNextJournal(long snapshotChecksum) throws IOException {
+        try (FileChannel next = FileChannel.open(nextJournalFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(next, snapshotChecksum);
+            long end = channel.size();
+            for (long position = checkpointEnd; position < end; ) {
+                position += channel.transferTo(position, end - position, next);
+            }
+            next.force(false);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if a checkpoint crashed after replacing the snapshot, puts the next journal it wrote
+    //          in place of the journal; otherwise deletes any next journal left over
+    private void adoptNextJournal(long snapshotChecksum) throws IOException {
+        if (!Files.exists(nextJournalFile)) {
+            return;
+        }
+        boolean follows;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(nextJournalFile))) {
+            follows = in.readInt() == MAGIC && in.readLong() == snapshotChecksum;
+        } catch (EOFException e) {
+            follows = false;
+        }
+        if (follows) {
+            Files.move(nextJournalFile, journalFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } else {
+            Files.delete(nextJournalFile);
+        }
+    }
+
+    // MODIFIES: target
+    // EFFECTS: writes the journal header at the start of the (empty) journal file target
+    private static void writeHeader(FileChannel target, long snapshotChecksum) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putLong(snapshotChecksum).flip();
+        target.position(0);
+        while (header.hasRemaining()) {
+            target.write(header);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a new, empty batch of changes
+    private void newBatch() {
+        pending = new ByteArrayOutputStream();
+        pendingData = new DataOutputStream(pending);
+    }
+
+    // MODIFIES: s
+    // EFFECTS: applies every complete record in the journal to s, if the journal follows the snapshot
+    //          with given checksum, and returns the offset just past the last complete record
+    //          (or 0 if the journal is missing or does not follow the snapshot)
+    private long replay(Store s, long snapshotChecksum) throws IOException {
+        if (!Files.exists(journalFile)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+            if (in.readInt() != MAGIC || in.readLong() != snapshotChecksum) {
+                return 0;
+            }
+            long end = HEADER_SIZE;
+            while (true) {
+                int length = replayRecord(s, in, end);
+                if (length < 0) {
+                    return end;
+                }
+                end += length;
+            }
+        } catch (EOFException e) {
+            return 0;
+        }
+    }
+
+    // MODIFIES: s
+    // EFFECTS: reads the next record, at given offset, and applies it to s, returning its length in bytes;
+    //          returns -1 if there is no complete record left; throws IOException if s turns it down
+    private int replayRecord(Store s, DataInputStream in, long offset) throws IOException {
+        try {
+            byte type = in.readByte();
+            int nameLength = in.readInt();
+            if (nameLength < 0 || nameLength > MAX_NAME_LENGTH) {
+                return -1;
+            }
+            byte[] name = new byte[nameLength];
+            in.readFully(name);
+            Item item = Item.ofCents(new String(name, StandardCharsets.UTF_8), in.readLong());
+            long value = in.readLong();
+            TransactionResult result = apply(s, type, item, value);
+            if (result == null) {
+                return -1;
+            } else if (result != TransactionResult.OK) {
+                throw new IOException("Corrupt journal " + journalFile + " at offset " + offset + ": " + result);
+            }
+            return 1 + 4 + name.length + 8 + 8;
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+
+    // MODIFIES: s
+    // EFFECTS: applies the change a record of type describes to s and returns OK, or why s turned it down;
+    //          returns null if type is unknown
+    private TransactionResult apply(Store s, byte type, Item item, long value) {
+        if (type == STOCK) {
+            return s.tryStock(item, (int) value);
+        } else if (type == SELL) {
+            return s.trySell(item, (int) value);
+        } else if (type == PRICE) {
+            Item stocked = s.lookup(item);
+            if (stocked == null) {
+                return TransactionResult.NOT_STOCKED;
+            }
+            stocked.setPriceCents(value);
+            return TransactionResult.OK;
+        } else if (type == TRANSFER) {
+            return value > 0 ? s.transferIn(item, (int) value) : s.transferOut(item, (int) -value);
+        } else {
+            return null;
+        }
+    }
+
+    // EFFECTS: returns the CRC-32 checksum of file, or 0 if it does not exist
+    private static long checksum(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+                crc.update(buffer, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,327 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.Item;
+import model.Money;
+import model.SkuRegistry;
+import model.Store;
+import model.TransactionResult;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Serves a store over HTTP on the loopback interface, so point-of-sale terminals on this machine can
+// stock, sell, price and look up items without the GUI. Requests and responses are JSON, in the shapes
+// of Item.toJson() and Store.toJson(); money is in dollars, as in store files:
+//
+//   POST /stock   {"name", "cost", "quantity"}   stocks the item, as Store.tryStock()
+//   POST /sell    {"name", "cost", "quantity"}   sells the item, as Store.trySell()
+//   POST /price   {"name", "cost", "price"}      sets the price of a stocked item
+//   GET  /item?name=...&cost=...                 the stocked item
+//   GET  /totals                                 the store's totals
+//   GET  /store                                  the whole store
+//
+// stock and sell answer {"result": the TransactionResult, "item": the item}, with status 200 if it is
+// OK, 404 if the item is not stocked, or 409 for another rejection. Bad requests get 400 and {"error"}.
+//
+// The HTTP server's one dispatcher thread accepts every connection and admits each request only if fewer
+// than maxInFlight are admitted and not yet answered; otherwise it answers 503 at once with Retry-After,
+// so a store that falls behind sheds load instead of queueing it without bound. Admitted requests run on
+// a virtual thread each where the JVM has them (Java 21 and later), or else on a small pool of platform
+// threads; a request never holds a thread while waiting to be admitted, so thousands of clients cost
+// connections rather than threads.
+public class StoreServer {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 256;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    // The work of one endpoint, given its request
+    private interface Endpoint {
+        // EFFECTS: serves the request of exchange and returns the response to it; throws
+        //          IllegalArgumentException or JSONException if the request is bad
+        Response serve(HttpExchange exchange) throws IOException;
+    }
+
+    // A response to send: a status and a JSON body
+    private static final class Response {
+        final int status;
+        final JSONObject body;
+
+        Response(int status, JSONObject body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private final Store store;
+    private final HttpServer http;
+    private final ExecutorService workers;      // the threads admitted requests run on
+    private final Semaphore admission;          // a permit for each request that may be in flight
+    private final LongAdder shed;               // the requests turned away with 503
+
+    // REQUIRES: maxInFlight > 0
+    // EFFECTS: constructs server of store listening on given port of the loopback interface (0 for any
+    //          free port), with at most maxInFlight requests admitted at once; throws IOException if it
+    //          cannot bind the port
+    public StoreServer(Store store, int port, int maxInFlight) throws IOException {
+        this.store = store;
+        http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        workers = newWorkers(maxInFlight);
+        admission = new Semaphore(maxInFlight);
+        shed = new LongAdder();
+        route("/stock", "POST", this::stock);
+        route("/sell", "POST", this::sell);
+        route("/price", "POST", this::setPrice);
+        route("/item", "GET", this::item);
+        route("/totals", "GET", exchange -> new Response(200, totals()));
+        route("/store", "GET", exchange -> new Response(200, store.toJson()));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts serving requests
+    public void start() {
+        http.start();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops accepting requests, waits up to delaySeconds for those being served, and stops
+    public void stop(int delaySeconds) {
+        http.stop(delaySeconds);
+        workers.shutdown();
+    }
+
+    // EFFECTS: returns the port this server listens on
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    // EFFECTS: returns the number of requests turned away because too many were in flight
+    public long getRequestsShed() {
+        return shed.sum();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: serves requests for path with given method through endpoint, once admitted
+    private void route(String path, String method, Endpoint endpoint) {
+        http.createContext(path, exchange -> {
+            if (!admission.tryAcquire()) {
+                shed.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, error("Too many requests in flight"));
+                return;
+            }
+            try {
+                workers.execute(() -> serve(exchange, method, endpoint));
+            } catch (RuntimeException e) {
+                admission.release();
+                respond(exchange, 503, error("Server is stopping"));
+            }
+        });
+    }
+
+    // EFFECTS: serves admitted exchange through endpoint if it has given method, lets in another request,
+    //          and then sends the response, so that a slow client holds up no other
+    private void serve(HttpExchange exchange, String method, Endpoint endpoint) {
+        Response response;
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                exchange.getResponseHeaders().set("Allow", method);
+                response = new Response(405, error("Use " + method));
+            } else if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                response = new Response(404, error("No such resource"));
+            } else {
+                response = endpoint.serve(exchange);
+            }
+        } catch (IllegalArgumentException | JSONException e) {
+            response = new Response(400, error(e.getMessage()));
+        } catch (IOException | RuntimeException e) {
+            response = new Response(500, error(String.valueOf(e.getMessage())));
+        } finally {
+            admission.release();
+        }
+        try {
+            respond(exchange, response.status, response.body);
+        } catch (IOException e) {
+            // the client has gone; nothing more to tell it
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // MODIFIES: store
+    // EFFECTS: stocks the item and quantity in the request body
+    private Response stock(HttpExchange exchange) throws IOException {
+        JSONObject body = readBody(exchange);
+        Item item = Item.ofCents(name(body), cents(body, "cost"));
+        TransactionResult result = store.tryStock(item, quantity(body));
+        return resultOf(result, store.lookup(item));
+    }
+
+    // MODIFIES: store
+    // EFFECTS: sells the item and quantity in the request body
+    private Response sell(HttpExchange exchange) throws IOException {
+        JSONObject body = readBody(exchange);
+        Item stocked = find(name(body), cents(body, "cost"));
+        int quantity = quantity(body);
+        if (stocked == null) {
+            return resultOf(TransactionResult.NOT_STOCKED, null);
+        }
+        return resultOf(store.trySell(stocked, quantity), stocked);
+    }
+
+    // MODIFIES: store
+    // EFFECTS: sets the price in the request body of the item in it
+    private Response setPrice(HttpExchange exchange) throws IOException {
+        JSONObject body = readBody(exchange);
+        Item stocked = find(name(body), cents(body, "cost"));
+        long price = cents(body, "price");
+        if (stocked == null) {
+            return new Response(404, error("Not stocked"));
+        }
+        stocked.setPriceCents(price);
+        return new Response(200, stocked.toJson());
+    }
+
+    // EFFECTS: returns the item named in the query
+    private Response item(HttpExchange exchange) {
+        Map<String, String> query = query(exchange);
+        String name = query.getOrDefault("name", "");
+        if (name.isEmpty() || !query.containsKey("cost")) {
+            throw new IllegalArgumentException("Expected name and cost");
+        }
+        Item stocked = find(name, Money.parse(query.get("cost")));
+        if (stocked == null) {
+            return new Response(404, error("Not stocked"));
+        }
+        return new Response(200, stocked.toJson());
+    }
+
+    // EFFECTS: returns the store's totals as JSON, in dollars
+    private JSONObject totals() {
+        JSONObject json = new JSONObject();
+        json.put("asset", store.getAsset());
+        json.put("revenue", store.getRevenue());
+        json.put("expenditure", store.getExpenditure());
+        json.put("itemCount", store.getItemCount());
+        json.put("unitsOnHand", store.getUnitsOnHand());
+        json.put("inventoryValue", Money.toDollars(store.getInventoryValueCents()));
+        json.put("retailValue", Money.toDollars(store.getRetailValueCents()));
+        json.put("grossProfit", Money.toDollars(store.getGrossProfitCents()));
+        return json;
+    }
+
+    // EFFECTS: returns the stocked item with given name and cost, or null if there is none; never registers
+    //          a new product
+    private Item find(String name, long costCents) {
+        int sku = SkuRegistry.getDefault().find(name, costCents);
+        return sku < 0 ? null : store.lookup(sku);
+    }
+
+    // EFFECTS: returns the response giving result, and the item if there is one, with the status result calls for
+    private static Response resultOf(TransactionResult result, Item item) {
+        JSONObject json = new JSONObject();
+        json.put("result", result.name());
+        if (item != null) {
+            json.put("item", item.toJson());
+        }
+        int status = result == TransactionResult.OK ? 200 : result == TransactionResult.NOT_STOCKED ? 404 : 409;
+        return new Response(status, json);
+    }
+
+    // EFFECTS: returns the request body of exchange as a JSON object; throws JSONException if it is not one
+    private static JSONObject readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new JSONObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    // EFFECTS: returns the non-empty name in body; throws IllegalArgumentException if there is none
+    private static String name(JSONObject body) {
+        String name = body.optString("name");
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Expected a name");
+        }
+        return name;
+    }
+
+    // EFFECTS: returns the positive dollar amount under key in body in cents; throws JSONException if
+    //          there is none, or IllegalArgumentException if it is not positive
+    private static long cents(JSONObject body, String key) {
+        long cents = Money.fromDollars(body.getBigDecimal(key));
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Expected a positive " + key);
+        }
+        return cents;
+    }
+
+    // EFFECTS: returns the positive quantity in body; throws JSONException if there is none, or
+    //          IllegalArgumentException if it is not positive
+    private static int quantity(JSONObject body) {
+        int quantity = body.getInt("quantity");
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Expected a positive quantity");
+        }
+        return quantity;
+    }
+
+    // EFFECTS: returns the parameters in the query of exchange's URI
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    // EFFECTS: returns a JSON error with given message
+    private static JSONObject error(String message) {
+        return new JSONObject().put("error", message);
+    }
+
+    // EFFECTS: answers exchange with given status and JSON body
+    private static void respond(HttpExchange exchange, int status, JSONObject json) throws IOException {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // EFFECTS: returns an executor starting a virtual thread per task if the JVM has virtual threads,
+    //          otherwise a pool of daemon platform threads, as many as the processors but no more than maxInFlight
+    private static ExecutorService newWorkers(int maxInFlight) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.min(maxInFlight, Runtime.getRuntime().availableProcessors());
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "store-server-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
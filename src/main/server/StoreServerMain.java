@@ -0,0 +1,61 @@
+package server;
+
+import metrics.MetricsRegistry;
+import model.Store;
+import persistence.JsonReader;
+
+import java.io.IOException;
+
+// Runs a StoreServer from the command line until the process is stopped. Each argument is name=value, e.g.
+//
+//   java server.StoreServerMain port=8080 file=./data/store.json maxInFlight=512
+//
+// Recognized names: port (default 8080), file (a JSON store file to serve; otherwise a new store is
+// served), asset (the asset of a new store, default 10000), maxInFlight (default
+// StoreServer.DEFAULT_MAX_IN_FLIGHT). The server listens on the loopback interface only.
+public class StoreServerMain {
+
+    // EFFECTS: serves the store given by args, exporting its metrics through JMX
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        String file = null;
+        double asset = 10000;
+        int maxInFlight = StoreServer.DEFAULT_MAX_IN_FLIGHT;
+        try {
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                String name = equals < 0 ? arg : arg.substring(0, equals);
+                String value = arg.substring(equals + 1);
+                switch (name) {
+                    case "port":
+                        port = Integer.parseInt(value);
+                        break;
+                    case "file":
+                        file = value;
+                        break;
+                    case "asset":
+                        asset = Double.parseDouble(value);
+                        break;
+                    case "maxInFlight":
+                        maxInFlight = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Expected name=value: " + arg);
+                }
+            }
+            if (maxInFlight <= 0) {
+                throw new IllegalArgumentException("maxInFlight must be positive");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        Store store = file != null ? new JsonReader(file).read() : new Store(asset);
+        MetricsRegistry.getDefault().registerMBeans();
+        StoreServer server = new StoreServer(store, port, maxInFlight);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+        server.start();
+        System.out.println("Serving store on http://localhost:" + server.getPort() + "/");
+    }
+}
@@ -0,0 +1,179 @@
+package simulation;
+
+import model.Basket;
+import model.Item;
+import model.Store;
+import model.TransactionResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Represents a simulation of a store under load, run without a user interface: a number of customer
+// threads buy baskets of products, drawn by a Zipf distribution of popularity, while supplier threads
+// restock products at a fixed cadence, all as fast as the store allows or at the arrival rate configured.
+// The simulation ends after its duration, or as soon as every customer has bought its baskets.
+// Each thread keeps its own counts and latency histograms, merged into one report at the end, so measuring
+// adds no contention of its own.
+public class Simulation {
+    private final SimulationConfig config;
+    private final Store store;
+    private final Item[] catalog;               // the stocked item of each product, most popular first
+    private final ZipfDistribution popularity;
+    private volatile boolean running;           // whether customers are still buying
+
+    // EFFECTS: constructs simulation of config, with its store set up and stocked with the catalog
+    public Simulation(SimulationConfig config) {
+        this.config = config;
+        store = config.isColumnar()
+                ? Store.withColumnarInventory(config.getInitialAsset())
+                : new Store(config.getInitialAsset());
+        catalog = new Item[config.getItems()];
+        for (int i = 0; i < catalog.length; i++) {
+            Item item = Item.ofCents("simulated item " + i, config.getCostCents());
+            item.setPriceCents(config.getPriceCents());
+            store.addItemToStore(item, config.getInitialQuantity());
+            catalog[i] = store.lookup(item);
+        }
+        popularity = new ZipfDistribution(catalog.length, config.getZipfExponent());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: runs the simulation to its end and returns its report
+    public SimulationReport run() throws InterruptedException {
+        SplittableRandom seeds = new SplittableRandom(config.getSeed());
+        List<Thread> customers = new ArrayList<>();
+        List<Thread> suppliers = new ArrayList<>();
+        List<SimulationReport> reports = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getDurationMillis());
+        for (int i = 0; i < config.getCustomers(); i++) {
+            SimulationReport report = new SimulationReport();
+            SplittableRandom random = seeds.split();
+            customers.add(worker("customer-" + i, start, () -> buy(random, deadline, report)));
+            reports.add(report);
+        }
+        for (int i = 0; i < config.getSuppliers(); i++) {
+            SimulationReport report = new SimulationReport();
+            SplittableRandom random = seeds.split();
+            suppliers.add(worker("supplier-" + i, start, () -> restock(random, deadline, report)));
+            reports.add(report);
+        }
+        running = true;
+        long started = System.nanoTime();
+        start.countDown();
+        joinAll(customers);
+        running = false;
+        joinAll(suppliers);
+        SimulationReport total = new SimulationReport();
+        total.setElapsedNanos(System.nanoTime() - started);
+        for (SimulationReport report : reports) {
+            total.merge(report);
+        }
+        return total;
+    }
+
+    // EFFECTS: returns the store simulated
+    public Store getStore() {
+        return store;
+    }
+
+    // MODIFIES: this, random, report
+    // EFFECTS: buys baskets until the deadline or the baskets configured are bought, recording each in report
+    private void buy(SplittableRandom random, long deadline, SimulationReport report) {
+        long next = System.nanoTime();
+        for (int baskets = 0; config.getBasketsPerCustomer() == 0 || baskets < config.getBasketsPerCustomer();
+                baskets++) {
+            if (config.getArrivalRate() > 0) {
+                next += (long) (-Math.log(1 - random.nextDouble()) / config.getArrivalRate() * 1e9);
+                if (!waitUntil(next, deadline)) {
+                    return;
+                }
+            } else if (System.nanoTime() >= deadline) {
+                return;
+            }
+            Basket basket = new Basket();
+            int lines = random.nextInt(config.getMinBasketSize(), config.getMaxBasketSize() + 1);
+            for (int line = 0; line < lines; line++) {
+                basket.add(catalog[popularity.sample(random)], random.nextInt(1, config.getMaxUnitsPerLine() + 1));
+            }
+            sell(basket, report);
+        }
+    }
+
+    // MODIFIES: this, report
+    // EFFECTS: sells basket to the store, recording the outcome and its latency in report
+    private void sell(Basket basket, SimulationReport report) {
+        long started = System.nanoTime();
+        TransactionResult result;
+        if (basket.size() == 1) {
+            Item item = basket.getLines().keySet().iterator().next();
+            result = store.trySell(item, basket.getLines().get(item));
+        } else {
+            result = store.trySellAll(basket);
+        }
+        long nanos = System.nanoTime() - started;
+        if (result == TransactionResult.OK) {
+            report.sold(basket.getLines().values().stream().mapToLong(Integer::longValue).sum(), nanos);
+        } else if (result == TransactionResult.INSUFFICIENT_QUANTITY) {
+            report.insufficientQuantity(nanos);
+        } else {
+            report.notForSale(nanos);
+        }
+    }
+
+    // MODIFIES: this, random, report
+    // EFFECTS: restocks products every restock interval until the deadline or customers stop buying,
+    //          recording each stock in report
+    private void restock(SplittableRandom random, long deadline, SimulationReport report) {
+        long interval = TimeUnit.MILLISECONDS.toNanos(config.getRestockIntervalMillis());
+        for (long next = System.nanoTime() + interval; waitUntil(next, deadline); next += interval) {
+            for (int line = 0; line < config.getRestockLines() && running; line++) {
+                Item item = catalog[popularity.sample(random)];
+                long started = System.nanoTime();
+                TransactionResult result = store.tryStock(item, config.getRestockQuantity());
+                report.stocked(result == TransactionResult.OK, System.nanoTime() - started);
+            }
+        }
+    }
+
+    // EFFECTS: waits until time (as System.nanoTime()) and returns true, unless the deadline or the end of
+    //          buying comes first, in which case returns false as soon as it does
+    private boolean waitUntil(long time, long deadline) {
+        while (running) {
+            long now = System.nanoTime();
+            if (now >= deadline) {
+                return false;
+            }
+            if (now >= time) {
+                return true;
+            }
+            LockSupport.parkNanos(Math.min(Math.min(time, deadline) - now, TimeUnit.MILLISECONDS.toNanos(10)));
+        }
+        return false;
+    }
+
+    // EFFECTS: returns a started thread with given name that waits for start, then runs task
+    private static Thread worker(String name, CountDownLatch start, Runnable task) {
+        Thread thread = new Thread(() -> {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            task.run();
+        }, name);
+        thread.start();
+        return thread;
+    }
+
+    // EFFECTS: waits for every thread to finish
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
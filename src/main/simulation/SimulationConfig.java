@@ -0,0 +1,217 @@
+package simulation;
+
+// Represents the workload of a Simulation: the store simulated, its catalog, the customers buying
+// from it and the suppliers restocking it. Every setter returns this config, so they can be chained.
+public class SimulationConfig {
+    private double initialAsset = 1000000;  // the store's asset at the start
+    private boolean columnar = false;       // whether the store keeps its items in a columnar inventory
+    private int items = 1000;               // the number of products in the catalog
+    private long costCents = 500;           // the unit cost (cents) of every product
+    private long priceCents = 800;          // the price (cents) of every product
+    private int initialQuantity = 100;      // the quantity of every product in stock at the start
+    private double zipfExponent = 1;        // the skew of the popularity of products, 0 for none
+    private int customers = 4;              // the number of customer threads
+    private double arrivalRate = 0;         // the baskets each customer buys per second on average, 0 for flat out
+    private int minBasketSize = 1;          // the fewest lines in a basket
+    private int maxBasketSize = 5;          // the most lines in a basket
+    private int maxUnitsPerLine = 3;        // the most units of a product in one line of a basket
+    private int basketsPerCustomer = 0;     // the baskets each customer buys before stopping, 0 for no limit
+    private int suppliers = 1;              // the number of supplier threads
+    private long restockIntervalMillis = 100; // the time between restocks by each supplier
+    private int restockLines = 50;          // the products stocked in each restock
+    private int restockQuantity = 100;      // the units of each product stocked in each restock
+    private long durationMillis = 10000;    // the longest the simulation runs
+    private long seed = 1;                  // the seed of every random choice
+
+    // REQUIRES: initialAsset > 0
+    // MODIFIES: this
+    // EFFECTS: sets the store's asset at the start (dollars) and returns this
+    public SimulationConfig initialAsset(double initialAsset) {
+        this.initialAsset = initialAsset;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets whether the store keeps its items in a columnar inventory and returns this
+    public SimulationConfig columnar(boolean columnar) {
+        this.columnar = columnar;
+        return this;
+    }
+
+    // REQUIRES: items > 0
+    // MODIFIES: this
+    // EFFECTS: sets the number of products in the catalog and returns this
+    public SimulationConfig items(int items) {
+        this.items = items;
+        return this;
+    }
+
+    // REQUIRES: 0 < costCents < priceCents
+    // MODIFIES: this
+    // EFFECTS: sets the unit cost and price (cents) of every product and returns this
+    public SimulationConfig prices(long costCents, long priceCents) {
+        this.costCents = costCents;
+        this.priceCents = priceCents;
+        return this;
+    }
+
+    // REQUIRES: initialQuantity >= 0
+    // MODIFIES: this
+    // EFFECTS: sets the quantity of every product in stock at the start and returns this
+    public SimulationConfig initialQuantity(int initialQuantity) {
+        this.initialQuantity = initialQuantity;
+        return this;
+    }
+
+    // REQUIRES: zipfExponent >= 0
+    // MODIFIES: this
+    // EFFECTS: sets the skew of the popularity of products (see ZipfDistribution) and returns this
+    public SimulationConfig zipfExponent(double zipfExponent) {
+        this.zipfExponent = zipfExponent;
+        return this;
+    }
+
+    // REQUIRES: customers >= 0
+    // MODIFIES: this
+    // EFFECTS: sets the number of customer threads and returns this
+    public SimulationConfig customers(int customers) {
+        this.customers = customers;
+        return this;
+    }
+
+    // REQUIRES: arrivalRate >= 0
+    // MODIFIES: this
+    // EFFECTS: sets the baskets each customer buys per second on average, arriving at random (a Poisson
+    //          process), or 0 for as fast as the store allows; returns this
+    public SimulationConfig arrivalRate(double arrivalRate) {
+        this.arrivalRate = arrivalRate;
+        return this;
+    }
+
+    // REQUIRES: 0 < minBasketSize <= maxBasketSize; maxUnitsPerLine > 0
+    // MODIFIES: this
+    // EFFECTS: sets the fewest and most lines in a basket, and the most units in a line; returns this
+    public SimulationConfig basketSize(int minBasketSize, int maxBasketSize, int maxUnitsPerLine) {
+        this.minBasketSize = minBasketSize;
+        this.maxBasketSize = maxBasketSize;
+        this.maxUnitsPerLine = maxUnitsPerLine;
+        return this;
+    }
+
+    // REQUIRES: basketsPerCustomer >= 0
+    // MODIFIES: this
+    // EFFECTS: sets the baskets each customer buys before stopping, or 0 for no limit; returns this
+    public SimulationConfig basketsPerCustomer(int basketsPerCustomer) {
+        this.basketsPerCustomer = basketsPerCustomer;
+        return this;
+    }
+
+    // REQUIRES: suppliers >= 0
+    // MODIFIES: this
+    // EFFECTS: sets the number of supplier threads and returns this
+    public SimulationConfig suppliers(int suppliers) {
+        this.suppliers = suppliers;
+        return this;
+    }
+
+    // REQUIRES: restockIntervalMillis > 0; restockLines >= 0; restockQuantity > 0
+    // MODIFIES: this
+    // EFFECTS: sets how often each supplier restocks, how many products and how many units of each; returns this
+    public SimulationConfig restock(long restockIntervalMillis, int restockLines, int restockQuantity) {
+        this.restockIntervalMillis = restockIntervalMillis;
+        this.restockLines = restockLines;
+        this.restockQuantity = restockQuantity;
+        return this;
+    }
+
+    // REQUIRES: durationMillis > 0
+    // MODIFIES: this
+    // EFFECTS: sets the longest the simulation runs and returns this
+    public SimulationConfig durationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the seed of every random choice and returns this
+    public SimulationConfig seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public double getInitialAsset() {
+        return initialAsset;
+    }
+
+    public boolean isColumnar() {
+        return columnar;
+    }
+
+    public int getItems() {
+        return items;
+    }
+
+    public long getCostCents() {
+        return costCents;
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public int getInitialQuantity() {
+        return initialQuantity;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public int getCustomers() {
+        return customers;
+    }
+
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    public int getMinBasketSize() {
+        return minBasketSize;
+    }
+
+    public int getMaxBasketSize() {
+        return maxBasketSize;
+    }
+
+    public int getMaxUnitsPerLine() {
+        return maxUnitsPerLine;
+    }
+
+    public int getBasketsPerCustomer() {
+        return basketsPerCustomer;
+    }
+
+    public int getSuppliers() {
+        return suppliers;
+    }
+
+    public long getRestockIntervalMillis() {
+        return restockIntervalMillis;
+    }
+
+    public int getRestockLines() {
+        return restockLines;
+    }
+
+    public int getRestockQuantity() {
+        return restockQuantity;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,113 @@
+package simulation;
+
+import metrics.MetricsRegistry;
+
+// Runs a Simulation from the command line and prints its report. Each argument sets one part of the
+// workload as name=value (see SimulationConfig), e.g.
+//
+//   java simulation.SimulationMain items=100000 customers=16 zipf=1.2 duration=60000
+//
+// Recognized names: asset, columnar, items, cost, price, quantity, zipf, customers, rate, minBasket,
+// maxBasket, maxUnits, baskets, suppliers, restockInterval, restockLines, restockQuantity, duration, seed
+public class SimulationMain {
+
+    // EFFECTS: runs the simulation configured by args, exporting the store's metrics through JMX,
+    //          and prints its report
+    public static void main(String[] args) throws InterruptedException {
+        SimulationConfig config;
+        try {
+            config = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        MetricsRegistry.getDefault().registerMBeans();
+        Simulation simulation = new Simulation(config);
+        System.out.print(simulation.run());
+    }
+
+    // EFFECTS: returns the config set by args; throws IllegalArgumentException if an argument is not
+    //          name=value with a recognized name and a valid value
+    static SimulationConfig parse(String[] args) {
+        SimulationConfig config = new SimulationConfig();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected name=value: " + arg);
+            }
+            try {
+                set(config, arg.substring(0, equals), arg.substring(equals + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number: " + arg);
+            }
+        }
+        return config;
+    }
+
+    // MODIFIES: config
+    // EFFECTS: sets the part of config with given name to value
+    private static void set(SimulationConfig config, String name, String value) {
+        switch (name) {
+            case "asset":
+                config.initialAsset(Double.parseDouble(value));
+                break;
+            case "columnar":
+                config.columnar(Boolean.parseBoolean(value));
+                break;
+            case "items":
+                config.items(Integer.parseInt(value));
+                break;
+            case "cost":
+                config.prices(Long.parseLong(value), config.getPriceCents());
+                break;
+            case "price":
+                config.prices(config.getCostCents(), Long.parseLong(value));
+                break;
+            case "quantity":
+                config.initialQuantity(Integer.parseInt(value));
+                break;
+            case "zipf":
+                config.zipfExponent(Double.parseDouble(value));
+                break;
+            case "customers":
+                config.customers(Integer.parseInt(value));
+                break;
+            case "rate":
+                config.arrivalRate(Double.parseDouble(value));
+                break;
+            case "minBasket":
+                config.basketSize(Integer.parseInt(value), config.getMaxBasketSize(), config.getMaxUnitsPerLine());
+                break;
+            case "maxBasket":
+                config.basketSize(config.getMinBasketSize(), Integer.parseInt(value), config.getMaxUnitsPerLine());
+                break;
+            case "maxUnits":
+                config.basketSize(config.getMinBasketSize(), config.getMaxBasketSize(), Integer.parseInt(value));
+                break;
+            case "baskets":
+                config.basketsPerCustomer(Integer.parseInt(value));
+                break;
+            case "suppliers":
+                config.suppliers(Integer.parseInt(value));
+                break;
+            case "restockInterval":
+                config.restock(Long.parseLong(value), config.getRestockLines(), config.getRestockQuantity());
+                break;
+            case "restockLines":
+                config.restock(config.getRestockIntervalMillis(), Integer.parseInt(value), config.getRestockQuantity());
+                break;
+            case "restockQuantity":
+                config.restock(config.getRestockIntervalMillis(), config.getRestockLines(), Integer.parseInt(value));
+                break;
+            case "duration":
+                config.durationMillis(Long.parseLong(value));
+                break;
+            case "seed":
+                config.seed(Long.parseLong(value));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown setting: " + name);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package simulation;
+
+import metrics.LatencyHistogram;
+
+// Represents the outcome of a Simulation, or of one of its threads while it runs: how many sales and
+// stocks were tried and how each turned out, and how long they took
+public class SimulationReport {
+    private long elapsedNanos;              // the time the simulation ran
+    private long sales;                     // the baskets sold
+    private long unitsSold;                 // the units sold in those baskets
+    private long insufficientQuantity;      // the baskets refused for too few of an item in stock
+    private long notForSale;                // the baskets refused for an item not in stock or with no price
+    private long stocks;                    // the restocks made
+    private long rejectedStocks;            // the restocks refused for lack of asset
+    private final LatencyHistogram sellLatency;
+    private final LatencyHistogram stockLatency;
+
+    // EFFECTS: constructs report of nothing done yet
+    public SimulationReport() {
+        sellLatency = new LatencyHistogram();
+        stockLatency = new LatencyHistogram();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records a basket of given units sold in nanos
+    void sold(long units, long nanos) {
+        sales++;
+        unitsSold += units;
+        sellLatency.record(nanos);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records a basket refused for too few of an item in stock in nanos
+    void insufficientQuantity(long nanos) {
+        insufficientQuantity++;
+        sellLatency.record(nanos);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records a basket refused for an item not in stock or with no price in nanos
+    void notForSale(long nanos) {
+        notForSale++;
+        sellLatency.record(nanos);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records a restock made, if stocked, or refused in nanos
+    void stocked(boolean stocked, long nanos) {
+        if (stocked) {
+            stocks++;
+        } else {
+            rejectedStocks++;
+        }
+        stockLatency.record(nanos);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds everything recorded in other to this
+    void merge(SimulationReport other) {
+        sales += other.sales;
+        unitsSold += other.unitsSold;
+        insufficientQuantity += other.insufficientQuantity;
+        notForSale += other.notForSale;
+        stocks += other.stocks;
+        rejectedStocks += other.rejectedStocks;
+        sellLatency.merge(other.sellLatency);
+        stockLatency.merge(other.stockLatency);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the time the simulation ran
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // EFFECTS: returns the number of sales and stocks tried, whatever their outcome
+    public long getTransactions() {
+        return sellLatency.getCount() + stockLatency.getCount();
+    }
+
+    // EFFECTS: returns the number of sales and stocks tried per second
+    public double getTransactionsPerSecond() {
+        return elapsedNanos == 0 ? 0 : getTransactions() * 1e9 / elapsedNanos;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getSales() {
+        return sales;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+
+    public long getInsufficientQuantity() {
+        return insufficientQuantity;
+    }
+
+    public long getNotForSale() {
+        return notForSale;
+    }
+
+    public long getStocks() {
+        return stocks;
+    }
+
+    public long getRejectedStocks() {
+        return rejectedStocks;
+    }
+
+    public LatencyHistogram getSellLatency() {
+        return sellLatency;
+    }
+
+    public LatencyHistogram getStockLatency() {
+        return stockLatency;
+    }
+
+    // EFFECTS: returns this report as lines of text
+    @Override
+    public String toString() {
+        return String.format("Elapsed: %.3f s%n", elapsedNanos / 1e9)
+                + String.format("Transactions: %d (%.0f per second)%n", getTransactions(), getTransactionsPerSecond())
+                + String.format("Sales: %d baskets, %d units%n", sales, unitsSold)
+                + String.format("Sales refused: %d insufficient quantity, %d not for sale%n",
+                        insufficientQuantity, notForSale)
+                + String.format("Stocks: %d, %d refused for lack of asset%n", stocks, rejectedStocks)
+                + "Sell latency:  " + latencies(sellLatency) + System.lineSeparator()
+                + "Stock latency: " + latencies(stockLatency) + System.lineSeparator();
+    }
+
+    // EFFECTS: returns the percentiles of histogram as text
+    private static String latencies(LatencyHistogram histogram) {
+        return String.format("p50 %s, p90 %s, p99 %s, p99.9 %s, max %s",
+                micros(histogram.getPercentile(50)), micros(histogram.getPercentile(90)),
+                micros(histogram.getPercentile(99)), micros(histogram.getPercentile(99.9)),
+                micros(histogram.getMax()));
+    }
+
+    // EFFECTS: returns nanos as microseconds, as text
+    private static String micros(long nanos) {
+        return String.format("%.1f us", nanos / 1e3);
+    }
+}
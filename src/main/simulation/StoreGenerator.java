@@ -0,0 +1,73 @@
+package simulation;
+
+import model.Item;
+import model.Store;
+import persistence.JsonWriter;
+
+import java.io.FileNotFoundException;
+import java.util.SplittableRandom;
+
+// Generates synthetic stores, the same every time for the same size and seed, for benchmarks and
+// simulations: products named "product-<n>" with costs from $1 to $100, four in five of them priced at
+// a markup of 10% to 100%, each with 0 to 500 units in stock. Run from the command line, it writes one
+// to a JSON store file:
+//
+//   java simulation.StoreGenerator <items> <file> [seed]
+public class StoreGenerator {
+    private static final long INITIAL_ASSET = 1000000000L;   // dollars
+    private static final int MAX_QUANTITY = 500;
+
+    private final long seed;
+
+    // EFFECTS: constructs generator of the stores given by seed
+    public StoreGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    // REQUIRES: n >= 0
+    // EFFECTS: returns n new items, none stocked, each of a different product, with costs and prices set
+    //          and the quantity to stock held as their quantity
+    public Item[] items(int n) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Item[] items = new Item[n];
+        for (int i = 0; i < n; i++) {
+            long cost = random.nextLong(100, 10001);
+            Item item = Item.ofCents("product-" + i, cost);
+            if (random.nextInt(5) != 0) {
+                item.setPriceCents(cost + cost * random.nextLong(10, 101) / 100);
+            }
+            int quantity = random.nextInt(MAX_QUANTITY + 1);
+            if (quantity > 0) {
+                item.increaseQ(quantity);
+            }
+            items[i] = item;
+        }
+        return items;
+    }
+
+    // REQUIRES: n >= 0
+    // EFFECTS: returns a store with an asset of INITIAL_ASSET and the n items given by items(n) in stock,
+    //          kept in a columnar inventory if columnar
+    public Store store(int n, boolean columnar) {
+        Store store = columnar ? Store.withColumnarInventory(INITIAL_ASSET) : new Store(INITIAL_ASSET);
+        for (Item item : items(n)) {
+            store.addItemToStore(item, 0);
+        }
+        store.takeDirtyItems();
+        return store;
+    }
+
+    // EFFECTS: writes the store given by the arguments <items> <file> [seed] to file as JSON
+    public static void main(String[] args) throws FileNotFoundException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: java simulation.StoreGenerator <items> <file> [seed]");
+            System.exit(2);
+        }
+        long seed = args.length == 3 ? Long.parseLong(args[2]) : 1;
+        Store store = new StoreGenerator(seed).store(Integer.parseInt(args[0]), false);
+        JsonWriter writer = new JsonWriter(args[1]);
+        writer.open();
+        writer.write(store);
+        writer.close();
+    }
+}
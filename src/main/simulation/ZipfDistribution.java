@@ -0,0 +1,39 @@
+package simulation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Represents a Zipf distribution over the ranks 0 to n - 1: rank k is drawn with probability proportional
+// to 1 / (k + 1)^exponent, so that with exponent 0 every rank is equally likely and the larger the
+// exponent, the more draws go to the first few ranks. Draws take logarithmic time, by binary search of
+// the cumulative probabilities, and the distribution may be shared by any number of threads.
+public class ZipfDistribution {
+    private final double[] cumulative;  // the probability of drawing each rank or a lower one
+
+    // REQUIRES: n > 0; exponent >= 0
+    // EFFECTS: constructs distribution over n ranks with given exponent
+    public ZipfDistribution(int n, double exponent) {
+        cumulative = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= total;
+        }
+        cumulative[n - 1] = 1;
+    }
+
+    // MODIFIES: random
+    // EFFECTS: returns a rank drawn at random using random
+    public int sample(SplittableRandom random) {
+        int found = Arrays.binarySearch(cumulative, random.nextDouble());
+        return found >= 0 ? found : -found - 1;
+    }
+
+    // EFFECTS: returns the number of ranks
+    public int size() {
+        return cumulative.length;
+    }
+}
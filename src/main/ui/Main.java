@@ -1,11 +1,14 @@
 package ui;
 
+import metrics.MetricsRegistry;
+
 import javax.swing.*;
 
 public class Main {
 
-    // EFFECTS: run the store
+    // EFFECTS: run the store, exporting its metrics through JMX
     public static void main(String[] args) {
+        MetricsRegistry.getDefault().registerMBeans();
         SwingUtilities.invokeLater(StoreGUI::new);
     }
 }
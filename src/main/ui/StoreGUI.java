@@ -8,33 +8,61 @@
 
 package ui;
 
+import model.EventStream;
+import model.EventSubscriber;
 import model.Item;
+import model.Money;
+import model.ReplenishmentEngine;
+import model.RestockPlan;
+import model.SkuRegistry;
 import model.Store;
-import model.exceptions.InsufficientQuantityException;
-import persistence.JsonReader;
-import persistence.JsonWriter;
+import model.StoreEvent;
+import model.TransactionResult;
+import persistence.AutosaveListener;
+import persistence.AutosaveService;
+import persistence.TransactionJournal;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyEvent;
-import java.io.FileNotFoundException;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
-public class StoreGUI {
+public class StoreGUI implements AutosaveListener {
 
     private final JFrame frame = new JFrame("Store");
     private final JLabel label = new JLabel();
     private final JSplitPane splitPane = new JSplitPane();
     private final JList<Item> list = new JList<>();
     private final DefaultListModel<Item> model = new DefaultListModel<>();
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JLabel statusLabel = new JLabel("Not saved yet");
 
-    private final Item printer = new Item("printer", 150);
-    private final Item laptop = new Item("laptop", 200);
-    private final Item tv = new Item("tv", 375);
-    private final Item headphone = new Item("headphone", 30.5);
+    private final int printer = SkuRegistry.getDefault().register("printer", 15000);
+    private final int laptop = SkuRegistry.getDefault().register("laptop", 20000);
+    private final int tv = SkuRegistry.getDefault().register("tv", 37500);
+    private final int headphone = SkuRegistry.getDefault().register("headphone", 3050);
     private Store store = new Store(50000);
+    private ReplenishmentEngine replenisher;
+    private EventStream.Subscription refresher;   // refreshes the items shown as the store changes
 
     private static final String JSON_STORE = "./data/store.json";
+    private static final String JOURNAL = "./data/store.journal";
+    private static final long AUTOSAVE_INTERVAL = 60 * 1000;
+    private static final int TRANSACTIONS_PER_AUTOSAVE = 50;
+    private static final double FORECAST_SMOOTHING = 0.3;
+    private static final double LEAD_TIME_HOURS = 24;
+    private static final double SAFETY_TIME_HOURS = 12;
+    private static final double COVER_TIME_HOURS = 72;
+    private final TransactionJournal journal = new TransactionJournal(JOURNAL, JSON_STORE);
+    private final AutosaveService autosave =
+            new AutosaveService(journal, AUTOSAVE_INTERVAL, TRANSACTIONS_PER_AUTOSAVE);
 
     private ImageIcon tvImg;
     private ImageIcon printerImg;
@@ -58,19 +86,20 @@ public class StoreGUI {
         panel.add(label);
         splitPane.setRightComponent(new JScrollPane(panel));
 
+        autosave.addListener(this);
         frameSetUp();
+        loadStore();
     }
 
     // MODIFIES: this
     // EFFECTS: displays image and info of selected item
     private void showInfo(Item item) {
-        double price = item.getPrice();
-        if (price == 0) {
+        if (!item.priceIsSet()) {
             label.setText("Quantity: " + item.getQuantity() + "            \n"
                     + "Price: --");
         } else {
             label.setText("Quantity: " + item.getQuantity() + "            \n"
-                    + "Price: $" + price);
+                    + "Price: " + Money.format(item.getPriceCents()));
         }
         label.setHorizontalAlignment(JLabel.CENTER);
         label.setVerticalAlignment(JLabel.CENTER);
@@ -83,13 +112,14 @@ public class StoreGUI {
     // MODIFIES: this
     // EFFECTS: displays image of selected item
     private void drawImg(Item item) {
-        if (item.equals(printer)) {
+        int sku = item.getSku();
+        if (sku == printer) {
             label.setIcon(printerImg);
-        } else if (item.equals(headphone)) {
+        } else if (sku == headphone) {
             label.setIcon(headphoneImg);
-        } else if (item.equals(laptop)) {
+        } else if (sku == laptop) {
             label.setIcon(laptopImg);
-        } else if (item.equals(tv)) {
+        } else if (sku == tv) {
             label.setIcon(tvImg);
         }
     }
@@ -114,7 +144,14 @@ public class StoreGUI {
         frame.setContentPane(createContentPane());
 
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                closeJournal();
+            }
+        });
         frame.add(splitPane);
+        frame.add(createStatusBar(), BorderLayout.SOUTH);
         frame.pack();
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
@@ -169,6 +206,10 @@ public class StoreGUI {
         menuItem = new JMenuItem("tv");
         menuItem.addActionListener(e -> stockItem(tv));
         menu.add(menuItem);
+        menu.addSeparator();
+        menuItem = new JMenuItem("Replenish", KeyEvent.VK_R);
+        menuItem.addActionListener(e -> replenish());
+        menu.add(menuItem);
     }
 
     // MODIFIES: this, items
@@ -227,9 +268,13 @@ public class StoreGUI {
         menuItem = new JMenuItem("Store Info");
         menuItem.setMnemonic(KeyEvent.VK_I);
         menuItem.addActionListener(e -> JOptionPane.showMessageDialog(frame,
-                "\nCurrent Asset: " + store.getAsset()
-                        + "\n\n Total Expenditure: $" + store.getExpenditure()
-                        + "\n Total Revenue: $" + store.getRevenue() + "\n\n",
+                "\nCurrent Asset: " + Money.format(store.getAssetCents())
+                        + "\n\n Total Expenditure: " + Money.format(store.getExpenditureCents())
+                        + "\n Total Revenue: " + Money.format(store.getRevenueCents())
+                        + "\n\n Units on Hand: " + store.getUnitsOnHand()
+                        + "\n Inventory Value: " + Money.format(store.getInventoryValueCents())
+                        + "\n Retail Value: " + Money.format(store.getRetailValueCents())
+                        + "\n Gross Profit: " + Money.format(store.getGrossProfitCents()) + "\n\n",
                 "Store Info",
                 JOptionPane.INFORMATION_MESSAGE));
         menu.add(menuItem);
@@ -252,27 +297,53 @@ public class StoreGUI {
         return contentPane;
     }
 
-    // MODIFIES: this, store, item
-    // EFFECTS: stocks q items to store
-    private void stockItem(Item item) {
-        int q = quantityToStock(item.getName(), item.getCost());
+    // EFFECTS: creates status bar showing save progress and when the store was last saved
+    private JPanel createStatusBar() {
+        JPanel statusBar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+        statusBar.add(progressBar);
+        statusBar.add(statusLabel);
+        return statusBar;
+    }
+
+    // MODIFIES: this, store
+    // EFFECTS: stocks q items of product sku to store
+    private void stockItem(int sku) {
+        Item item = Item.ofSku(sku);
+        int q = quantityToStock(item.getName(), item.getCostCents());
         if (q > 0) {
-            if (store.getAsset() >= item.getCost() * q) {
-                store.stock(item, q);
-            } else {
-                errorMsg("Insufficient Asset\n Current asset: $" + store.getAsset());
+            if (store.tryStock(item, q) == TransactionResult.INSUFFICIENT_ASSET) {
+                errorMsg("Insufficient Asset\n Current asset: " + Money.format(store.getAssetCents()));
             }
         } else {
             errorMsg("Invalid input");
         }
-        stockPerformed();
+    }
+
+    // MODIFIES: this, store
+    // EFFECTS: restocks every item running low on its forecast demand, as far as the asset allows
+    private void replenish() {
+        RestockPlan plan = replenisher.replenish();
+        if (plan == null) {
+            errorMsg("Insufficient Asset\n Current asset: " + Money.format(store.getAssetCents()));
+        } else if (plan.isEmpty() && plan.getDeferred() == 0) {
+            JOptionPane.showMessageDialog(frame, "No item needs restocking", "Replenish",
+                    JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(frame,
+                    "Restocked " + plan.getBasket().size() + " item(s) for " + Money.format(plan.getTotalCostCents())
+                            + "\n Left for lack of asset: " + plan.getDeferred(),
+                    "Replenish",
+                    JOptionPane.INFORMATION_MESSAGE);
+        }
     }
 
     // EFFECTS: lets user enter quantity to stock and parses it as integer
-    private int quantityToStock(String name, double cost) {
+    private int quantityToStock(String name, long cost) {
         String s = JOptionPane.showInputDialog(
                 frame,
-                "Each " + name + " costs $" + cost
+                "Each " + name + " costs " + Money.format(cost)
                         + "\n\nEnter quantity to stock:\n",
                 "Stock",
                 JOptionPane.PLAIN_MESSAGE);
@@ -284,9 +355,13 @@ public class StoreGUI {
     }
 
     // MODIFIES: this
-    // EFFECTS: append changes after stock is performed
-    private void stockPerformed() {
-        for (Item item : store.getItemsStocked()) {
+    // EFFECTS: shows the items with given SKU ids that are newly stocked, and the info of the one selected
+    private void itemsChanged(Set<Integer> skus) {
+        for (int sku : skus) {
+            Item item = store.lookup(sku);
+            if (item == null) {
+                continue;
+            }
             if (!model.contains(item)) {
                 model.addElement(item);
             }
@@ -296,23 +371,23 @@ public class StoreGUI {
         }
     }
 
-    // MODIFIES: this, item
-    // EFFECTS: sets item's price
-    private void setPriceOfItem(Item item) {
-        if (store.getItemsStocked().contains(item)) {
+    // MODIFIES: this, store
+    // EFFECTS: sets the price of product sku
+    private void setPriceOfItem(int sku) {
+        Item stocked = store.lookup(sku);
+        if (stocked != null) {
             double price = priceToSet();
             if (price > 0) {
-                item.setPrice(price);
+                stocked.setPrice(price);
             } else {
                 errorMsg("Invalid input");
             }
-            updateInfo();
         } else {
             errorMsg("This item is not in stock");
         }
     }
 
-    // EFFECTS: lets user enter price to set and parses it as double
+    // EFFECTS: lets user enter price to set and parses it as double, or returns -1 if it is not a finite number
     private double priceToSet() {
         String s = JOptionPane.showInputDialog(
                 frame,
@@ -320,33 +395,42 @@ public class StoreGUI {
                 "Set Price",
                 JOptionPane.PLAIN_MESSAGE);
         try {
-            return Double.parseDouble(s);
+            double price = Double.parseDouble(s);
+            return Double.isFinite(price) ? price : -1;
         } catch (NumberFormatException e) {
             return -1;
         }
     }
 
-    // MODIFIES: this, store, item
-    // EFFECTS: sells q items
-    private void sellItem(Item item) {
-        if (store.getItemsStocked().contains(item)) {
-            if (item.priceIsSet()) {
-                int q = quantityToSell();
-                if (q > 0) {
-                    try {
-                        store.sell(item, q);
-                    } catch (InsufficientQuantityException e) {
-                        errorMsg("Insufficient Quantity");
-                    }
-                } else {
-                    errorMsg("Invalid input");
-                }
-                updateInfo();
-            } else {
-                errorMsg("The price of this item is not set");
-            }
-        } else {
+    // MODIFIES: this, store
+    // EFFECTS: sells q items of product sku, asking for q only if the product is in stock and priced
+    private void sellItem(int sku) {
+        Item stocked = store.lookup(sku);
+        if (stocked == null) {
             errorMsg("This item is not in stock");
+            return;
+        }
+        if (!stocked.priceIsSet()) {
+            errorMsg("The price of this item is not set");
+            return;
+        }
+        int q = quantityToSell();
+        if (q <= 0) {
+            errorMsg("Invalid input");
+            return;
+        }
+        switch (store.trySell(stocked, q)) {
+            case NOT_STOCKED:
+                errorMsg("This item is not in stock");
+                break;
+            case PRICE_UNSET:
+                errorMsg("The price of this item is not set");
+                break;
+            case INSUFFICIENT_QUANTITY:
+                errorMsg("Insufficient Quantity");
+                break;
+            default:
+                break;
         }
     }
 
@@ -364,47 +448,123 @@ public class StoreGUI {
         }
     }
 
-    // MODIFIES: this
-    // EFFECTS: update label of select item
-    private void updateInfo() {
-        for (Item item : store.getItemsStocked()) {
-            if (item.equals(list.getSelectedValue())) {
-                showInfo(item);
-            }
-        }
-    }
-
     // EFFECTS: pops up error message s
     private void errorMsg(String msg) {
         JOptionPane.showMessageDialog(frame, msg, "Error", JOptionPane.ERROR_MESSAGE);
     }
 
-    // REQUIRES: model is empty
     // MODIFIES: this, store
-    // EFFECTS: loads store from file
+    // EFFECTS: loads store, in the background, from the last saved file plus every change journalled since;
+    //          then journals every change made to it and saves it in the background from now on
     private void loadStore() {
-        JsonReader jsonReader = new JsonReader(JSON_STORE);
-        try {
-            store = jsonReader.read();
-            for (Item item : store.getItemsStocked()) {
-                if (!model.contains(item)) {
-                    model.addElement(item);
+        setBusy(true, "Loading...");
+        setMenusEnabled(false);
+        new SwingWorker<Store, Void>() {
+            @Override
+            protected Store doInBackground() throws IOException {
+                autosave.stop();
+                return journal.recover(new Store(50000));
+            }
+
+            @Override
+            protected void done() {
+                setMenusEnabled(true);
+                setBusy(false, lastSavedText());
+                try {
+                    showStore(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    errorMsg("Unable to load from file: " + JSON_STORE);
                 }
             }
-        } catch (IOException e) {
-            errorMsg("Unable to load from file: " + JSON_STORE);
+        }.execute();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes s the store shown, refreshed as its events arrive, and starts saving it in the background
+    private void showStore(Store s) {
+        if (refresher != null) {
+            refresher.close();
         }
+        store = s;
+        refresher = store.getEvents().subscribe("gui-refresh", new EventSubscriber() {
+            private Set<Integer> changed = new HashSet<>();    // the items changed in the batch so far
+
+            @Override
+            public void onEvent(StoreEvent event, long sequence, boolean endOfBatch) {
+                if (event.getType() != StoreEvent.Type.SALE_REJECTED) {
+                    changed.add(event.getSku());
+                }
+                if (endOfBatch && !changed.isEmpty()) {
+                    Set<Integer> batch = changed;
+                    changed = new HashSet<>();
+                    SwingUtilities.invokeLater(() -> itemsChanged(batch));
+                }
+            }
+        });
+        replenisher = new ReplenishmentEngine(store, FORECAST_SMOOTHING, LEAD_TIME_HOURS, SAFETY_TIME_HOURS,
+                COVER_TIME_HOURS);
+        model.clear();
+        for (Item item : store.getItemsStocked()) {
+            model.addElement(item);
+        }
+        autosave.start(store);
     }
 
-    // EFFECTS: saves the store to file
+    // EFFECTS: saves the store to file and empties the journal, in the background
     private void saveStore() {
-        JsonWriter jsonWriter = new JsonWriter(JSON_STORE);
+        autosave.saveNow();
+    }
+
+    // EFFECTS: stops saving in the background, writes out the journal's remaining changes and closes it
+    private void closeJournal() {
+        autosave.shutdown();
         try {
-            jsonWriter.open();
-            jsonWriter.write(store);
-            jsonWriter.close();
-        } catch (FileNotFoundException e) {
+            journal.close();
+        } catch (IOException e) {
+            errorMsg("Unable to write journal: " + JOURNAL);
+        }
+    }
+
+    @Override
+    public void saveStarted() {
+        SwingUtilities.invokeLater(() -> setBusy(true, "Saving..."));
+    }
+
+    @Override
+    public void saveFinished(long timeMillis) {
+        SwingUtilities.invokeLater(() -> setBusy(false, lastSavedText()));
+    }
+
+    @Override
+    public void saveFailed(IOException e) {
+        SwingUtilities.invokeLater(() -> {
+            setBusy(false, lastSavedText());
             errorMsg("Unable to save to file: " + JSON_STORE);
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shows or hides the progress bar, and shows status in the status bar
+    private void setBusy(boolean busy, String status) {
+        progressBar.setVisible(busy);
+        statusLabel.setText(status);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: enables or disables every menu
+    private void setMenusEnabled(boolean enabled) {
+        JMenuBar menuBar = frame.getJMenuBar();
+        for (int i = 0; i < menuBar.getMenuCount(); i++) {
+            menuBar.getMenu(i).setEnabled(enabled);
+        }
+    }
+
+    // EFFECTS: returns text telling when the store was last saved
+    private String lastSavedText() {
+        long lastSaved = autosave.getLastSaved();
+        if (lastSaved == 0) {
+            return "Not saved yet";
         }
+        return "Last saved: " + new SimpleDateFormat("HH:mm:ss").format(new Date(lastSaved));
     }
 }
@@ -0,0 +1,50 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentHistogramTest {
+
+    @Test
+    public void testSnapshot() {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        assertEquals(0, histogram.snapshot().getCount());
+        histogram.record(10);
+        histogram.record(20);
+        histogram.record(3000);
+        LatencyHistogram snapshot = histogram.snapshot();
+        assertEquals(3, snapshot.getCount());
+        assertEquals(20, snapshot.getPercentile(50));
+        assertEquals(3000, snapshot.getMax());
+        histogram.record(5);
+        assertEquals(3, snapshot.getCount());
+        assertEquals(4, histogram.snapshot().getCount());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 1; i <= 10000; i++) {
+                    histogram.record(i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencyHistogram snapshot = histogram.snapshot();
+        assertEquals(80000, snapshot.getCount());
+        assertEquals(10000, snapshot.getMax());
+        assertEquals(5000, snapshot.getPercentile(50), 5000 / 32.0);
+    }
+}
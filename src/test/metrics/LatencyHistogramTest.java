@@ -0,0 +1,55 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void testSmallLatenciesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int nanos = 1; nanos <= 50; nanos++) {
+            histogram.record(nanos);
+        }
+        assertEquals(50, histogram.getCount());
+        assertEquals(25, histogram.getPercentile(50));
+        assertEquals(50, histogram.getPercentile(100));
+        assertEquals(1, histogram.getPercentile(0));
+    }
+
+    @Test
+    public void testPercentilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 1000000; nanos++) {
+            histogram.record(nanos * 1000);
+        }
+        assertEquals(500000000, histogram.getPercentile(50), 500000000 / 32.0);
+        assertEquals(990000000, histogram.getPercentile(99), 990000000 / 32.0);
+        assertTrue(histogram.getPercentile(99) >= 990000000);
+        assertEquals(1000000000, histogram.getPercentile(100));
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testMerge() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(10);
+        b.record(20);
+        b.record(5000);
+        a.merge(b);
+        assertEquals(3, a.getCount());
+        assertEquals(5000, a.getMax());
+        assertEquals(20, a.getPercentile(60));
+    }
+}
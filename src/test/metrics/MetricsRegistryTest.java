@@ -0,0 +1,180 @@
+package metrics;
+
+import model.Basket;
+import model.Item;
+import model.Store;
+import model.TransactionResult;
+import model.exceptions.InsufficientQuantityException;
+import org.junit.jupiter.api.Test;
+import persistence.JsonReader;
+import persistence.JsonStreamReader;
+import persistence.JsonStreamWriter;
+import persistence.JsonWriter;
+import persistence.PagedStoreFile;
+import persistence.SnapshotReader;
+import persistence.SnapshotWriter;
+import persistence.TransactionJournal;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The metrics are shared by the whole program, so these tests check how they change
+public class MetricsRegistryTest {
+    private final StoreMetrics metrics = MetricsRegistry.getDefault().getStoreMetrics();
+
+    @Test
+    public void testStoreMetrics() {
+        long stocks = metrics.getStocks();
+        long unitsStocked = metrics.getUnitsStocked();
+        long sales = metrics.getSales();
+        long unitsSold = metrics.getUnitsSold();
+        long[] rejected = rejections();
+        long stockLatencies = metrics.getStockLatency().getCount();
+        long sellLatencies = metrics.getSellLatency().getCount();
+
+        Store store = new Store(10);
+        Item pen = new Item("metrics pen", 1);
+        Item ink = new Item("metrics ink", 2);
+        assertTrue(store.stock(pen, 5));
+        assertTrue(store.stockAll(new Basket().add(ink, 1).add(pen, 1)));
+        assertFalse(store.stock(ink, 100));
+        assertFalse(sell(store, ink, 1));
+        pen.setPrice(1.5);
+        assertTrue(sell(store, pen, 2));
+        assertFalse(sell(store, new Item("metrics pad", 1), 1));
+        assertThrows(InsufficientQuantityException.class, () -> store.sell(pen, 100));
+        ink.setPrice(3);
+        assertThrows(InsufficientQuantityException.class, () -> store.sellAll(new Basket().add(pen, 1).add(ink, 2)));
+        try {
+            assertTrue(store.sellAll(new Basket().add(pen, 1).add(ink, 1)));
+        } catch (InsufficientQuantityException e) {
+            fail();
+        }
+
+        assertEquals(stocks + 2, metrics.getStocks());
+        assertEquals(unitsStocked + 7, metrics.getUnitsStocked());
+        assertEquals(sales + 2, metrics.getSales());
+        assertEquals(unitsSold + 4, metrics.getUnitsSold());
+        long[] now = rejections();
+        assertEquals(rejected[Rejection.INSUFFICIENT_ASSET.ordinal()] + 1, now[Rejection.INSUFFICIENT_ASSET.ordinal()]);
+        assertEquals(rejected[Rejection.NOT_STOCKED.ordinal()] + 1, now[Rejection.NOT_STOCKED.ordinal()]);
+        assertEquals(rejected[Rejection.PRICE_UNSET.ordinal()] + 1, now[Rejection.PRICE_UNSET.ordinal()]);
+        assertEquals(rejected[Rejection.INSUFFICIENT_QUANTITY.ordinal()] + 2,
+                now[Rejection.INSUFFICIENT_QUANTITY.ordinal()]);
+        assertEquals(stockLatencies + 3, metrics.getStockLatency().getCount());
+        assertEquals(sellLatencies + 6, metrics.getSellLatency().getCount());
+    }
+
+    @Test
+    public void testPersistenceMetrics() throws IOException {
+        PersistenceMetrics persistence = MetricsRegistry.getDefault().getPersistenceMetrics();
+        long reads = persistence.getReads();
+        long writes = persistence.getWrites();
+        String file = "./data/testMetrics.json";
+        Store store = new Store(100);
+        store.stock(new Item("metrics cd", 1), 3);
+        store.stock(new Item("metrics dvd", 2), 1);
+        JsonWriter writer = new JsonWriter(file);
+        writer.open();
+        writer.write(store);
+        writer.close();
+        long size = new File(file).length();
+        assertEquals(writes + 1, persistence.getWrites());
+        assertEquals(size, persistence.getLastWrittenBytes());
+        assertEquals(2, persistence.getLastWrittenItems());
+
+        new JsonReader(file).read();
+        assertEquals(reads + 1, persistence.getReads());
+        assertEquals(size, persistence.getLastReadBytes());
+        assertEquals(2, persistence.getLastReadItems());
+        assertTrue(persistence.getReadLatencyMax() > 0);
+    }
+
+    @Test
+    public void testPersistenceMetricsOfEveryFormat() throws IOException {
+        PersistenceMetrics persistence = MetricsRegistry.getDefault().getPersistenceMetrics();
+        Store store = new Store(100);
+        store.stock(new Item("metrics lp", 1), 3);
+
+        long reads = persistence.getReads();
+        long writes = persistence.getWrites();
+        JsonStreamWriter writer = new JsonStreamWriter("./data/testMetrics.json");
+        writer.open();
+        writer.write(store);
+        writer.close();
+        new JsonStreamReader("./data/testMetrics.json").read();
+        new SnapshotWriter("./data/testMetrics.snap").write(store);
+        new SnapshotReader("./data/testMetrics.snap").read();
+        PagedStoreFile paged = new PagedStoreFile("./data/testMetrics.store");
+        paged.save(store);
+        assertTrue(persistence.getLastWrittenBytes() > 0);
+        assertEquals(1, persistence.getLastWrittenItems());
+        paged.read();
+        assertEquals(writes + 3, persistence.getWrites());
+        assertEquals(reads + 3, persistence.getReads());
+
+        long commits = persistence.getJournalCommits();
+        long forces = persistence.getJournalForces();
+        long bytes = persistence.getJournalBytes();
+        Files.deleteIfExists(Paths.get("./data/testMetrics.journal"));
+        TransactionJournal journal = new TransactionJournal("./data/testMetrics.journal", "./data/testMetrics.json");
+        Store recovered = journal.recover(new Store(100));
+        recovered.stock(new Item("metrics lp", 1), 1);
+        journal.sync();
+        journal.close();
+        assertEquals(commits + 1, persistence.getJournalCommits());
+        assertEquals(forces + 1, persistence.getJournalForces());
+        assertTrue(persistence.getJournalBytes() > bytes);
+    }
+
+    @Test
+    public void testTransferRejectionsNotCounted() {
+        long[] rejected = rejections();
+        Store from = new Store(10);
+        Store to = new Store(10);
+        Item pen = new Item("metrics pen", 1);
+        assertTrue(from.stock(pen, 5));
+
+        assertEquals(TransactionResult.NOT_STOCKED, from.transfer(to, new Item("metrics ink", 2), 1));
+        assertEquals(TransactionResult.INSUFFICIENT_QUANTITY, from.transfer(to, pen, 6));
+        assertEquals(TransactionResult.INSUFFICIENT_ASSET, from.transfer(to, pen, 11));
+        assertEquals(TransactionResult.INSUFFICIENT_ASSET, to.transferIn(pen, 11));
+        assertArrayEquals(rejected, rejections());
+    }
+
+    @Test
+    public void testRegisterMBeans() throws Exception {
+        MetricsRegistry.getDefault().registerMBeans();
+        MetricsRegistry.getDefault().registerMBeans();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(MetricsRegistry.DOMAIN + ":type=Store");
+        assertEquals(metrics.getSales(), server.getAttribute(name, "Sales"));
+        assertTrue(server.isRegistered(new ObjectName(MetricsRegistry.DOMAIN + ":type=Persistence")));
+    }
+
+    // EFFECTS: returns the rejections counted so far, by reason
+    private long[] rejections() {
+        long[] counts = new long[Rejection.values().length];
+        for (Rejection reason : Rejection.values()) {
+            counts[reason.ordinal()] = metrics.getRejected(reason);
+        }
+        return counts;
+    }
+
+    // EFFECTS: sells quantity of item in store and returns whether it sold
+    private static boolean sell(Store store, Item item, int quantity) {
+        try {
+            return store.sell(item, quantity);
+        } catch (InsufficientQuantityException e) {
+            fail();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasketTest {
+    Basket basket;
+    Item item1;
+    Item item2;
+
+    @BeforeEach
+    public void setUp() {
+        basket = new Basket();
+        item1 = new Item("pen", 0.45);
+        item2 = new Item("ink", 2);
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(basket.isEmpty());
+        assertEquals(0, basket.size());
+    }
+
+    @Test
+    public void testAdd() {
+        basket.add(item1, 3).add(item2, 1);
+        assertFalse(basket.isEmpty());
+        assertEquals(2, basket.size());
+        assertEquals(3, basket.getLines().get(item1));
+        assertEquals(1, basket.getLines().get(item2));
+    }
+
+    @Test
+    public void testAddSameItemMergesLines() {
+        basket.add(item1, 3).add(new Item("pen", 0.45), 4);
+        assertEquals(1, basket.size());
+        assertEquals(7, basket.getLines().get(item1));
+    }
+}
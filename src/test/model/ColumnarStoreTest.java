@@ -0,0 +1,168 @@
+package model;
+
+import model.exceptions.InsufficientQuantityException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarStoreTest {
+    Store testStore;
+    Item item1;
+    Item item2;
+
+    @BeforeEach
+    public void setUp() {
+        testStore = Store.withColumnarInventory(2468.35);
+        item1 = new Item("covid vaccine", 777);
+        item2 = new Item("covid vaccine", 777);
+        item1.setPrice(5849.89);
+    }
+
+    @Test
+    public void testStockCopiesItemIntoRow() {
+        assertTrue(testStore.stock(item1, 3));
+        assertEquals(137.35, testStore.getAsset());
+        assertEquals(0, item1.getQuantity());
+
+        Item stocked = testStore.lookup(item2);
+        assertNotSame(item1, stocked);
+        assertEquals(item1, stocked);
+        assertEquals(item1.hashCode(), stocked.hashCode());
+        assertEquals("covid vaccine", stocked.getName());
+        assertEquals(3, stocked.getQuantity());
+        assertEquals(5849.89, stocked.getPrice());
+        assertEquals(0, testStore.getIndexOf(item2));
+        assertTrue(testStore.contains(item2));
+        assertFalse(testStore.contains(new Item("covid vaccine", 778)));
+    }
+
+    @Test
+    public void testViewsShareRow() {
+        assertTrue(testStore.stock(item2, 3));
+        Item view1 = testStore.lookup(item1);
+        Item view2 = testStore.getItemsStocked().get(0);
+        view1.setPrice(12.5);
+        assertEquals(12.5, view2.getPrice());
+        view2.increaseQ(2);
+        assertEquals(5, view1.getQuantity());
+        assertFalse(view1.tryDecreaseQ(6));
+        assertTrue(view1.tryDecreaseQ(5));
+        assertEquals(0, view2.getQuantity());
+    }
+
+    @Test
+    public void testSell() {
+        assertTrue(testStore.stock(item1, 3));
+        try {
+            assertTrue(testStore.sell(item2, 2));
+            assertEquals(1, testStore.lookup(item2).getQuantity());
+            assertEquals(5849.89 * 2, testStore.getRevenue());
+            testStore.sell(item2, 2);
+            fail("InsufficientQuantityException expected");
+        } catch (InsufficientQuantityException e) {
+            assertEquals(1, testStore.lookup(item2).getQuantity());
+        }
+    }
+
+    @Test
+    public void testReserveHoldsUnitsInRow() {
+        assertTrue(testStore.stock(item1, 3));
+        Reservation held = testStore.reserve(item2, 2, 60_000);
+        assertTrue(held.isHeld());
+        assertEquals(2, testStore.lookup(item2).getReservedQuantity());
+        assertEquals(1, testStore.lookup(item1).getAvailableQuantity());
+        assertEquals(TransactionResult.INSUFFICIENT_QUANTITY, testStore.trySell(item2, 2));
+        assertTrue(testStore.commit(held));
+        assertEquals(1, testStore.lookup(item2).getQuantity());
+        assertEquals(0, testStore.lookup(item2).getReservedQuantity());
+        assertEquals(5849.89 * 2, testStore.getRevenue());
+    }
+
+    @Test
+    public void testManyItems() {
+        Store s = Store.withColumnarInventory(10000000);
+        int n = 10000;
+        for (int i = 0; i < n; i++) {
+            assertTrue(s.stock(new Item("item" + i, 1 + i % 7), 1 + i % 13));
+        }
+        assertEquals(n, s.getItemCount());
+        List<Item> items = s.getItemsStocked();
+        long value = 0;
+        for (int i = 0; i < n; i++) {
+            Item item = items.get(i);
+            assertEquals("item" + i, item.getName());
+            assertEquals(1 + i % 13, item.getQuantity());
+            assertEquals(i, s.getIndexOf(new Item("item" + i, 1 + i % 7)));
+            value += item.getCostCents() * item.getQuantity();
+        }
+        assertEquals(value, s.getInventoryValueCents());
+        assertEquals(s.getExpenditureCents(), s.getInventoryValueCents());
+        List<Item> low = s.getLowStockItems(1);
+        assertEquals((n + 12) / 13, low.size());
+        assertTrue(low.contains(new Item("item13", 7)));
+        assertFalse(low.contains(new Item("item14", 1)));
+    }
+
+    @Test
+    public void testLongName() {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            name.append((char) ('a' + i % 26));
+        }
+        assertTrue(testStore.stock(new Item("pen", 1), 1));
+        assertTrue(testStore.stock(new Item(name.toString(), 1), 1));
+        assertTrue(testStore.stock(new Item("ink", 1), 1));
+        assertEquals(name.toString(), testStore.getItemsStocked().get(1).getName());
+        assertEquals(2, testStore.getIndexOf(new Item("ink", 1)));
+    }
+
+    @Test
+    public void testCopyKeepsColumnarInventory() {
+        assertTrue(testStore.stock(item1, 3));
+        Store copy = testStore.copy();
+        assertEquals(0, copy.takeDirtyItems().size());
+        assertNotSame(item1, copy.lookup(item1));
+        assertEquals(3, copy.lookup(item1).getQuantity());
+        copy.lookup(item1).decreaseQ(1);
+        assertEquals(3, testStore.lookup(item1).getQuantity());
+        assertEquals(List.of(item1), copy.takeDirtyItems());
+    }
+
+    @Test
+    public void testConcurrentStockAndSell() throws InterruptedException {
+        Store s = Store.withColumnarInventory(100000);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    Item item = new Item("item" + i % 50, 1);
+                    item.setPrice(2);
+                    assertTrue(s.stock(item, 2));
+                    try {
+                        assertTrue(s.sell(item, 1));
+                    } catch (InsufficientQuantityException e) {
+                        fail();
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(50, s.getItemCount());
+        int total = 0;
+        for (Item item : s.getItemsStocked()) {
+            total += item.getQuantity();
+        }
+        assertEquals(8 * 500, total);
+        assertEquals(100000 - 8 * 500 * 2 + 8 * 500 * 2, s.getAsset());
+        StoreTest.checkTotalsMatchItems(s);
+    }
+}
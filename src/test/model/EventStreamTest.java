@@ -0,0 +1,134 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventStreamTest {
+
+    // A subscriber that records what it is given
+    static class Recorder implements EventSubscriber {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final List<Long> sequences = Collections.synchronizedList(new ArrayList<>());
+        volatile int batches;
+
+        @Override
+        public void onEvent(StoreEvent event, long sequence, boolean endOfBatch) {
+            events.add(event.getType() + " " + event.getSku() + " " + event.getQuantity() + " " + event.getCents());
+            sequences.add(sequence);
+            if (endOfBatch) {
+                batches++;
+            }
+        }
+    }
+
+    @Test
+    public void testPublishWithoutSubscribersDoesNothing() {
+        EventStream stream = new EventStream(4);
+        for (int i = 0; i < 10; i++) {
+            stream.publish(StoreEvent.Type.ITEM_SOLD, i, 1, 100, TransactionResult.OK);
+        }
+        assertEquals(0, stream.getPublished());
+    }
+
+    @Test
+    public void testDeliversInOrder() {
+        EventStream stream = new EventStream(16);
+        Recorder recorder = new Recorder();
+        EventStream.Subscription subscription = stream.subscribe("recorder", recorder);
+        for (int i = 0; i < 5; i++) {
+            stream.publish(StoreEvent.Type.ITEM_STOCKED, i, i + 1, 10L * i, TransactionResult.OK);
+        }
+        subscription.close();
+
+        assertEquals(5, stream.getPublished());
+        assertEquals(4, subscription.getSequence());
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L), recorder.sequences);
+        assertEquals("ITEM_STOCKED 0 1 0", recorder.events.get(0));
+        assertEquals("ITEM_STOCKED 4 5 40", recorder.events.get(4));
+        assertTrue(recorder.batches >= 1 && recorder.batches <= 5);
+    }
+
+    @Test
+    public void testSlowSubscriberHoldsUpPublishers() throws InterruptedException {
+        EventStream stream = new EventStream(8);
+        Recorder fast = new Recorder();
+        Recorder slow = new Recorder() {
+            @Override
+            public void onEvent(StoreEvent event, long sequence, boolean endOfBatch) {
+                super.onEvent(event, sequence, endOfBatch);
+                if (sequence % 50 == 0) {
+                    Thread.yield();
+                }
+            }
+        };
+        EventStream.Subscription first = stream.subscribe("fast", fast);
+        EventStream.Subscription second = stream.subscribe("slow", slow);
+        StoreTest.runConcurrently(4, () -> {
+            for (int i = 0; i < 1000; i++) {
+                stream.publish(StoreEvent.Type.ITEM_SOLD, i, 1, i, TransactionResult.OK);
+            }
+        });
+        stream.close();
+
+        assertEquals(4000, stream.getPublished());
+        assertEquals(3999, first.getSequence());
+        assertEquals(3999, second.getSequence());
+        for (Recorder recorder : List.of(fast, slow)) {
+            assertEquals(4000, recorder.sequences.size());
+            for (int i = 0; i < 4000; i++) {
+                assertEquals(i, recorder.sequences.get(i));
+            }
+        }
+        assertEquals(fast.events, slow.events);
+    }
+
+    @Test
+    public void testSubscriberFailuresAreSkipped() {
+        EventStream stream = new EventStream(16);
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        EventStream.Subscription subscription = stream.subscribe("failing", (event, sequence, endOfBatch) -> {
+            if (event.getSku() % 2 == 0) {
+                throw new IllegalStateException();
+            }
+            seen.add(event.getSku());
+        });
+        for (int i = 0; i < 6; i++) {
+            stream.publish(StoreEvent.Type.PRICE_CHANGED, i, 0, 100, TransactionResult.OK);
+        }
+        subscription.close();
+
+        assertEquals(3, subscription.getFailures());
+        assertEquals(List.of(1, 3, 5), seen);
+    }
+
+    @Test
+    public void testClosedSubscriptionNoLongerHoldsUpPublishers() {
+        EventStream stream = new EventStream(4);
+        Recorder recorder = new Recorder();
+        stream.subscribe("recorder", recorder).close();
+        for (int i = 0; i < 100; i++) {
+            stream.publish(StoreEvent.Type.ITEM_SOLD, i, 1, 1, TransactionResult.OK);
+        }
+        assertEquals(0, recorder.events.size());
+    }
+
+    @Test
+    public void testSubscriberSeesOnlyLaterEvents() {
+        EventStream stream = new EventStream(16);
+        Recorder early = new Recorder();
+        Recorder late = new Recorder();
+        stream.subscribe("early", early);
+        stream.publish(StoreEvent.Type.ITEM_SOLD, 1, 1, 1, TransactionResult.OK);
+        stream.subscribe("late", late);
+        stream.publish(StoreEvent.Type.ITEM_SOLD, 2, 1, 1, TransactionResult.OK);
+        stream.close();
+
+        assertEquals(List.of(0L, 1L), early.sequences);
+        assertEquals(List.of(1L), late.sequences);
+    }
+}
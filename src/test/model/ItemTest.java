@@ -29,6 +29,15 @@ public class ItemTest {
         assertTrue(item1.priceIsSet());
     }
 
+    @Test
+    public void testTryDecreaseQ() {
+        item1.increaseQ(5);
+        assertFalse(item1.tryDecreaseQ(6));
+        assertEquals(5, item1.getQuantity());
+        assertTrue(item1.tryDecreaseQ(5));
+        assertEquals(0, item1.getQuantity());
+    }
+
     @Test
     public void testGetName() {
         assertEquals("wand", item1.getName());
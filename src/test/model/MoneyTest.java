@@ -0,0 +1,56 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    @Test
+    public void testFromDollars() {
+        assertEquals(1235, Money.fromDollars(12.35));
+        assertEquals(3, Money.fromDollars(0.1 + 0.2 - 0.27));
+        assertEquals(-50, Money.fromDollars(-0.5));
+        assertEquals(1000, Money.fromDollars(new BigDecimal("9.995")));
+        assertEquals(101, Money.fromDollars(1.005));
+        assertEquals(268, Money.fromDollars(2.675));
+    }
+
+    @Test
+    public void testFromDollarsAgreesWithParse() {
+        for (String text : new String[] {"1.005", "2.675", "0.015", "39.895", "-1.005", "12.35"}) {
+            assertEquals(Money.parse(text), Money.fromDollars(Double.parseDouble(text)), text);
+        }
+        assertEquals(new Item("money pen", 1.005), Item.ofCents("money pen", Money.parse("1.005")));
+    }
+
+    @Test
+    public void testParse() {
+        assertEquals(9985510, Money.parse("99855.1"));
+        assertEquals(770, Money.parse("7.7"));
+        assertEquals(3000, Money.parse("30"));
+        assertEquals(1000000000, Money.parse("1.0E7"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("abc"));
+    }
+
+    @Test
+    public void testToDollars() {
+        assertEquals(137.35, Money.toDollars(13735));
+        assertEquals(0.0, Money.toDollars(0));
+    }
+
+    @Test
+    public void testTimes() {
+        assertEquals(5390, Money.times(770, 7));
+        assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE, 2));
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("$12.50", Money.format(1250));
+        assertEquals("$0.05", Money.format(5));
+        assertEquals("-$3.00", Money.format(-300));
+    }
+}
@@ -0,0 +1,181 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderEngineTest {
+    Store store;
+    OrderEngine engine;
+    Item pen;
+    Item ink;
+
+    @BeforeEach
+    public void setUp() {
+        store = new Store(100);
+        engine = new OrderEngine(store, 4, 16, 1024);
+        pen = new Item("pen", 0.45);
+        pen.setPrice(1.25);
+        ink = new Item("ink", 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Test
+    public void testResults() {
+        assertEquals(TransactionResult.NOT_STOCKED, engine.sell(pen, 1).join());
+        assertEquals(TransactionResult.OK, engine.stock(pen, 10).join());
+        assertEquals(TransactionResult.OK, engine.stock(ink, 3).join());
+        assertEquals(TransactionResult.PRICE_UNSET, engine.sell(ink, 1).join());
+        assertEquals(TransactionResult.INSUFFICIENT_QUANTITY, engine.sell(pen, 11).join());
+        assertEquals(TransactionResult.OK, engine.sell(pen, 4).join());
+        assertEquals(TransactionResult.INSUFFICIENT_ASSET, engine.stock(ink, 1000).join());
+
+        assertEquals(6, store.lookup(pen).getQuantity());
+        assertEquals(3, store.lookup(ink).getQuantity());
+        assertEquals(450 + 600, store.getExpenditureCents());
+        assertEquals(500, store.getRevenueCents());
+        assertEquals(10000 - 1050 + 500, store.getAssetCents());
+    }
+
+    @Test
+    public void testOrdersForAnItemApplyInOrder() {
+        CompletableFuture<TransactionResult> stocked = engine.stock(pen, 2);
+        CompletableFuture<TransactionResult> first = engine.sell(pen, 2);
+        CompletableFuture<TransactionResult> second = engine.sell(pen, 1);
+        assertEquals(TransactionResult.OK, stocked.join());
+        assertEquals(TransactionResult.OK, first.join());
+        assertEquals(TransactionResult.INSUFFICIENT_QUANTITY, second.join());
+    }
+
+    @Test
+    public void testMalformedOrder() {
+        CompletionException e = assertThrows(CompletionException.class, () -> engine.sell(pen, 0).join());
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void testPartitions() {
+        assertEquals(4, engine.getPartitionCount());
+        assertEquals(engine.partitionOf(pen), engine.partitionOf(new Item("pen", 0.45)));
+        assertTrue(engine.partitionOf(ink) >= 0 && engine.partitionOf(ink) < 4);
+    }
+
+    @Test
+    public void testConcurrentSales() throws InterruptedException {
+        Store store = new Store(100000);
+        OrderEngine engine = new OrderEngine(store, 3, 32, 256);
+        Item[] items = new Item[10];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Item("item " + i, 1);
+            items[i].setPrice(2);
+            assertTrue(store.stock(items[i], 300));
+        }
+        AtomicInteger sold = new AtomicInteger();
+        StoreTest.runConcurrently(4, () -> {
+            List<CompletableFuture<TransactionResult>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                results.add(engine.sell(items[i % items.length], 1));
+            }
+            for (CompletableFuture<TransactionResult> result : results) {
+                if (result.join() == TransactionResult.OK) {
+                    sold.incrementAndGet();
+                }
+            }
+        });
+        engine.close();
+
+        assertEquals(3000, sold.get());
+        assertEquals(4000, engine.getAppliedCount());
+        assertTrue(engine.getBatchCount() <= 4000);
+        assertEquals(0, store.getUnitsOnHand());
+        assertEquals(2 * 3000 * 100, store.getRevenueCents());
+        assertEquals(10000000 - 3000 * 100 + 2 * 3000 * 100, store.getAssetCents());
+        StoreTest.checkTotalsMatchItems(store);
+    }
+
+    @Test
+    public void testSalesPayForLaterStocksInABatch() {
+        Store store = new Store(2);
+        assertTrue(store.stock(new Item("pen", 0.05), 2));
+        Item sold = store.lookup(new Item("pen", 0.05));
+        sold.setPrice(0.5);
+        Order sale = new Order(true, sold, 1);
+        Order restock = new Order(false, ink, 1);
+        Order tooMuch = new Order(false, ink, 1);
+        store.applyOrders(List.of(sale, restock, tooMuch));
+
+        assertEquals(TransactionResult.OK, sale.getResult());
+        assertEquals(TransactionResult.OK, restock.getResult());
+        assertEquals(TransactionResult.INSUFFICIENT_ASSET, tooMuch.getResult());
+        assertEquals(200 - 10 + 50 - 200, store.getAssetCents());
+        assertEquals(50, store.getRevenueCents());
+        assertEquals(10 + 200, store.getExpenditureCents());
+    }
+
+    @Test
+    public void testListenerThrowingMidBatch() {
+        Store store = new Store(2);
+        assertTrue(store.stock(new Item("pen", 0.05), 3));
+        Item sold = store.lookup(new Item("pen", 0.05));
+        sold.setPrice(0.5);
+        AtomicInteger sales = new AtomicInteger();
+        store.addListener(new StoreListener() {
+            @Override
+            public void itemStocked(Item item, int quantity) {
+            }
+
+            @Override
+            public void itemSold(Item item, int quantity) {
+                if (sales.incrementAndGet() == 2) {
+                    throw new IllegalStateException("listener failed");
+                }
+            }
+
+            @Override
+            public void priceChanged(Item item, long priceCents) {
+            }
+
+            @Override
+            public void itemTransferred(Item item, int quantity) {
+            }
+        });
+        Order first = new Order(true, sold, 1);
+        Order failing = new Order(true, sold, 1);
+        Order restock = new Order(false, ink, 1);
+        Order last = new Order(true, sold, 1);
+        assertThrows(IllegalStateException.class, () -> store.applyOrders(List.of(first, failing, restock, last)));
+
+        assertEquals(TransactionResult.OK, first.getResult());
+        assertEquals(TransactionResult.OK, failing.getResult());
+        assertNull(restock.getResult());
+        assertNull(last.getResult());
+        assertEquals(1, sold.getQuantity());
+        assertEquals(100, store.getRevenueCents());
+        assertEquals(200 - 15 + 100, store.getAssetCents());
+        assertEquals(TransactionResult.OK, store.tryStock(new Item("ink", 2.8), 1));
+        assertEquals(5, store.getAssetCents());
+        StoreTest.checkTotalsMatchItems(store);
+    }
+
+    @Test
+    public void testClose() {
+        CompletableFuture<TransactionResult> before = engine.stock(pen, 1);
+        engine.close();
+        assertEquals(TransactionResult.OK, before.join());
+        CompletionException e = assertThrows(CompletionException.class, () -> engine.sell(pen, 1).join());
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+}
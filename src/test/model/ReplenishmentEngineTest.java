@@ -0,0 +1,136 @@
+package model;
+
+import model.exceptions.InsufficientQuantityException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplenishmentEngineTest {
+    Store store;
+    Item pen;
+    Item ink;
+    Item pad;
+    ReplenishmentEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        store = new Store(1000);
+        pen = new Item("replenish pen", 1);
+        ink = new Item("replenish ink", 2);
+        pad = new Item("replenish pad", 0.5);
+        store.stock(pen, 10);
+        store.stock(ink, 20);
+        store.stock(pad, 5);
+        pen.setPrice(2);
+        ink.setPrice(3);
+        pad.setPrice(1);
+        engine = new ReplenishmentEngine(store, 0.5, 2, 1, 5);
+    }
+
+    @Test
+    public void testNothingDueWithoutSales() {
+        RestockPlan plan = engine.plan();
+        assertTrue(plan.isEmpty());
+        assertEquals(0, plan.getTotalCostCents());
+        assertEquals(0, plan.getDeferred());
+        assertEquals(0, engine.getForecast(pen));
+    }
+
+    @Test
+    public void testPlanRestocksItemsDue() {
+        sell(pen, 8);
+        sell(ink, 4);
+        RestockPlan plan = engine.plan();
+        assertEquals(8, engine.getForecast(pen));
+        assertEquals(4, engine.getForecast(ink));
+        // pen: 2 left, reorder point 8 * 3 = 24, ordered up to 24 + 8 * 5 = 64;
+        // ink: 16 left, above its reorder point 12
+        assertEquals(Map.of(pen, 62), plan.getBasket().getLines());
+        assertEquals(6200, plan.getTotalCostCents());
+
+        long asset = store.getAssetCents();
+        assertTrue(engine.apply(plan));
+        assertEquals(64, pen.getQuantity());
+        assertEquals(asset - 6200, store.getAssetCents());
+        assertTrue(engine.plan().isEmpty());
+    }
+
+    @Test
+    public void testReservedUnitsAreNotCounted() {
+        sell(pen, 8);
+        sell(ink, 4);
+        assertTrue(store.reserve(ink, 6, 60000).isHeld());
+        RestockPlan plan = engine.plan();
+        // ink: 10 of its 16 available, below its reorder point 12, ordered up to 12 + 4 * 5 = 32
+        assertEquals(Map.of(pen, 62, ink, 22), plan.getBasket().getLines());
+    }
+
+    @Test
+    public void testForecastIsSmoothed() {
+        sell(pen, 8);
+        engine.plan();
+        sell(pen, 1);
+        sell(pen, 1);
+        engine.plan();
+        assertEquals(0.5 * 10 + 0.5 * 8, engine.getForecast(pen));
+    }
+
+    @Test
+    public void testPlanMostUrgentFirstWithinAsset() {
+        sell(pen, 9);
+        sell(pad, 4);
+        sell(ink, 19);
+        store.setAssetCents(9000);
+        RestockPlan plan = engine.plan();
+        // hours of stock left: ink 1 / 19, pen 1 / 9, pad 1 / 4;
+        // ink (151 units, 30200) does not fit, pen (71 units, 7100) and pad (31 units, 1550) do
+        assertEquals(List.of(pen, pad), List.copyOf(plan.getBasket().getLines().keySet()));
+        assertEquals(1, plan.getDeferred());
+        assertEquals(7100 + 1550, plan.getTotalCostCents());
+
+        store.setAssetCents(0);
+        assertFalse(engine.apply(plan));
+        RestockPlan unaffordable = engine.replenish();
+        assertTrue(unaffordable.isEmpty());
+        assertEquals(3, unaffordable.getDeferred());
+        assertEquals(1, pen.getQuantity());
+    }
+
+    @Test
+    public void testParallelPassOverManyItems() {
+        Store big = Store.withColumnarInventory(1000000);
+        for (int i = 0; i < 20000; i++) {
+            Item item = new Item("replenish bulk" + i, 1);
+            item.setPrice(2);
+            big.stock(item, 3);
+        }
+        for (int i = 0; i < 20000; i += 2) {
+            sell(big, big.getItemsStocked().get(i), 1);
+        }
+        RestockPlan plan = new ReplenishmentEngine(big, 1, 2, 1, 0).replenish();
+        assertNotNull(plan);
+        assertEquals(10000, plan.getBasket().size());
+        assertEquals(3, big.getItemsStocked().get(0).getQuantity());
+        assertEquals(3, big.getItemsStocked().get(1).getQuantity());
+    }
+
+    // MODIFIES: store, item
+    // EFFECTS: sells quantity of item
+    private void sell(Item item, int quantity) {
+        sell(store, item, quantity);
+    }
+
+    // MODIFIES: s, item
+    // EFFECTS: sells quantity of item in s
+    private static void sell(Store s, Item item, int quantity) {
+        try {
+            assertTrue(s.sell(item, quantity));
+        } catch (InsufficientQuantityException e) {
+            fail();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SalesHistoryTest {
+    AtomicLong now;
+    SalesHistory history;
+
+    @BeforeEach
+    public void setUp() {
+        now = new AtomicLong(1_000_000_000L);
+        history = new SalesHistory(now::get);
+    }
+
+    @Test
+    public void testNothingSold() {
+        assertEquals(0, history.getUnits(3, SalesWindow.MINUTE));
+        assertEquals(0, history.getRevenueCents(100000, SalesWindow.DAY));
+        assertEquals(List.of(), history.topSellers(SalesWindow.HOUR, 10));
+    }
+
+    @Test
+    public void testWindowsRollOver() {
+        history.record(7, 2, 300);
+        now.addAndGet(10_000);
+        history.record(7, 3, 450);
+        checkSold(7, SalesWindow.MINUTE, 5, 750);
+
+        now.addAndGet(55_000);
+        checkSold(7, SalesWindow.MINUTE, 3, 450);
+        checkSold(7, SalesWindow.HOUR, 5, 750);
+
+        now.addAndGet(3_600_000);
+        checkSold(7, SalesWindow.MINUTE, 0, 0);
+        checkSold(7, SalesWindow.HOUR, 0, 0);
+        checkSold(7, SalesWindow.DAY, 5, 750);
+
+        history.record(7, 1, 150);
+        checkSold(7, SalesWindow.MINUTE, 1, 150);
+        checkSold(7, SalesWindow.DAY, 6, 900);
+
+        now.addAndGet(SalesWindow.DAY.getMillis());
+        checkSold(7, SalesWindow.DAY, 0, 0);
+    }
+
+    @Test
+    public void testBucketReusedAfterOneLap() {
+        history.record(1, 4, 400);
+        now.addAndGet(SalesWindow.MINUTE.getMillis());
+        history.record(1, 1, 100);
+        checkSold(1, SalesWindow.MINUTE, 1, 100);
+        checkSold(1, SalesWindow.HOUR, 5, 500);
+    }
+
+    @Test
+    public void testTopSellers() {
+        history.record(5, 3, 0);
+        history.record(9000, 10, 0);
+        history.record(2, 3, 0);
+        history.record(6, 1, 0);
+        assertEquals(List.of(9000, 2, 5), history.topSellers(SalesWindow.MINUTE, 3));
+        assertEquals(List.of(9000, 2, 5, 6), history.topSellers(SalesWindow.DAY, 100));
+        assertEquals(List.of(), history.topSellers(SalesWindow.DAY, 0));
+
+        now.addAndGet(SalesWindow.MINUTE.getMillis());
+        history.record(6, 2, 0);
+        assertEquals(List.of(6), history.topSellers(SalesWindow.MINUTE, 3));
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        StoreTest.runConcurrently(8, () -> {
+            for (int i = 0; i < 10000; i++) {
+                history.record(i % 5, 1, 25);
+            }
+        });
+        for (int sku = 0; sku < 5; sku++) {
+            checkSold(sku, SalesWindow.MINUTE, 8 * 2000, 8 * 2000 * 25);
+        }
+    }
+
+    // EFFECTS: checks the units and revenue history has for sku over window
+    private void checkSold(int sku, SalesWindow window, long units, long revenueCents) {
+        assertEquals(units, history.getUnits(sku, window));
+        assertEquals(revenueCents, history.getRevenueCents(sku, window));
+    }
+}
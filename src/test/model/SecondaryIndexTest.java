@@ -0,0 +1,166 @@
+package model;
+
+import model.exceptions.InsufficientQuantityException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SecondaryIndexTest {
+    Store store;
+    Item pen;
+    Item ink;
+    Item pad;
+
+    @BeforeEach
+    public void setUp() {
+        store = new Store(1000);
+        pen = new Item("index pen", 1);
+        ink = new Item("index ink", 4);
+        pad = new Item("index pad", 2);
+        pen.setPrice(1.5);
+        ink.setPrice(10);
+        assertTrue(store.stock(pen, 20));
+        assertTrue(store.stock(ink, 5));
+        assertTrue(store.stock(pad, 8));
+    }
+
+    @Test
+    public void testQueriesWithoutIndex() {
+        assertFalse(store.isIndexed(IndexedField.PRICE));
+        checkQueries();
+    }
+
+    @Test
+    public void testQueriesWithIndex() {
+        for (IndexedField field : IndexedField.values()) {
+            store.enableIndex(field);
+            assertTrue(store.isIndexed(field));
+        }
+        store.enableIndex(IndexedField.PRICE);
+        checkQueries();
+    }
+
+    @Test
+    public void testIndexFollowsChanges() {
+        for (IndexedField field : IndexedField.values()) {
+            store.enableIndex(field);
+        }
+        pad.setPrice(2.2);
+        assertEquals(List.of(pad), store.findLowest(IndexedField.MARGIN, 1));
+        assertEquals(List.of(pen, pad), store.findInRange(IndexedField.PRICE, 100, 500));
+
+        try {
+            assertTrue(store.sell(pen, 18));
+        } catch (InsufficientQuantityException e) {
+            fail();
+        }
+        assertEquals(List.of(pen, ink), store.getLowStockItems(5));
+        assertTrue(store.stock(new Item("index pen", 1), 10));
+        assertEquals(List.of(ink, pad, pen), store.findLowest(IndexedField.QUANTITY, 3));
+        assertTrue(store.stock(new Item("index nib", 0.1), 1));
+        assertEquals("index nib", store.findLowest(IndexedField.QUANTITY, 1).get(0).getName());
+        assertEquals(4, store.findInRange(IndexedField.QUANTITY, 0, 100).size());
+        assertEquals(3, store.findInRange(IndexedField.PRICE, 0, 10000).size());
+    }
+
+    @Test
+    public void testColumnarStore() {
+        Store s = Store.withColumnarInventory(1000);
+        s.enableIndex(IndexedField.QUANTITY);
+        assertTrue(s.stock(new Item("index pen", 1), 20));
+        assertTrue(s.stock(new Item("index ink", 4), 5));
+        s.lookup(ink).decreaseQ(4);
+        assertEquals(List.of(ink), s.getLowStockItems(1));
+        assertEquals(List.of(pen), s.findHighest(IndexedField.QUANTITY, 1));
+    }
+
+    @Test
+    public void testConcurrentChanges() throws InterruptedException {
+        Store s = new Store(100000);
+        for (int i = 0; i < 40; i++) {
+            Item item = new Item("index item" + i, 1);
+            item.setPrice(2);
+            assertTrue(s.stock(item, 1000));
+        }
+        s.enableIndex(IndexedField.QUANTITY);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int seed = t;
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    Item item = new Item("index item" + (i * 7 + seed) % 40, 1);
+                    try {
+                        s.sell(item, 1 + i % 3);
+                    } catch (InsufficientQuantityException e) {
+                        // skip
+                    }
+                    s.stock(item, 1 + (i + seed) % 2);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        List<Item> indexed = s.findInRange(IndexedField.QUANTITY, 0, Long.MAX_VALUE);
+        assertEquals(40, indexed.size());
+        for (int i = 1; i < indexed.size(); i++) {
+            assertTrue(indexed.get(i - 1).getQuantity() <= indexed.get(i).getQuantity());
+        }
+    }
+
+    @Test
+    public void testEnableIndexWhileListenerAdded() throws InterruptedException {
+        StoreListener ignoring = new StoreListener() {
+            @Override
+            public void itemStocked(Item item, int quantity) {
+            }
+
+            @Override
+            public void itemSold(Item item, int quantity) {
+            }
+
+            @Override
+            public void priceChanged(Item item, long priceCents) {
+            }
+
+            @Override
+            public void itemTransferred(Item item, int quantity) {
+            }
+        };
+        for (int i = 0; i < 500; i++) {
+            Store s = new Store(100);
+            assertTrue(s.stock(new Item("index item", 1), 10));
+            Thread indexer = new Thread(() -> s.enableIndex(IndexedField.QUANTITY));
+            Thread listening = new Thread(() -> s.addListener(ignoring));
+            indexer.setDaemon(true);
+            listening.setDaemon(true);
+            indexer.start();
+            listening.start();
+            indexer.join(5000);
+            listening.join(5000);
+            assertFalse(indexer.isAlive() || listening.isAlive(), "deadlocked on run " + i);
+            assertTrue(s.isIndexed(IndexedField.QUANTITY));
+        }
+    }
+
+    // EFFECTS: checks range, low stock and margin queries on the store set up
+    private void checkQueries() {
+        assertEquals(List.of(pen), store.findInRange(IndexedField.PRICE, 100, 500));
+        assertEquals(List.of(pen, ink), store.findInRange(IndexedField.PRICE, 150, 1000));
+        assertTrue(store.findInRange(IndexedField.PRICE, 151, 999).isEmpty());
+        assertTrue(store.findInRange(IndexedField.PRICE, 500, 100).isEmpty());
+        assertEquals(List.of(ink, pad), store.getLowStockItems(8));
+        assertEquals(List.of(ink, pad), store.findInRange(IndexedField.QUANTITY, 0, 8));
+        assertEquals(List.of(pen, ink), store.findLowest(IndexedField.MARGIN, 5));
+        assertEquals(List.of(ink), store.findHighest(IndexedField.MARGIN, 1));
+        assertEquals(List.of(pen, pad), store.findHighest(IndexedField.QUANTITY, 2));
+        assertTrue(store.findLowest(IndexedField.PRICE, 0).isEmpty());
+    }
+}
@@ -0,0 +1,75 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SkuRegistryTest {
+    SkuRegistry registry = new SkuRegistry();
+
+    @Test
+    public void testRegister() {
+        String name = new String(new char[] {'q', 'u', 'i', 'l', 'l'});
+        int sku = registry.register(name, 250);
+        assertEquals(sku, registry.register("quill", 250));
+        assertEquals(sku, registry.find("quill", 250));
+        assertNotEquals(sku, registry.register("quill", 251));
+        assertSame(name, registry.getName(sku));
+        assertEquals(250, registry.getCostCents(sku));
+        assertTrue(sku < registry.size());
+        assertEquals(-1, registry.find("no such product", 250));
+    }
+
+    @Test
+    public void testItemsOfSameProductShareId() {
+        Item item1 = new Item("quill", 2.5);
+        Item item2 = Item.ofCents(new String(new char[] {'q', 'u', 'i', 'l', 'l'}), 250);
+        assertEquals(item1.getSku(), item2.getSku());
+        assertSame(item1.getName(), item2.getName());
+        assertEquals(item1, Item.ofSku(item1.getSku()));
+        assertNotEquals(item1, new Item("quill", 2.51));
+    }
+
+    @Test
+    public void testManyProducts() {
+        List<Integer> skus = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            skus.add(registry.register("many" + i, i + 1));
+        }
+        for (int i = 0; i < 10000; i++) {
+            int sku = skus.get(i);
+            assertEquals(sku, registry.find("many" + i, i + 1));
+            assertEquals("many" + i, registry.getName(sku));
+            assertEquals(i + 1, registry.getCostCents(sku));
+        }
+    }
+
+    @Test
+    public void testConcurrentRegister() throws InterruptedException {
+        int products = 2000;
+        AtomicIntegerArray first = new AtomicIntegerArray(products);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < products; i++) {
+                    int sku = registry.register("concurrent" + i, 1);
+                    first.compareAndSet(i, 0, sku + 1);
+                    assertEquals(first.get(i), sku + 1);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (int i = 0; i < products; i++) {
+            assertEquals("concurrent" + i, registry.getName(first.get(i) - 1));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StoreChainTest {
+    StoreChain chain;
+    Item pen;
+
+    @BeforeEach
+    public void setUp() {
+        chain = new StoreChain(3);
+        for (int i = 0; i < 7; i++) {
+            assertEquals(i, chain.openStore(1000));
+        }
+        pen = new Item("pen", 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        chain.shutdown();
+    }
+
+    @Test
+    public void testBranchesAreSharded() {
+        assertEquals(7, chain.getStoreCount());
+        assertEquals(3, chain.getWorkerCount());
+        assertEquals(0, chain.shardOf(3));
+        assertEquals(2, chain.shardOf(5));
+        assertNotSame(chain.getStore(0), chain.getStore(1));
+        String worker = chain.submit(4, s -> Thread.currentThread().getName()).join();
+        assertEquals("store-chain-worker-1", worker);
+    }
+
+    @Test
+    public void testBranchesShareCatalog() {
+        for (int b = 0; b < chain.getStoreCount(); b++) {
+            assertTrue(chain.getStore(b).stock(new Item("pen", 1), b + 1));
+        }
+        Item first = chain.getStore(0).lookup(pen);
+        Item last = chain.getStore(6).lookup(pen);
+        assertEquals(1, first.getQuantity());
+        assertEquals(7, last.getQuantity());
+        assertEquals(first.getSku(), last.getSku());
+        assertSame(first.getName(), last.getName());
+    }
+
+    @Test
+    public void testTransfer() {
+        assertTrue(chain.getStore(0).stock(pen, 10));
+        assertEquals(TransactionResult.OK, chain.transfer(0, 5, pen, 4));
+        assertEquals(TransactionResult.INSUFFICIENT_QUANTITY, chain.transfer(0, 5, pen, 7));
+        assertEquals(TransactionResult.NOT_STOCKED, chain.transfer(1, 5, pen, 1));
+        assertEquals(6, chain.getStore(0).lookup(pen).getQuantity());
+        assertEquals(4, chain.getStore(5).lookup(pen).getQuantity());
+        assertEquals(100000 - 1000 + 400, chain.getStore(0).getAssetCents());
+        assertEquals(100000 - 400, chain.getStore(5).getAssetCents());
+        assertEquals(7 * 100000 - 1000, chain.getAssetCents());
+        assertEquals(1000, chain.getExpenditureCents());
+        assertEquals(10, chain.getUnitsOnHand());
+    }
+
+    @Test
+    public void testConcurrentWorkKeepsChainTotals() {
+        for (int b = 0; b < chain.getStoreCount(); b++) {
+            assertTrue(chain.getStore(b).stock(pen, 200));
+            chain.getStore(b).lookup(pen).setPrice(3);
+        }
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 700; i++) {
+            int branch = i % chain.getStoreCount();
+            futures.add(chain.submit(branch, s -> s.trySell(pen, 1)));
+            futures.add(CompletableFuture.runAsync(() ->
+                    chain.transfer(branch, (branch + 1) % chain.getStoreCount(), pen, 1)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        assertEquals(700 * 300, chain.getRevenueCents());
+        assertEquals(1400 * 100, chain.getExpenditureCents());
+        assertEquals(7 * 100000 - 1400 * 100 + 700 * 300, chain.getAssetCents());
+        assertEquals(700, chain.getUnitsOnHand());
+        for (int b = 0; b < chain.getStoreCount(); b++) {
+            StoreTest.checkTotalsMatchItems(chain.getStore(b));
+        }
+    }
+}
@@ -4,6 +4,11 @@ import model.exceptions.InsufficientQuantityException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class StoreTest {
@@ -31,14 +36,15 @@ public class StoreTest {
     public void testStockSuccess() {
         assertTrue(testStore.stock(item1, 3));
         assertEquals(2331, testStore.getExpenditure());
-        assertEquals(2468.35-2331, testStore.getAsset());
+        assertEquals(137.35, testStore.getAsset());
+        assertEquals(246835 - 233100, testStore.getAssetCents());
         assertEquals(1, testStore.getItemsStocked().size());
 
         Item item2 = new Item("toilet paper", 0.5);
         item2.setPrice(2.99);
         assertTrue(testStore.stock(item2, 4));
         assertEquals(2331+4*0.5, testStore.getExpenditure());
-        assertEquals(2468.35-2331-4*0.5, testStore.getAsset());
+        assertEquals(135.35, testStore.getAsset());
         assertEquals(2, testStore.getItemsStocked().size());
 
         assertTrue(testStore.stock(item2, 6));
@@ -114,17 +120,17 @@ public class StoreTest {
         item2.setPrice(1.99);
         assertTrue(testStore.stock(item1, 2));
         assertTrue(testStore.stock(item2, 74));
-        double asset0 = testStore.getAsset();
+        long asset0 = testStore.getAssetCents();
 
         try {
             assertTrue(testStore.sell(item2, 43));
         } catch (InsufficientQuantityException e) {
             fail();
         }
-        double rev1 = 43 * item2.getPrice();
-        double asset1 = asset0 + 43 * item2.getPrice();
-        assertEquals(rev1, testStore.getRevenue());
-        assertEquals(asset1, testStore.getAsset());
+        long rev1 = 43 * item2.getPriceCents();
+        long asset1 = asset0 + 43 * item2.getPriceCents();
+        assertEquals(rev1, testStore.getRevenueCents());
+        assertEquals(asset1, testStore.getAssetCents());
         assertEquals(2, testStore.getItemsStocked().size());
         assertEquals(item1, testStore.getItemsStocked().get(0));
         assertEquals(item2, testStore.getItemsStocked().get(1));
@@ -135,10 +141,10 @@ public class StoreTest {
         } catch (InsufficientQuantityException e) {
             fail();
         }
-        double rev2 = rev1 + 2 * item1.getPrice();
-        double asset2 = asset1 + 2 * item1.getPrice();
-        assertEquals(rev2, testStore.getRevenue());
-        assertEquals(asset2, testStore.getAsset());
+        long rev2 = rev1 + 2 * item1.getPriceCents();
+        long asset2 = asset1 + 2 * item1.getPriceCents();
+        assertEquals(rev2, testStore.getRevenueCents());
+        assertEquals(asset2, testStore.getAssetCents());
         assertEquals(2, testStore.getItemsStocked().size());
         assertEquals(item1, testStore.getItemsStocked().get(0));
         assertEquals(0, item1.getQuantity());
@@ -150,10 +156,10 @@ public class StoreTest {
         } catch (InsufficientQuantityException e) {
             fail();
         }
-        double rev3 = rev2 + (74-43) * item2.getPrice();
-        double asset3 = asset2 + (74-43) * item2.getPrice();
-        assertEquals(rev3, testStore.getRevenue());
-        assertEquals(asset3, testStore.getAsset());
+        long rev3 = rev2 + (74-43) * item2.getPriceCents();
+        long asset3 = asset2 + (74-43) * item2.getPriceCents();
+        assertEquals(rev3, testStore.getRevenueCents());
+        assertEquals(asset3, testStore.getAssetCents());
         assertEquals(2, testStore.getItemsStocked().size());
         assertEquals(item1, testStore.getItemsStocked().get(0));
         assertEquals(0, item1.getQuantity());
@@ -178,5 +184,500 @@ public class StoreTest {
         assertEquals(1, testStore.getItemsStocked().size());
         assertEquals(item1, testStore.getItemsStocked().get(0));
         assertEquals(item2, testStore.getItemsStocked().get(0));
+        assertEquals(2, item1.getQuantity());
+        assertEquals(0, item2.getQuantity());
+    }
+
+    @Test
+    public void testLookup() {
+        assertNull(testStore.lookup(item2));
+        assertFalse(testStore.contains(item2));
+        assertEquals(-1, testStore.getIndexOf(item2));
+
+        assertTrue(testStore.stock(item1, 1));
+        assertSame(item1, testStore.lookup(item2));
+        assertSame(item1, testStore.lookup(item2.getSku()));
+        assertNull(testStore.lookup(new Item("covid vaccine", 778).getSku()));
+        assertTrue(testStore.contains(item2));
+        assertEquals(0, testStore.getIndexOf(item2));
+    }
+
+    @Test
+    public void testInventoryValueAndLowStock() {
+        Store store = new Store(100);
+        assertTrue(store.stock(new Item("pen", 1.5), 10));
+        assertTrue(store.stock(new Item("ink", 2), 3));
+        assertEquals(2100, store.getInventoryValueCents());
+        assertEquals(List.of(new Item("ink", 2)), store.getLowStockItems(3));
+        assertEquals(2, store.getLowStockItems(10).size());
+        assertTrue(store.getLowStockItems(2).isEmpty());
+    }
+
+    @Test
+    public void testRunningTotals() {
+        Store store = new Store(1000);
+        Item pen = new Item("pen", 1.5);
+        assertTrue(store.stock(pen, 10));
+        assertTrue(store.stock(new Item("ink", 2), 3));
+        assertEquals(13, store.getUnitsOnHand());
+        assertEquals(2100, store.getInventoryValueCents());
+        assertEquals(0, store.getRetailValueCents());
+        assertEquals(0, store.getGrossProfitCents());
+
+        pen.setPrice(2.5);
+        assertEquals(2500, store.getRetailValueCents());
+        assertEquals(1000, store.getGrossProfitCents());
+        try {
+            assertTrue(store.sell(pen, 4));
+        } catch (InsufficientQuantityException e) {
+            fail();
+        }
+        Basket basket = new Basket();
+        basket.add(new Item("ink", 2), 2);
+        basket.add(new Item("nib", 0.1), 5);
+        assertTrue(store.stockAll(basket));
+        store.lookup(new Item("nib", 0.1)).setPrice(0.3);
+        assertEquals(6 + 5 + 5, store.getUnitsOnHand());
+        assertEquals(900 + 1000 + 50, store.getInventoryValueCents());
+        assertEquals(1500 + 150, store.getRetailValueCents());
+        assertEquals(600 + 100, store.getGrossProfitCents());
+        checkTotalsMatchItems(store);
+        checkTotalsMatchItems(store.copy());
+    }
+
+    @Test
+    public void testSalesHistory() {
+        Store store = new Store(1000);
+        Item pen = new Item("pen", 1.5);
+        Item ink = new Item("ink", 2);
+        store.stock(pen, 10);
+        store.stock(ink, 10);
+        pen.setPrice(2.5);
+        ink.setPrice(4);
+        try {
+            assertTrue(store.sell(pen, 2));
+            assertTrue(store.sellAll(new Basket().add(pen, 1).add(ink, 5)));
+        } catch (InsufficientQuantityException e) {
+            fail();
+        }
+        assertEquals(3, store.getUnitsSold(pen, SalesWindow.MINUTE));
+        assertEquals(750, store.getSalesCents(pen, SalesWindow.HOUR));
+        assertEquals(2000, store.getSalesCents(ink, SalesWindow.DAY));
+        assertEquals(5 * 60, store.getSalesRatePerHour(ink, SalesWindow.MINUTE));
+        assertEquals(List.of(ink, pen), store.getTopSellers(SalesWindow.HOUR, 5));
+        assertEquals(0, store.copy().getUnitsSold(pen, SalesWindow.DAY));
+    }
+
+    @Test
+    public void testCopy() {
+        assertTrue(testStore.stock(item1, 2));
+        Store copy = testStore.copy();
+        assertEquals(testStore.getAssetCents(), copy.getAssetCents());
+        assertEquals(testStore.getExpenditureCents(), copy.getExpenditureCents());
+        Item copied = copy.lookup(item1);
+        assertNotSame(item1, copied);
+        assertEquals(2, copied.getQuantity());
+        assertEquals(5849.89, copied.getPrice());
+        assertTrue(copy.takeDirtyItems().isEmpty());
+
+        item1.increaseQ(1);
+        assertEquals(2, copied.getQuantity());
+        copied.setPrice(1);
+        assertEquals(5849.89, item1.getPrice());
+    }
+
+    @Test
+    public void testTakeDirtyItems() {
+        assertTrue(testStore.getItemsStocked().isEmpty());
+        assertTrue(testStore.takeDirtyItems().isEmpty());
+        assertTrue(testStore.stock(item1, 1));
+        assertEquals(1, testStore.getItemCount());
+        assertEquals(List.of(item1), testStore.takeDirtyItems());
+        assertTrue(testStore.takeDirtyItems().isEmpty());
+
+        item1.decreaseQ(1);
+        assertEquals(List.of(item1), testStore.takeDirtyItems());
+        item2.increaseQ(1);
+        assertTrue(testStore.takeDirtyItems().isEmpty());
+        item1.setPrice(1);
+        assertEquals(List.of(item1), testStore.takeDirtyItems());
+    }
+
+    @Test
+    public void testSellEqualItem() {
+        assertTrue(testStore.stock(item1, 2));
+        try {
+            assertTrue(testStore.sell(item2, 1));
+        } catch (InsufficientQuantityException e) {
+            fail();
+        }
+        assertEquals(1, item1.getQuantity());
+        assertEquals(5849.89, testStore.getRevenue());
+    }
+
+    @Test
+    public void testNoDriftOverManySales() {
+        Store store = new Store(0.2);
+        Item gum = new Item("gum", 0.1);
+        gum.setPrice(0.3);
+        assertTrue(store.stock(gum, 1));
+        for (int i = 0; i < 999; i++) {
+            assertTrue(store.stock(gum, 1));
+            try {
+                assertTrue(store.sell(gum, 1));
+            } catch (InsufficientQuantityException e) {
+                fail();
+            }
+        }
+        assertEquals(100.0, store.getExpenditure());
+        assertEquals(299.7, store.getRevenue());
+        assertEquals(199.9, store.getAsset());
+    }
+
+    @Test
+    public void testStockAll() {
+        Item pen = new Item("pen", 0.45);
+        Basket basket = new Basket().add(item1, 3).add(pen, 10);
+        assertTrue(testStore.stockAll(basket));
+        assertEquals(2331 + 4.5, testStore.getExpenditure());
+        assertEquals(132.85, testStore.getAsset());
+        assertEquals(3, item1.getQuantity());
+        assertEquals(10, pen.getQuantity());
+
+        assertFalse(testStore.stockAll(new Basket().add(item1, 1).add(pen, 1)));
+        assertEquals(132.85, testStore.getAsset());
+        assertEquals(3, item1.getQuantity());
+        assertEquals(10, pen.getQuantity());
+    }
+
+    @Test
+    public void testResultCodes() {
+        Item pen = new Item("pen", 0.45);
+        Item ink = new Item("ink", 0.5);
+        assertEquals(TransactionResult.INSUFFICIENT_ASSET, testStore.tryStock(item1, 4));
+        assertEquals(TransactionResult.OK, testStore.tryStock(item1, 3));
+        assertEquals(TransactionResult.OK, testStore.tryStockAll(new Basket().add(pen, 10).add(ink, 2)));
+        assertEquals(TransactionResult.INSUFFICIENT_ASSET, testStore.tryStockAll(new Basket().add(item1, 1)));
+        long asset0 = testStore.getAssetCents();
+
+        assertEquals(TransactionResult.NOT_STOCKED, testStore.trySell(new Item("cap", 1), 1));
+        assertEquals(TransactionResult.PRICE_UNSET, testStore.trySell(pen, 1));
+        assertEquals(TransactionResult.INSUFFICIENT_QUANTITY, testStore.trySell(item2, 4));
+        pen.setPrice(1.99);
+        assertEquals(TransactionResult.PRICE_UNSET, testStore.trySellAll(new Basket().add(pen, 1).add(ink, 1)));
+        assertEquals(TransactionResult.NOT_STOCKED,
+                testStore.trySellAll(new Basket().add(pen, 1).add(new Item("cap", 1), 1)));
+        assertEquals(TransactionResult.INSUFFICIENT_QUANTITY,
+                testStore.trySellAll(new Basket().add(pen, 1).add(item1, 4)));
+        assertEquals(asset0, testStore.getAssetCents());
+        assertEquals(10, pen.getQuantity());
+        assertEquals(3, item1.getQuantity());
+
+        assertEquals(TransactionResult.OK, testStore.trySell(item2, 3));
+        assertEquals(TransactionResult.OK, testStore.trySellAll(new Basket().add(pen, 9)));
+        assertEquals(0, item1.getQuantity());
+        assertEquals(1, pen.getQuantity());
+        assertEquals(asset0 + 3 * 584989 + 9 * 199, testStore.getAssetCents());
+    }
+
+    @Test
+    public void testReserveRejected() {
+        Item pen = new Item("pen", 0.45);
+        assertTrue(testStore.stock(item1, 3));
+        assertTrue(testStore.stock(pen, 10));
+        checkRejected(TransactionResult.NOT_STOCKED, testStore.reserve(new Item("cap", 1), 1, 60_000));
+        checkRejected(TransactionResult.PRICE_UNSET, testStore.reserve(pen, 1, 60_000));
+        checkRejected(TransactionResult.INSUFFICIENT_QUANTITY, testStore.reserve(item2, 4, 60_000));
+        assertEquals(0, testStore.getReservationCount());
+        assertEquals(0, item1.getReservedQuantity());
+    }
+
+    @Test
+    public void testReserveThenCommit() throws InsufficientQuantityException {
+        assertTrue(testStore.stock(item1, 3));
+        long asset0 = testStore.getAssetCents();
+        Reservation held = testStore.reserve(item2, 2, 60_000);
+        assertEquals(TransactionResult.OK, held.getResult());
+        assertEquals(Reservation.Status.HELD, held.getStatus());
+        assertEquals(1, testStore.getReservationCount());
+        assertEquals(3, item1.getQuantity());
+        assertEquals(2, item1.getReservedQuantity());
+        assertEquals(1, item1.getAvailableQuantity());
+
+        assertEquals(TransactionResult.INSUFFICIENT_QUANTITY, testStore.trySell(item1, 2));
+        checkRejected(TransactionResult.INSUFFICIENT_QUANTITY, testStore.reserve(item1, 2, 60_000));
+        assertTrue(testStore.sell(item1, 1));
+
+        assertTrue(testStore.commit(held));
+        assertFalse(testStore.commit(held));
+        assertFalse(testStore.release(held));
+        assertEquals(Reservation.Status.COMMITTED, held.getStatus());
+        assertEquals(0, testStore.getReservationCount());
+        assertEquals(0, item1.getQuantity());
+        assertEquals(0, item1.getReservedQuantity());
+        assertEquals(3 * 584989, testStore.getRevenueCents());
+        assertEquals(asset0 + 3 * 584989, testStore.getAssetCents());
+        assertEquals(3, testStore.getUnitsSold(item1, SalesWindow.MINUTE));
+        checkTotalsMatchItems(testStore);
+    }
+
+    @Test
+    public void testReserveThenRelease() {
+        assertTrue(testStore.stock(item1, 3));
+        Reservation held = testStore.reserve(item1, 3, 60_000);
+        assertEquals(0, item1.getAvailableQuantity());
+        assertTrue(testStore.release(held));
+        assertFalse(testStore.release(held));
+        assertFalse(testStore.commit(held));
+        assertEquals(Reservation.Status.RELEASED, held.getStatus());
+        assertEquals(0, testStore.getReservationCount());
+        assertEquals(3, item1.getAvailableQuantity());
+        assertEquals(0, testStore.getRevenueCents());
+        assertEquals(TransactionResult.OK, testStore.trySell(item1, 3));
+    }
+
+    @Test
+    public void testReservationsExpire() throws InterruptedException {
+        assertTrue(testStore.stock(item1, 3));
+        Reservation brief = testStore.reserve(item1, 2, 1);
+        Reservation lasting = testStore.reserve(item1, 1, 60_000);
+        Thread.sleep(3 * ReservationBook.TICK_MILLIS);
+        testStore.expireReservations();
+        assertEquals(Reservation.Status.EXPIRED, brief.getStatus());
+        assertFalse(testStore.commit(brief));
+        assertTrue(lasting.isHeld());
+        assertEquals(1, testStore.getReservationCount());
+        assertEquals(1, item1.getReservedQuantity());
+        assertEquals(2, item1.getAvailableQuantity());
+
+        Reservation background = testStore.reserve(item1, 2, 1);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (background.isHeld() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(ReservationBook.TICK_MILLIS);
+        }
+        assertEquals(Reservation.Status.EXPIRED, background.getStatus());
+        assertEquals(2, item1.getAvailableQuantity());
+    }
+
+    @Test
+    public void testConcurrentReserveNeverOversells() throws InterruptedException {
+        Store store = new Store(1000000);
+        Item pen = new Item("pen", 1);
+        pen.setPrice(2);
+        assertTrue(store.stock(pen, 1000));
+        AtomicInteger committed = new AtomicInteger();
+        AtomicInteger sold = new AtomicInteger();
+
+        runConcurrently(8, () -> {
+            for (int i = 0; i < 200; i++) {
+                if (i % 2 == 0) {
+                    Reservation reservation = store.reserve(pen, 1, 60_000);
+                    if (reservation.isHeld() && (i % 4 != 0 || !store.release(reservation))) {
+                        assertTrue(store.commit(reservation));
+                        committed.incrementAndGet();
+                    }
+                } else if (store.trySell(pen, 1) == TransactionResult.OK) {
+                    sold.incrementAndGet();
+                }
+            }
+        });
+
+        int units = committed.get() + sold.get();
+        assertTrue(units <= 1000);
+        assertEquals(1000 - units, pen.getQuantity());
+        assertEquals(0, pen.getReservedQuantity());
+        assertEquals(0, store.getReservationCount());
+        assertEquals(2 * units, store.getRevenue());
+    }
+
+    @Test
+    public void testEvents() {
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        EventStream.Subscription subscription = testStore.getEvents().subscribe("test", (event, sequence, end) ->
+                seen.add(event.getType() + " " + event.getQuantity() + " " + event.getCents() + " "
+                        + event.getResult()));
+        Item pen = new Item("pen", 0.45);
+        assertTrue(testStore.stock(pen, 10));
+        assertEquals(TransactionResult.PRICE_UNSET, testStore.trySell(pen, 1));
+        pen.setPrice(1.25);
+        assertEquals(TransactionResult.OK, testStore.trySell(pen, 4));
+        assertEquals(TransactionResult.INSUFFICIENT_QUANTITY, testStore.trySell(pen, 7));
+        subscription.close();
+
+        assertEquals(List.of("ITEM_STOCKED 10 450 OK", "SALE_REJECTED 1 0 PRICE_UNSET",
+                "PRICE_CHANGED 0 125 OK", "ITEM_SOLD 4 500 OK", "SALE_REJECTED 7 0 INSUFFICIENT_QUANTITY"), seen);
+        assertEquals(5, testStore.getEvents().getPublished());
+    }
+
+    @Test
+    public void testTransfer() {
+        Store other = new Store(100);
+        Item pen = new Item("pen", 0.45);
+        assertTrue(testStore.stock(item1, 3));
+        assertTrue(testStore.stock(pen, 10));
+        long asset0 = testStore.getAssetCents();
+        assertEquals(TransactionResult.NOT_STOCKED, testStore.transfer(other, new Item("cap", 1), 1));
+        assertEquals(TransactionResult.INSUFFICIENT_ASSET, testStore.transfer(other, item1, 1));
+        assertEquals(TransactionResult.INSUFFICIENT_QUANTITY, testStore.transfer(other, pen, 11));
+        assertEquals(asset0, testStore.getAssetCents());
+        assertEquals(10000, other.getAssetCents());
+
+        Reservation held = testStore.reserve(item1, 2, 60_000);
+        Store rich = new Store(99999);
+        assertEquals(TransactionResult.INSUFFICIENT_QUANTITY, testStore.transfer(rich, item1, 2));
+        assertEquals(9999900, rich.getAssetCents());
+        assertTrue(testStore.release(held));
+
+        assertEquals(TransactionResult.OK, testStore.transfer(other, pen, 4));
+        assertEquals(6, pen.getQuantity());
+        assertEquals(4, other.lookup(pen).getQuantity());
+        assertEquals(asset0 + 180, testStore.getAssetCents());
+        assertEquals(10000 - 180, other.getAssetCents());
+        assertEquals(0, testStore.getRevenueCents());
+        assertEquals(0, other.getExpenditureCents());
+        checkTotalsMatchItems(testStore);
+        checkTotalsMatchItems(other);
+    }
+
+    // EFFECTS: checks that reservation was rejected for given result, and holds nothing
+    private void checkRejected(TransactionResult result, Reservation reservation) {
+        assertEquals(result, reservation.getResult());
+        assertEquals(Reservation.Status.REJECTED, reservation.getStatus());
+        assertFalse(testStore.commit(reservation));
+        assertFalse(testStore.release(reservation));
+    }
+
+    @Test
+    public void testSellAllSuccess() {
+        Item pen = new Item("pen", 0.45);
+        pen.setPrice(1.99);
+        assertTrue(testStore.stock(item1, 3));
+        assertTrue(testStore.stock(pen, 10));
+        long asset0 = testStore.getAssetCents();
+
+        try {
+            assertTrue(testStore.sellAll(new Basket().add(item2, 2).add(pen, 4)));
+        } catch (InsufficientQuantityException e) {
+            fail();
+        }
+        assertEquals(1, item1.getQuantity());
+        assertEquals(6, pen.getQuantity());
+        assertEquals(2 * 584989 + 4 * 199, testStore.getRevenueCents());
+        assertEquals(asset0 + 2 * 584989 + 4 * 199, testStore.getAssetCents());
+    }
+
+    @Test
+    public void testSellAllFailLeavesStoreUnchanged() {
+        Item pen = new Item("pen", 0.45);
+        pen.setPrice(1.99);
+        Item ink = new Item("ink", 0.5);
+        assertTrue(testStore.stock(item1, 3));
+        assertTrue(testStore.stock(pen, 10));
+        assertTrue(testStore.stock(ink, 1));
+        long asset0 = testStore.getAssetCents();
+
+        try {
+            testStore.sellAll(new Basket().add(pen, 4).add(item1, 4));
+            fail();
+        } catch (InsufficientQuantityException e) {
+            // expected
+        }
+        try {
+            assertFalse(testStore.sellAll(new Basket().add(pen, 4).add(ink, 1)));
+            assertFalse(testStore.sellAll(new Basket().add(pen, 4).add(new Item("cap", 1), 1)));
+        } catch (InsufficientQuantityException e) {
+            fail();
+        }
+        assertEquals(3, item1.getQuantity());
+        assertEquals(10, pen.getQuantity());
+        assertEquals(1, ink.getQuantity());
+        assertEquals(0, testStore.getRevenueCents());
+        assertEquals(asset0, testStore.getAssetCents());
+    }
+
+    @Test
+    public void testConcurrentSell() throws InterruptedException {
+        Store store = new Store(1000000);
+        Item pen = new Item("pen", 1);
+        pen.setPrice(2);
+        Item ink = new Item("ink", 1);
+        ink.setPrice(4);
+        assertTrue(store.stock(pen, 1000));
+        assertTrue(store.stock(ink, 1000));
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(8, () -> {
+            for (int i = 0; i < 300; i++) {
+                try {
+                    store.sell(i % 2 == 0 ? pen : ink, 1);
+                } catch (InsufficientQuantityException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(0, pen.getQuantity());
+        assertEquals(0, ink.getQuantity());
+        assertEquals(8 * 300 - 2000, rejected.get());
+        assertEquals(1000 * 2 + 1000 * 4, store.getRevenue());
+        assertEquals(1000000 - 2000 + 6000, store.getAsset());
+    }
+
+    @Test
+    public void testConcurrentStockNeverOverdraws() throws InterruptedException {
+        Store store = new Store(1000);
+        AtomicInteger stocked = new AtomicInteger();
+
+        runConcurrently(8, () -> {
+            for (int i = 0; i < 100; i++) {
+                if (store.stock(new Item("item" + (i % 10), 1), 3)) {
+                    stocked.addAndGet(3);
+                }
+            }
+        });
+
+        assertEquals(999, stocked.get());
+        assertEquals(1, store.getAsset());
+        assertEquals(999, store.getExpenditure());
+        assertEquals(10, store.getItemsStocked().size());
+        int total = 0;
+        for (Item item : store.getItemsStocked()) {
+            total += item.getQuantity();
+        }
+        assertEquals(999, total);
+    }
+
+    // EFFECTS: checks the running totals of store against totals computed from its items
+    static void checkTotalsMatchItems(Store store) {
+        long units = 0;
+        long value = 0;
+        long retail = 0;
+        long profit = 0;
+        for (Item item : store.getItemsStocked()) {
+            units += item.getQuantity();
+            value += item.getQuantity() * item.getCostCents();
+            retail += item.getQuantity() * item.getPriceCents();
+            if (item.priceIsSet()) {
+                profit += item.getQuantity() * (item.getPriceCents() - item.getCostCents());
+            }
+        }
+        assertEquals(units, store.getUnitsOnHand());
+        assertEquals(value, store.getInventoryValueCents());
+        assertEquals(retail, store.getRetailValueCents());
+        assertEquals(profit, store.getGrossProfitCents());
+    }
+
+    // EFFECTS: runs task on the given number of threads at once and waits for all of them to finish
+    static void runConcurrently(int threads, Runnable task) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Thread(task));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
     }
 }
@@ -0,0 +1,100 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimerWheelTest {
+    static final long START = 1_000_000L;
+    TimerWheel<String> wheel;
+
+    @BeforeEach
+    public void setUp() {
+        wheel = new TimerWheel<>(10, START);
+    }
+
+    @Test
+    public void testExpiresWhenDue() {
+        wheel.schedule("a", START + 25);
+        wheel.schedule("b", START + 10);
+        assertEquals(2, wheel.size());
+        assertEquals(List.of(), wheel.advance(START + 9));
+        assertEquals(List.of("b"), wheel.advance(START + 10));
+        assertEquals(List.of(), wheel.advance(START + 29));
+        assertEquals(List.of("a"), wheel.advance(START + 30));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testPastDeadlineExpiresOnNextTick() {
+        wheel.advance(START + 100);
+        wheel.schedule("late", START);
+        assertEquals(List.of(), wheel.advance(START + 109));
+        assertEquals(List.of("late"), wheel.advance(START + 110));
+    }
+
+    @Test
+    public void testCancel() {
+        TimerWheel.Timer<String> a = wheel.schedule("a", START + 50);
+        wheel.schedule("b", START + 50);
+        assertTrue(wheel.cancel(a));
+        assertFalse(wheel.cancel(a));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("b"), wheel.advance(START + 1000));
+    }
+
+    @Test
+    public void testCancelAfterExpiry() {
+        TimerWheel.Timer<String> a = wheel.schedule("a", START + 50);
+        assertEquals(List.of("a"), wheel.advance(START + 50));
+        assertFalse(wheel.cancel(a));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testCascadesThroughLevels() {
+        long tick = 10;
+        long[] delays = {tick * 63, tick * 64, tick * 65, tick * 4095, tick * 4096, tick * 4097,
+                tick * 262_144 + 3 * tick, tick * 16_777_216L + 5 * tick};
+        for (int i = 0; i < delays.length; i++) {
+            wheel.schedule("t" + i, START + delays[i]);
+        }
+        for (int i = 0; i < delays.length; i++) {
+            assertEquals(List.of(), wheel.advance(START + delays[i] - 1), "t" + i + " expired early");
+            assertEquals(List.of("t" + i), wheel.advance(START + delays[i]));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testManyRandomTimersExpireOnTime() {
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        List<TimerWheel.Timer<String>> timers = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            long deadline = START + 1 + random.nextInt(200_000);
+            deadlines.add(deadline);
+            timers.add(wheel.schedule(Integer.toString(i), deadline));
+        }
+        for (int i = 0; i < 10_000; i += 3) {
+            assertTrue(wheel.cancel(timers.get(i)));
+        }
+        int expired = 0;
+        for (long now = START; now <= START + 200_000; now += 1000) {
+            for (String value : wheel.advance(now)) {
+                int i = Integer.parseInt(value);
+                assertNotEquals(0, i % 3);
+                assertTrue(deadlines.get(i) <= now, "expired early");
+                assertTrue(deadlines.get(i) > now - 1000 - 10, "expired late");
+                expired++;
+            }
+        }
+        assertEquals(10_000 - 3334, expired);
+        assertEquals(0, wheel.size());
+    }
+}
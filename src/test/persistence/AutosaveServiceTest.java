@@ -0,0 +1,140 @@
+package persistence;
+
+import model.Item;
+import model.Store;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutosaveServiceTest {
+    private static final String JOURNAL = "./data/testAutosave.journal";
+    private static final String SNAPSHOT = "./data/testAutosaveSnapshot.json";
+
+    TransactionJournal journal;
+    AutosaveService autosave;
+    Store store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.deleteIfExists(Paths.get(JOURNAL));
+        Files.deleteIfExists(Paths.get(SNAPSHOT));
+        journal = new TransactionJournal(JOURNAL, SNAPSHOT);
+        store = journal.recover(new Store(1000));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        autosave.shutdown();
+        journal.close();
+    }
+
+    @Test
+    void testSaveNow() {
+        autosave = new AutosaveService(journal, 60 * 1000, 0);
+        autosave.start(store);
+        assertEquals(0, autosave.getLastSaved());
+        store.stock(new Item("pen", 1), 10);
+        try {
+            autosave.saveNow().get();
+            assertTrue(autosave.getLastSaved() > 0);
+            assertEquals(10, new JsonReader(SNAPSHOT).read().getItemsStocked().get(0).getQuantity());
+        } catch (IOException | InterruptedException | ExecutionException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    @Test
+    void testSavesAfterTransactions() {
+        autosave = new AutosaveService(journal, 60 * 1000, 3);
+        CountDownLatch saved = new CountDownLatch(1);
+        autosave.addListener(new Listener(saved));
+        autosave.start(store);
+        Item pen = new Item("pen", 1);
+        store.stock(pen, 10);
+        store.stock(pen, 10);
+        assertFalse(Files.exists(Paths.get(SNAPSHOT)));
+        store.stock(pen, 10);
+        try {
+            assertTrue(saved.await(10, TimeUnit.SECONDS));
+            assertEquals(30, new JsonReader(SNAPSHOT).read().getItemsStocked().get(0).getQuantity());
+        } catch (IOException | InterruptedException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    @Test
+    void testSavesEveryInterval() {
+        autosave = new AutosaveService(journal, 10, 0);
+        CountDownLatch saved = new CountDownLatch(1);
+        autosave.addListener(new Listener(saved));
+        autosave.start(store);
+        store.stock(new Item("pen", 1), 10);
+        try {
+            assertTrue(saved.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    @Test
+    void testStoreChangesWhileSaving() {
+        autosave = new AutosaveService(journal, 60 * 1000, 0);
+        autosave.start(store);
+        Item pen = new Item("pen", 0.01);
+        AtomicInteger stocked = new AtomicInteger();
+        Thread stocker = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                if (store.stock(pen, 1)) {
+                    stocked.incrementAndGet();
+                }
+            }
+        });
+        try {
+            stocker.start();
+            for (int i = 0; i < 5; i++) {
+                autosave.saveNow().get();
+            }
+            stocker.join();
+            autosave.shutdown();
+            journal.close();
+            Store recovered = new TransactionJournal(JOURNAL, SNAPSHOT).recover(new Store(1000));
+            assertEquals(stocked.get(), recovered.getItemsStocked().get(0).getQuantity());
+            assertEquals(store.getAssetCents(), recovered.getAssetCents());
+        } catch (IOException | InterruptedException | ExecutionException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    // Counts down latch when a save finishes; fails the test if one fails
+    private static class Listener implements AutosaveListener {
+        private final CountDownLatch saved;
+
+        Listener(CountDownLatch saved) {
+            this.saved = saved;
+        }
+
+        @Override
+        public void saveStarted() {
+        }
+
+        @Override
+        public void saveFinished(long timeMillis) {
+            saved.countDown();
+        }
+
+        @Override
+        public void saveFailed(IOException e) {
+            fail("Save should not have failed: " + e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package persistence;
+
+import model.Item;
+import model.Store;
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonStreamReaderTest extends JsonTest {
+
+    @Test
+    void testReaderNonExistentFile() {
+        JsonStreamReader reader = new JsonStreamReader("./data/noSuchFile.json");
+        try {
+            Store s = reader.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReaderEmptyStore() {
+        JsonStreamReader reader = new JsonStreamReader("./data/testReaderEmptyStore.json");
+        try {
+            Store s = reader.read();
+            assertEquals(99999, s.getAsset());
+            assertEquals(0, s.getItemsStocked().size());
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderGeneralStore() {
+        JsonStreamReader reader = new JsonStreamReader("./data/testReaderGeneralStore.json");
+        try {
+            Store s = reader.read();
+            assertEquals(99855.1, s.getAsset());
+            assertEquals(143.9, s.getExpenditure());
+            List<Item> items = s.getItemsStocked();
+            assertEquals(2, items.size());
+            checkItem("cd", 7.7, 0.0, 7, items.get(0));
+            checkItem("book", 30, 39.89, 3, items.get(1));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderUnusualStore() {
+        JsonStreamReader reader = new JsonStreamReader("./data/testReaderUnusualStore.json");
+        try {
+            Store s = reader.read();
+            assertEquals(10000000, s.getAsset());
+            assertEquals(12.5, s.getRevenue());
+            assertEquals(56.9, s.getExpenditure());
+            List<Item> items = s.getItemsStocked();
+            assertEquals(2, items.size());
+            checkItem("iced \"latte\"", 1.5, 5.0, 2, items.get(0));
+            checkItem("cd", 7.7, 0.0, 7, items.get(1));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderMatchesJsonReader() {
+        try {
+            Store expected = new JsonReader("./data/testReaderUnusualStore.json").read();
+            Store s = new JsonStreamReader("./data/testReaderUnusualStore.json").read();
+            assertEquals(expected.getAssetCents(), s.getAssetCents());
+            assertEquals(expected.getRevenueCents(), s.getRevenueCents());
+            assertEquals(expected.getExpenditureCents(), s.getExpenditureCents());
+            assertEquals(expected.getItemsStocked(), s.getItemsStocked());
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderLargeAmounts() {
+        try {
+            assertEquals(999999999999999900L, readAsset("9999999999999999"));
+            assertEquals(999999999999999999L, readAsset("9999999999999999.99"));
+            assertEquals(9223372036854775800L, readAsset("92233720368547758"));
+            assertThrows(JSONException.class, () -> readAsset("99999999999999999"));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderMalformedStore() {
+        assertThrows(JSONException.class, () -> new JsonStreamReader("./README.md").read());
+    }
+
+    // EFFECTS: writes a store whose asset is the JSON number asset, and returns the asset read back in cents
+    private long readAsset(String asset) throws IOException {
+        Path file = Paths.get("./data/testReaderLargeAmounts.json");
+        Files.write(file, ("{\"expenditure\": 0, \"revenue\": 0, \"asset\": " + asset + ", \"items\": []}")
+                .getBytes(StandardCharsets.UTF_8));
+        return new JsonStreamReader(file.toString()).read().getAssetCents();
+    }
+}
@@ -0,0 +1,97 @@
+package persistence;
+
+import model.Item;
+import model.Store;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonStreamWriterTest extends JsonTest {
+
+    @Test
+    void testWriterInvalidFile() {
+        try {
+            JsonStreamWriter writer = new JsonStreamWriter("./data/my\0illegal:fileName.json");
+            writer.open();
+            fail("IOException was expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testWriterEmptyStore() {
+        try {
+            Store s = new Store(99999);
+            JsonStreamWriter writer = new JsonStreamWriter("./data/testStreamWriterEmptyStore.json");
+            writer.open();
+            writer.write(s);
+            writer.close();
+
+            s = new JsonReader("./data/testStreamWriterEmptyStore.json").read();
+            assertEquals(99999, s.getAsset());
+            assertEquals(0, s.getItemsStocked().size());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterGeneralStore() {
+        try {
+            JsonStreamWriter writer = new JsonStreamWriter("./data/testStreamWriterGeneralStore.json");
+            writer.open();
+            writer.write(generalStore());
+            writer.close();
+
+            checkGeneralStore(new JsonReader("./data/testStreamWriterGeneralStore.json").read());
+            checkGeneralStore(new JsonStreamReader("./data/testStreamWriterGeneralStore.json").read());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterCompactStore() {
+        try {
+            JsonStreamWriter writer = new JsonStreamWriter("./data/testStreamWriterCompactStore.json", true);
+            writer.open();
+            writer.write(generalStore());
+            writer.close();
+
+            String json = new String(Files.readAllBytes(Paths.get("./data/testStreamWriterCompactStore.json")));
+            assertEquals("{\"asset\":99855.1,\"revenue\":0,\"expenditure\":143.9,\"items\":["
+                    + "{\"name\":\"cd \\\"live\\\"\",\"cost\":7.7,\"price\":0,\"quantity\":7},"
+                    + "{\"name\":\"book\",\"cost\":30,\"price\":39.89,\"quantity\":3}]}", json);
+            checkGeneralStore(new JsonReader("./data/testStreamWriterCompactStore.json").read());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    // EFFECTS: returns a store stocked with a cd and a priced book
+    private Store generalStore() {
+        Store s = new Store(99999);
+        Item i1 = new Item("cd \"live\"", 7.7);
+        Item i2 = new Item("book", 30);
+        s.stock(i1, 7);
+        s.stock(i2, 3);
+        i2.setPrice(39.89);
+        return s;
+    }
+
+    // EFFECTS: checks that s has the contents of generalStore()
+    private void checkGeneralStore(Store s) {
+        assertEquals(99855.1, s.getAsset());
+        assertEquals(143.9, s.getExpenditure());
+        List<Item> items = s.getItemsStocked();
+        assertEquals(2, items.size());
+        checkItem("cd \"live\"", 7.7, 0.0, 7, items.get(0));
+        checkItem("book", 30, 39.89, 3, items.get(1));
+    }
+}
@@ -0,0 +1,194 @@
+package persistence;
+
+import model.Item;
+import model.Store;
+import model.exceptions.InsufficientQuantityException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedStoreFileTest extends JsonTest {
+    private static final String FILE = "./data/testPagedStore.store";
+
+    @Test
+    void testReadNonExistentFile() {
+        try {
+            new PagedStoreFile("./data/noSuchFile.store").read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReadTruncatedFile() {
+        try {
+            new PagedStoreFile(FILE).save(generalStore());
+            byte[] bytes = Files.readAllBytes(Paths.get(FILE));
+            Files.write(Paths.get(FILE), Arrays.copyOf(bytes, bytes.length - 3));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+        try {
+            new PagedStoreFile(FILE).read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReadCorruptNameRecord() {
+        checkCorruptRecord(PagedStoreFile.HEADER_SIZE + 20, ByteBuffer.allocate(4).putInt(-1));
+        checkCorruptRecord(PagedStoreFile.HEADER_SIZE + 20, ByteBuffer.allocate(4).putInt(Integer.MAX_VALUE));
+        checkCorruptRecord(PagedStoreFile.HEADER_SIZE + 24, ByteBuffer.allocate(8).putLong(-1));
+        checkCorruptRecord(PagedStoreFile.HEADER_SIZE + 24, ByteBuffer.allocate(8).putLong(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testSaveAndRead() {
+        try {
+            PagedStoreFile file = new PagedStoreFile(FILE);
+            file.save(generalStore());
+            assertEquals(2, file.getRecordsWritten());
+            Store s = new PagedStoreFile(FILE).read();
+            assertEquals(99855.1, s.getAsset());
+            assertEquals(11.97, s.getRevenue());
+            assertEquals(143.9, s.getExpenditure());
+            List<Item> items = s.getItemsStocked();
+            assertEquals(2, items.size());
+            checkItem("cd", 7.7, 0.0, 7, items.get(0));
+            checkItem("book", 30, 39.89, 3, items.get(1));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSaveWritesOnlyChangedItems() {
+        try {
+            Store s = new Store(99999);
+            for (int i = 0; i < 100; i++) {
+                s.stock(new Item("item" + i, 1), 10);
+            }
+            PagedStoreFile file = new PagedStoreFile(FILE);
+            file.save(s);
+            assertEquals(100, file.getRecordsWritten());
+            file.save(s);
+            assertEquals(0, file.getRecordsWritten());
+
+            s.lookup(new Item("item40", 1)).setPrice(2.5);
+            s.sell(new Item("item40", 1), 4);
+            s.stock(new Item("item7", 1), 5);
+            file.save(s);
+            assertEquals(2, file.getRecordsWritten());
+
+            Store read = new PagedStoreFile(FILE).read();
+            assertEquals(s.getAssetCents(), read.getAssetCents());
+            assertEquals(1000, read.getRevenueCents());
+            checkItem("item40", 1, 2.5, 6, read.getItemsStocked().get(40));
+            checkItem("item7", 1, 0, 15, read.getItemsStocked().get(7));
+            checkItem("item8", 1, 0, 10, read.getItemsStocked().get(8));
+        } catch (IOException | InsufficientQuantityException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSaveAfterReadWritesOnlyChangedItems() {
+        try {
+            new PagedStoreFile(FILE).save(generalStore());
+            PagedStoreFile file = new PagedStoreFile(FILE);
+            Store s = file.read();
+            s.stock(new Item("dvd", 5), 2);
+            file.save(s);
+            assertEquals(1, file.getRecordsWritten());
+
+            List<Item> items = new PagedStoreFile(FILE).read().getItemsStocked();
+            assertEquals(3, items.size());
+            checkItem("book", 30, 39.89, 3, items.get(1));
+            checkItem("dvd", 5, 0, 2, items.get(2));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSaveGrowsFile() {
+        try {
+            Store s = generalStore();
+            PagedStoreFile file = new PagedStoreFile(FILE);
+            file.save(s);
+            for (int i = 0; i < PagedStoreFile.MIN_CAPACITY; i++) {
+                s.stock(new Item("item" + i, 1), 1);
+            }
+            file.save(s);
+            assertEquals(PagedStoreFile.MIN_CAPACITY + 2, file.getRecordsWritten());
+            s.stock(new Item("item0", 1), 1);
+            file.save(s);
+            assertEquals(1, file.getRecordsWritten());
+
+            List<Item> items = new PagedStoreFile(FILE).read().getItemsStocked();
+            assertEquals(PagedStoreFile.MIN_CAPACITY + 2, items.size());
+            checkItem("cd", 7.7, 0.0, 7, items.get(0));
+            checkItem("item0", 1, 0, 2, items.get(2));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSaveOtherStoreWritesAll() {
+        try {
+            PagedStoreFile file = new PagedStoreFile(FILE);
+            file.save(generalStore());
+            Store other = new Store(10);
+            other.stock(new Item("pen", 1), 1);
+            file.save(other);
+            assertEquals(1, file.getRecordsWritten());
+
+            Store s = new PagedStoreFile(FILE).read();
+            assertEquals(9, s.getAsset());
+            assertEquals(1, s.getItemsStocked().size());
+            checkItem("pen", 1, 0, 1, s.getItemsStocked().get(0));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    // EFFECTS: saves a store, overwrites the bytes at offset with those of field, and checks that reading
+    //          the file throws IOException
+    private void checkCorruptRecord(int offset, ByteBuffer field) {
+        try {
+            new PagedStoreFile(FILE).save(generalStore());
+            byte[] bytes = Files.readAllBytes(Paths.get(FILE));
+            System.arraycopy(field.array(), 0, bytes, offset, field.capacity());
+            Files.write(Paths.get(FILE), bytes);
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+        try {
+            new PagedStoreFile(FILE).read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    // EFFECTS: returns a store with a cd and a priced book, some of which has been sold
+    private Store generalStore() {
+        Store s = new Store(99999);
+        s.stock(new Item("cd", 7.7), 7);
+        s.stock(new Item("book", 30), 3);
+        s.setRevenue(11.97);
+        s.getItemsStocked().get(1).setPrice(39.89);
+        return s;
+    }
+}
@@ -0,0 +1,135 @@
+package persistence;
+
+import model.Item;
+import model.Store;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTest extends JsonTest {
+    // a name whose UTF-8 form is longer than its length in chars
+    private static final String BOOK = "b" + (char) 0xF6 + (char) 0xF6 + "k";
+
+    @Test
+    void testReaderNonExistentFile() {
+        try {
+            new SnapshotReader("./data/noSuchFile.snap").read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReaderNotASnapshot() {
+        try {
+            new SnapshotReader("./data/testReaderGeneralStore.json").read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReaderTruncatedSnapshot() {
+        try {
+            new SnapshotWriter("./data/testSnapshotGeneralStore.snap").write(generalStore());
+            byte[] bytes = Files.readAllBytes(Paths.get("./data/testSnapshotGeneralStore.snap"));
+            Files.write(Paths.get("./data/testSnapshotTruncatedStore.snap"), Arrays.copyOf(bytes, bytes.length - 3));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+        try {
+            new SnapshotReader("./data/testSnapshotTruncatedStore.snap").read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReaderCorruptNameLength() {
+        for (int length : new int[] {-1, Integer.MAX_VALUE}) {
+            try {
+                new SnapshotWriter("./data/testSnapshotGeneralStore.snap").write(generalStore());
+                byte[] bytes = Files.readAllBytes(Paths.get("./data/testSnapshotGeneralStore.snap"));
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                int tableStart = bytes.length - buffer.getInt(SnapshotWriter.HEADER_SIZE - 4);
+                buffer.putInt(tableStart, length);
+                Files.write(Paths.get("./data/testSnapshotCorruptStore.snap"), bytes);
+            } catch (IOException e) {
+                fail("Exception should not have been thrown");
+            }
+            try {
+                new SnapshotReader("./data/testSnapshotCorruptStore.snap").read();
+                fail("IOException expected");
+            } catch (IOException e) {
+                // pass
+            }
+        }
+    }
+
+    @Test
+    void testEmptyStore() {
+        try {
+            new SnapshotWriter("./data/testSnapshotEmptyStore.snap").write(new Store(99999));
+            Store s = new SnapshotReader("./data/testSnapshotEmptyStore.snap").read();
+            assertEquals(99999, s.getAsset());
+            assertEquals(0, s.getRevenue());
+            assertEquals(0, s.getItemsStocked().size());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testGeneralStore() {
+        try {
+            new SnapshotWriter("./data/testSnapshotGeneralStore.snap").write(generalStore());
+            Store s = new SnapshotReader("./data/testSnapshotGeneralStore.snap").read();
+            assertEquals(99855.1, s.getAsset());
+            assertEquals(11.97, s.getRevenue());
+            assertEquals(143.9, s.getExpenditure());
+            List<Item> items = s.getItemsStocked();
+            assertEquals(2, items.size());
+            checkItem("cd", 7.7, 0.0, 7, items.get(0));
+            checkItem(BOOK, 30, 39.89, 3, items.get(1));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testConvertBothWays() {
+        try {
+            SnapshotConverter.jsonToSnapshot("./data/testReaderGeneralStore.json", "./data/testConvertedStore.snap");
+            SnapshotConverter.snapshotToJson("./data/testConvertedStore.snap", "./data/testConvertedStore.json");
+            Store s = new JsonReader("./data/testConvertedStore.json").read();
+            assertEquals(99855.1, s.getAsset());
+            assertEquals(143.9, s.getExpenditure());
+            List<Item> items = s.getItemsStocked();
+            assertEquals(2, items.size());
+            checkItem("cd", 7.7, 0.0, 7, items.get(0));
+            checkItem("book", 30, 39.89, 3, items.get(1));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    // EFFECTS: returns a store with a cd and a priced book, some of which has been sold
+    private Store generalStore() {
+        Store s = new Store(99999);
+        s.stock(new Item("cd", 7.7), 7);
+        s.stock(new Item(BOOK, 30), 3);
+        s.setRevenue(11.97);
+        s.getItemsStocked().get(1).setPrice(39.89);
+        return s;
+    }
+}
@@ -0,0 +1,342 @@
+package persistence;
+
+import model.Item;
+import model.Store;
+import model.StoreListener;
+import model.TransactionResult;
+import model.exceptions.InsufficientQuantityException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJournalTest extends JsonTest {
+    private static final String JOURNAL = "./data/testJournal.journal";
+    private static final String SNAPSHOT = "./data/testJournalSnapshot.json";
+
+    TransactionJournal journal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.deleteIfExists(Paths.get(JOURNAL));
+        Files.deleteIfExists(Paths.get(SNAPSHOT));
+        journal = new TransactionJournal(JOURNAL, SNAPSHOT);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+    }
+
+    @Test
+    void testRecoverWithoutSnapshot() {
+        try {
+            Store s = journal.recover(new Store(1000));
+            runTransactions(s);
+            journal.close();
+
+            checkStore(new TransactionJournal(JOURNAL, SNAPSHOT).recover(new Store(1000)));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    @Test
+    void testCheckpointEmptiesJournal() {
+        try {
+            Store s = journal.recover(new Store(1000));
+            runTransactions(s);
+            journal.sync();
+            long before = journal.size();
+            journal.checkpoint();
+            assertTrue(journal.size() < before);
+            checkStore(new JsonReader(SNAPSHOT).read());
+
+            s.getItemsStocked().get(0).setPrice(3);
+            journal.close();
+            Store recovered = new TransactionJournal(JOURNAL, SNAPSHOT).recover(new Store(1));
+            assertEquals(3, recovered.getItemsStocked().get(0).getPrice());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    @Test
+    void testRecoverIgnoresTornRecord() {
+        try {
+            runTransactions(journal.recover(new Store(1000)));
+            journal.close();
+            Files.write(Paths.get(JOURNAL), new byte[] {'X', 0, 0, 0, 9, 'p'}, StandardOpenOption.APPEND);
+
+            journal = new TransactionJournal(JOURNAL, SNAPSHOT);
+            Store s = journal.recover(new Store(1000));
+            checkStore(s);
+            s.stock(new Item("ink", 1), 1);
+            journal.close();
+            assertEquals(3, new TransactionJournal(JOURNAL, SNAPSHOT).recover(new Store(1000))
+                    .getItemsStocked().size());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    @Test
+    void testRecoverIgnoresJournalOfOlderSnapshot() {
+        try {
+            runTransactions(journal.recover(new Store(1000)));
+            journal.sync();
+            byte[] oldJournal = Files.readAllBytes(Paths.get(JOURNAL));
+            journal.checkpoint();
+            journal.close();
+            // as if the program crashed after writing the snapshot but before emptying the journal
+            Files.write(Paths.get(JOURNAL), oldJournal);
+
+            checkStore(new TransactionJournal(JOURNAL, SNAPSHOT).recover(new Store(1000)));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    @Test
+    void testRecoverAdoptsNextJournal() {
+        try {
+            Store s = journal.recover(new Store(1000));
+            runTransactions(s);
+            journal.checkpoint();
+            s.getItemsStocked().get(0).setPrice(3);
+            journal.close();
+            // as if the program crashed after writing the snapshot but before replacing the journal
+            Files.move(Paths.get(JOURNAL), Paths.get(JOURNAL + ".next"));
+            Files.write(Paths.get(JOURNAL), new byte[] {'S', 'T', 'R', 'J', 0, 0, 0, 0, 0, 0, 0, 1});
+
+            Store recovered = new TransactionJournal(JOURNAL, SNAPSHOT).recover(new Store(1));
+            assertEquals(3, recovered.getItemsStocked().get(0).getPrice());
+            assertFalse(Files.exists(Paths.get(JOURNAL + ".next")));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    @Test
+    void testRecoverDeletesUnfinishedNextJournal() {
+        try {
+            runTransactions(journal.recover(new Store(1000)));
+            journal.close();
+            // as if the program crashed before writing the snapshot
+            Files.write(Paths.get(JOURNAL + ".next"), new byte[] {'S', 'T', 'R'});
+
+            checkStore(new TransactionJournal(JOURNAL, SNAPSHOT).recover(new Store(1000)));
+            assertFalse(Files.exists(Paths.get(JOURNAL + ".next")));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    @Test
+    void testFsyncPolicies() {
+        for (FsyncPolicy policy : FsyncPolicy.values()) {
+            try {
+                setUp();
+                journal.setFsyncPolicy(policy);
+                journal.setCommitInterval(1);
+                runTransactions(journal.recover(new Store(1000)));
+                journal.close();
+                checkStore(new TransactionJournal(JOURNAL, SNAPSHOT).recover(new Store(1000)));
+            } catch (IOException e) {
+                fail("Exception should not have been thrown: " + e);
+            }
+        }
+    }
+
+    @Test
+    void testRecoverTransfers() {
+        try {
+            Store s = journal.recover(new Store(1000));
+            runTransactions(s);
+            Store other = new Store(1000);
+            other.stock(new Item("notebook", 2), 1);
+            assertEquals(TransactionResult.OK, s.transfer(other, new Item("pen", 0.45), 20));
+            assertEquals(TransactionResult.OK, other.transfer(s, new Item("notebook", 2), 1));
+            journal.close();
+
+            Store recovered = new TransactionJournal(JOURNAL, SNAPSHOT).recover(new Store(1000));
+            assertEquals(s.getAssetCents(), recovered.getAssetCents());
+            assertEquals(1000 - 45 - 10 + 79.6 + 9 - 2, recovered.getAsset());
+            assertEquals(55, recovered.getExpenditure());
+            checkItem("pen", 0.45, 1.99, 40, recovered.getItemsStocked().get(0));
+            checkItem("notebook", 2, 0, 6, recovered.getItemsStocked().get(1));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    @Test
+    void testRecoverItemPricedBeforeStocked() {
+        try {
+            Store s = journal.recover(new Store(10));
+            Item ink = new Item("ink", 2.5);
+            ink.setPrice(4);
+            assertTrue(s.stock(ink, 4));
+            assertEquals(TransactionResult.OK, s.trySell(new Item("ink", 2.5), 1));
+            journal.close();
+
+            Store recovered = new TransactionJournal(JOURNAL, SNAPSHOT).recover(new Store(10));
+            assertEquals(4, recovered.getAsset());
+            assertEquals(4, recovered.getRevenue());
+            checkItem("ink", 2.5, 4, 3, recovered.getItemsStocked().get(0));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    @Test
+    void testRecoverRejectsCorruptJournal() {
+        try {
+            runTransactions(journal.recover(new Store(1000)));
+            journal.close();
+            ByteBuffer record = ByteBuffer.allocate(1 + 4 + 3 + 8 + 8);
+            record.put((byte) 'X').putInt(3).put("pen".getBytes(StandardCharsets.UTF_8)).putLong(45).putLong(61);
+            Files.write(Paths.get(JOURNAL), record.array(), StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+        try {
+            journal = new TransactionJournal(JOURNAL, SNAPSHOT);
+            journal.recover(new Store(1000));
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("at offset"));
+        }
+    }
+
+    @Test
+    void testRecoverStockPaidForByConcurrentSale() throws InterruptedException {
+        CountDownLatch selling = new CountDownLatch(1);
+        CountDownLatch stocked = new CountDownLatch(1);
+        Store initial = new Store(10);
+        initial.addListener(new StoreListener() {
+            @Override
+            public void itemStocked(Item item, int quantity) {
+            }
+
+            @Override
+            public void itemSold(Item item, int quantity) {
+                selling.countDown();
+                try {
+                    stocked.await(200, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void priceChanged(Item item, long priceCents) {
+            }
+
+            @Override
+            public void itemTransferred(Item item, int quantity) {
+            }
+        });
+        try {
+            Store s = journal.recover(initial);
+            Item pen = new Item("pen", 10);
+            pen.setPrice(20);
+            assertTrue(s.stock(pen, 1));
+            Thread seller = new Thread(() -> s.trySell(pen, 1));
+            seller.start();
+            selling.await();
+            assertEquals(TransactionResult.OK, s.tryStock(new Item("ink", 20), 1));
+            stocked.countDown();
+            seller.join();
+            journal.close();
+
+            Store recovered = new TransactionJournal(JOURNAL, SNAPSHOT).recover(new Store(10));
+            assertEquals(0, recovered.getAssetCents());
+            assertEquals(2000, recovered.getRevenueCents());
+            assertEquals(3000, recovered.getExpenditureCents());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    @Test
+    void testRecoverSaleRacingPriceChange() throws InterruptedException {
+        CountDownLatch priceRead = new CountDownLatch(1);
+        CountDownLatch repriced = new CountDownLatch(1);
+        AtomicReference<Thread> seller = new AtomicReference<>();
+        AtomicInteger sellerReads = new AtomicInteger();
+        Item pen = new Item("pen", 10) {
+            @Override
+            public long getPriceCents() {
+                long cents = super.getPriceCents();
+                // the sale's second read of the price is the one it charges
+                if (Thread.currentThread() == seller.get() && sellerReads.incrementAndGet() == 2) {
+                    priceRead.countDown();
+                    try {
+                        repriced.await(200, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return cents;
+            }
+        };
+        try {
+            Store s = journal.recover(new Store(10));
+            pen.setPrice(20);
+            assertTrue(s.stock(pen, 1));
+            seller.set(new Thread(() -> s.trySell(pen, 1)));
+            seller.get().start();
+            priceRead.await();
+            pen.setPrice(30);
+            repriced.countDown();
+            seller.get().join();
+            journal.close();
+
+            Store recovered = new TransactionJournal(JOURNAL, SNAPSHOT).recover(new Store(10));
+            assertEquals(s.getRevenueCents(), recovered.getRevenueCents());
+            assertEquals(s.getAssetCents(), recovered.getAssetCents());
+            assertEquals(3000, recovered.lookup(pen).getPriceCents());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown: " + e);
+        }
+    }
+
+    // MODIFIES: s
+    // EFFECTS: stocks, prices and sells a pen and a notebook
+    private void runTransactions(Store s) {
+        Item pen = new Item("pen", 0.45);
+        assertTrue(s.stock(pen, 100));
+        assertTrue(s.stock(new Item("notebook", 2), 5));
+        pen.setPrice(1.99);
+        try {
+            assertTrue(s.sell(new Item("pen", 0.45), 40));
+        } catch (InsufficientQuantityException e) {
+            fail();
+        }
+    }
+
+    // EFFECTS: checks that s is a store of 1000 dollars after runTransactions
+    private void checkStore(Store s) {
+        assertEquals(1000 - 45 - 10 + 79.6, s.getAsset());
+        assertEquals(79.6, s.getRevenue());
+        assertEquals(55, s.getExpenditure());
+        List<Item> items = s.getItemsStocked();
+        assertEquals(2, items.size());
+        checkItem("pen", 0.45, 1.99, 60, items.get(0));
+        checkItem("notebook", 2, 0, 5, items.get(1));
+    }
+}
@@ -0,0 +1,171 @@
+package server;
+
+import model.Item;
+import model.Store;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoreServerTest {
+    Store store;
+    StoreServer server;
+    HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new Store(1000);
+        server = new StoreServer(store, 0, StoreServer.DEFAULT_MAX_IN_FLIGHT);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testStockPriceAndSell() throws Exception {
+        HttpResponse<String> response = post("/stock", "{\"name\":\"pen\",\"cost\":0.45,\"quantity\":10}");
+        assertEquals(200, response.statusCode());
+        JSONObject json = new JSONObject(response.body());
+        assertEquals("OK", json.getString("result"));
+        assertEquals(10, json.getJSONObject("item").getInt("quantity"));
+
+        assertEquals(409, post("/sell", "{\"name\":\"pen\",\"cost\":0.45,\"quantity\":1}").statusCode());
+        assertEquals(200, post("/price", "{\"name\":\"pen\",\"cost\":0.45,\"price\":1.99}").statusCode());
+        response = post("/sell", "{\"name\":\"pen\",\"cost\":0.45,\"quantity\":4}");
+        assertEquals(200, response.statusCode());
+        assertEquals(6, new JSONObject(response.body()).getJSONObject("item").getInt("quantity"));
+
+        response = post("/sell", "{\"name\":\"pen\",\"cost\":0.45,\"quantity\":7}");
+        assertEquals(409, response.statusCode());
+        assertEquals("INSUFFICIENT_QUANTITY", new JSONObject(response.body()).getString("result"));
+        assertEquals(404, post("/sell", "{\"name\":\"cap\",\"cost\":1,\"quantity\":1}").statusCode());
+        assertEquals(409, post("/stock", "{\"name\":\"pen\",\"cost\":0.45,\"quantity\":10000}").statusCode());
+
+        assertEquals(6, store.lookup(new Item("pen", 0.45)).getQuantity());
+        assertEquals(7.96, store.getRevenue());
+    }
+
+    @Test
+    void testLookupAndTotals() throws Exception {
+        store.stock(new Item("book", 30), 3);
+        HttpResponse<String> response = get("/item?name=book&cost=30");
+        assertEquals(200, response.statusCode());
+        JSONObject item = new JSONObject(response.body());
+        assertEquals("book", item.getString("name"));
+        assertEquals(3, item.getInt("quantity"));
+        assertEquals(404, get("/item?name=book&cost=31").statusCode());
+
+        JSONObject totals = new JSONObject(get("/totals").body());
+        assertEquals(910, totals.getDouble("asset"));
+        assertEquals(90, totals.getDouble("expenditure"));
+        assertEquals(3, totals.getLong("unitsOnHand"));
+        assertEquals(90, totals.getDouble("inventoryValue"));
+
+        JSONObject whole = new JSONObject(get("/store").body());
+        assertEquals(1, whole.getJSONArray("items").length());
+    }
+
+    @Test
+    void testBadRequests() throws Exception {
+        assertEquals(400, post("/stock", "not json").statusCode());
+        assertEquals(400, post("/stock", "{\"name\":\"pen\",\"cost\":0.45,\"quantity\":0}").statusCode());
+        assertEquals(400, post("/price", "{\"name\":\"pen\",\"cost\":-1,\"price\":1}").statusCode());
+        assertEquals(400, get("/item?name=pen").statusCode());
+        assertEquals(405, get("/sell").statusCode());
+        assertEquals(404, get("/items").statusCode());
+        assertEquals(0, store.getItemCount());
+    }
+
+    @Test
+    void testShedsLoadWhenFull() throws Exception {
+        server.stop(0);
+        server = new StoreServer(store, 0, 1);
+        server.start();
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread exclusive = new Thread(() -> store.runExclusively(() -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        exclusive.start();
+        held.await();
+
+        CompletableFuture<HttpResponse<String>> blocked =
+                postAsync("/stock", "{\"name\":\"pen\",\"cost\":0.45,\"quantity\":1}");
+        HttpResponse<String> shed = get("/totals");
+        while (shed.statusCode() == 200) {
+            if (blocked.isDone()) {
+                blocked = postAsync("/stock", "{\"name\":\"pen\",\"cost\":0.45,\"quantity\":1}");
+            }
+            shed = get("/totals");
+        }
+        assertEquals(503, shed.statusCode());
+        assertEquals("1", shed.headers().firstValue("Retry-After").orElse(null));
+        assertTrue(server.getRequestsShed() >= 1);
+
+        release.countDown();
+        exclusive.join();
+        assertEquals(200, blocked.get().statusCode());
+        assertEquals(200, get("/totals").statusCode());
+    }
+
+    @Test
+    void testManyConcurrentClients() throws Exception {
+        store.stock(new Item("pen", 0.01), 1000);
+        store.lookup(new Item("pen", 0.01)).setPrice(0.02);
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            responses.add(postAsync("/sell", "{\"name\":\"pen\",\"cost\":0.01,\"quantity\":1}"));
+        }
+        int sold = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            int status = response.get().statusCode();
+            assertTrue(status == 200 || status == 503);
+            sold += status == 200 ? 1 : 0;
+        }
+        assertEquals(1000 - sold, store.lookup(new Item("pen", 0.01)).getQuantity());
+        assertEquals(200 - sold, server.getRequestsShed());
+    }
+
+    // EFFECTS: returns the response to a GET of path
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // EFFECTS: returns the response to a POST of body to path
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return postAsync(path, body).get();
+    }
+
+    // EFFECTS: POSTs body to path and returns the response to come
+    private CompletableFuture<HttpResponse<String>> postAsync(String path, String body) {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // EFFECTS: returns the URI of path on the server
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
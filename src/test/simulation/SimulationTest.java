@@ -0,0 +1,63 @@
+package simulation;
+
+import model.Store;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationTest {
+
+    @Test
+    public void testCustomersBuyTheirBaskets() throws InterruptedException {
+        SimulationConfig config = new SimulationConfig().items(50).customers(4).basketsPerCustomer(500)
+                .basketSize(1, 3, 2).suppliers(0).initialQuantity(1000);
+        Simulation simulation = new Simulation(config);
+        SimulationReport report = simulation.run();
+        Store store = simulation.getStore();
+        assertEquals(4 * 500, report.getSales() + report.getInsufficientQuantity());
+        assertEquals(0, report.getNotForSale());
+        assertEquals(4 * 500, report.getTransactions());
+        assertEquals(4 * 500, report.getSellLatency().getCount());
+        assertEquals(50 * 1000 - report.getUnitsSold(), store.getUnitsOnHand());
+        assertEquals(report.getUnitsSold() * 800, store.getRevenueCents());
+        assertTrue(report.getTransactionsPerSecond() > 0);
+    }
+
+    @Test
+    public void testRunOutOfStockAndAsset() throws InterruptedException {
+        SimulationConfig config = new SimulationConfig().items(5).initialQuantity(3).customers(2)
+                .basketsPerCustomer(200).basketSize(1, 1, 1).initialAsset(1).suppliers(0);
+        SimulationReport report = new Simulation(config).run();
+        assertEquals(15, report.getSales());
+        assertEquals(15, report.getUnitsSold());
+        assertEquals(400 - 15, report.getInsufficientQuantity());
+    }
+
+    @Test
+    public void testSuppliersRestockUntilDeadline() throws InterruptedException {
+        SimulationConfig config = new SimulationConfig().items(10).customers(1).arrivalRate(200)
+                .suppliers(2).restock(10, 5, 10).initialAsset(2).durationMillis(300).zipfExponent(1.5);
+        Simulation simulation = new Simulation(config);
+        SimulationReport report = simulation.run();
+        assertTrue(report.getRejectedStocks() > 0);
+        assertEquals(report.getStocks() * 10 * 500, simulation.getStore().getExpenditureCents());
+        assertTrue(report.getSales() > 0);
+        assertTrue(report.getElapsedNanos() >= 250000000L);
+        assertTrue(report.toString().contains("Sell latency"));
+    }
+
+    @Test
+    public void testParseArguments() {
+        SimulationConfig config = SimulationMain.parse(new String[] {"items=20", "zipf=0.8", "columnar=true",
+                "maxBasket=7", "restockQuantity=5", "price=900"});
+        assertEquals(20, config.getItems());
+        assertEquals(0.8, config.getZipfExponent());
+        assertTrue(config.isColumnar());
+        assertEquals(7, config.getMaxBasketSize());
+        assertEquals(5, config.getRestockQuantity());
+        assertEquals(900, config.getPriceCents());
+        assertThrows(IllegalArgumentException.class, () -> SimulationMain.parse(new String[] {"items"}));
+        assertThrows(IllegalArgumentException.class, () -> SimulationMain.parse(new String[] {"color=red"}));
+        assertThrows(IllegalArgumentException.class, () -> SimulationMain.parse(new String[] {"items=x"}));
+    }
+}
@@ -0,0 +1,64 @@
+package simulation;
+
+import model.Item;
+import model.Store;
+import org.junit.jupiter.api.Test;
+import persistence.JsonReader;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StoreGeneratorTest {
+
+    @Test
+    public void testItems() {
+        Item[] items = new StoreGenerator(7).items(1000);
+        assertEquals(1000, items.length);
+        int priced = 0;
+        for (int i = 0; i < items.length; i++) {
+            Item item = items[i];
+            assertEquals("product-" + i, item.getName());
+            assertTrue(item.getCostCents() >= 100 && item.getCostCents() <= 10000);
+            assertTrue(item.getQuantity() >= 0 && item.getQuantity() <= 500);
+            if (item.priceIsSet()) {
+                priced++;
+                assertTrue(item.getPriceCents() > item.getCostCents());
+                assertTrue(item.getPriceCents() <= 2 * item.getCostCents());
+            }
+        }
+        assertEquals(800, priced, 60);
+    }
+
+    @Test
+    public void testSameSeedSameStore() {
+        Store heap = new StoreGenerator(3).store(500, false);
+        Store columnar = new StoreGenerator(3).store(500, true);
+        List<Item> expected = heap.getItemsStocked();
+        List<Item> actual = columnar.getItemsStocked();
+        assertEquals(500, actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i));
+            assertEquals(expected.get(i).getQuantity(), actual.get(i).getQuantity());
+            assertEquals(expected.get(i).getPriceCents(), actual.get(i).getPriceCents());
+        }
+        assertEquals(heap.getInventoryValueCents(), columnar.getInventoryValueCents());
+        assertTrue(heap.takeDirtyItems().isEmpty());
+        assertNotEquals(heap.getInventoryValueCents(), new StoreGenerator(4).store(500, false).getInventoryValueCents());
+    }
+
+    @Test
+    public void testMainWritesStoreFile() throws FileNotFoundException {
+        StoreGenerator.main(new String[] {"20", "./data/testGenerated.json", "5"});
+        try {
+            Store read = new JsonReader("./data/testGenerated.json").read();
+            assertEquals(20, read.getItemCount());
+            assertEquals(new StoreGenerator(5).store(20, false).getInventoryValueCents(),
+                    read.getInventoryValueCents());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipfDistributionTest {
+
+    @Test
+    public void testUniformWithExponentZero() {
+        int[] counts = draw(new ZipfDistribution(4, 0), 40000);
+        for (int count : counts) {
+            assertEquals(10000, count, 500);
+        }
+    }
+
+    @Test
+    public void testSkewed() {
+        ZipfDistribution zipf = new ZipfDistribution(100, 1);
+        assertEquals(100, zipf.size());
+        int[] counts = draw(zipf, 100000);
+        // P(rank 0) = 1 / H(100) = 0.193, P(rank 1) = half of that
+        assertEquals(19300, counts[0], 800);
+        assertEquals(9650, counts[1], 600);
+        assertTrue(counts[99] < counts[9]);
+    }
+
+    @Test
+    public void testSingleRank() {
+        assertArrayEquals(new int[] {50}, draw(new ZipfDistribution(1, 2), 50));
+    }
+
+    // EFFECTS: returns how many times each rank is drawn from zipf in n draws
+    private static int[] draw(ZipfDistribution zipf, int n) {
+        SplittableRandom random = new SplittableRandom(42);
+        int[] counts = new int[zipf.size()];
+        for (int i = 0; i < n; i++) {
+            counts[zipf.sample(random)]++;
+        }
+        return counts;
+    }
+}